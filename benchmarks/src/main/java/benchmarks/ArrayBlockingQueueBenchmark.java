@@ -0,0 +1,73 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linha de base: {@link ArrayBlockingQueue#put(Object)} e {@link ArrayBlockingQueue#take()} do JDK.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Timeout(time = 3)
+@Fork(1)
+public class ArrayBlockingQueueBenchmark {
+    private static final Integer ITEM = 42;
+
+    @Param({"1", "16", "256"})
+    public int bufferSize;
+
+    private ArrayBlockingQueue<Integer> queue;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        queue = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    @Benchmark
+    @Group("putTake")
+    @GroupThreads(1)
+    public void put(Control control) throws InterruptedException {
+        try {
+            queue.put(ITEM);
+        } catch (InterruptedException e) {
+            // O JMH interrompe quem ficou bloqueado após o fim da iteração
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("putTake")
+    @GroupThreads(1)
+    public Integer take(Control control) throws InterruptedException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executa todos os benchmarks de buffer para cada quantidade de threads informada, medindo vazão e
+ * percentis de latência. Cada execução grava um relatório JSON em {@code target/jmh-<p>x<c>.json}.
+ * <p>
+ * Uso: {@code java -cp benchmarks.jar benchmarks.BenchmarkRunner [threads] [filtro]}, onde {@code threads}
+ * é uma lista como {@code 1,2,4} (produtores = consumidores = n) e {@code filtro} é uma expressão regular
+ * opcional sobre o nome dos benchmarks.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4").split(",");
+        String filter = args.length > 1 ? args[1] : "benchmarks\\..*Benchmark";
+
+        for (String value : threadCounts) {
+            int threads = Integer.parseInt(value.trim());
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(filter)
+                    .mode(Mode.Throughput)
+                    .mode(Mode.SampleTime)
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .threadGroups(threads, threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh-" + threads + "x" + threads + ".json");
+            if (threads > 1) {
+                options.exclude(SpscFIFOBenchmark.class.getSimpleName()); // SPSC exige um único par
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
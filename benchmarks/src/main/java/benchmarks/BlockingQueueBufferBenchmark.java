@@ -0,0 +1,117 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import common.EventLog;
+import common.StandardWaitStrategy;
+import prodconsum.BlockingQueueBuffer;
+import prodconsum.Message;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link BlockingQueueBuffer#sendMessage(String)} e {@link BlockingQueueBuffer#receiveMessage()}
+ * com produtores e consumidores concorrentes no mesmo grupo, e da API tipada
+ * ({@link BlockingQueueBuffer#sendMessage(long)} e {@link BlockingQueueBuffer#receiveMessage(Message)}),
+ * que não aloca objetos. Rode com {@code -prof gc} para comparar a alocação por operação. Cada estratégia de espera
+ * é medida separadamente; as que usam espera ativa só fazem sentido com um núcleo livre por thread.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Timeout(time = 3)
+@Fork(1)
+public class BlockingQueueBufferBenchmark {
+    private static final String MESSAGE = "Message containing Item 0";
+
+    @Param({"1", "16", "256"})
+    public int bufferSize;
+
+    @Param({"BLOCKING", "SPIN_THEN_PARK", "SPIN_THEN_YIELD", "BUSY_SPIN"})
+    public StandardWaitStrategy waitStrategy;
+
+    private BlockingQueueBuffer buffer;
+    private final Message received = new Message(); // Usada apenas pela thread consumidora do grupo tipado
+    private long payload;
+
+    /**
+     * Cria o buffer com o log de eventos desligado, que de outra forma dominaria a medição.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        buffer = new BlockingQueueBuffer(bufferSize, EventLog.off(), waitStrategy);
+    }
+
+    @Benchmark
+    @Group("sendReceive")
+    @GroupThreads(1)
+    public void send(Control control) throws InterruptedException {
+        try {
+            buffer.sendMessage(MESSAGE);
+        } catch (InterruptedException e) {
+            // O JMH interrompe quem ficou bloqueado após o fim da iteração
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("sendReceive")
+    @GroupThreads(1)
+    public String receive(Control control) throws InterruptedException {
+        try {
+            return buffer.receiveMessage();
+        } catch (InterruptedException e) {
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+            return null;
+        }
+    }
+
+    @Benchmark
+    @Group("sendReceiveTyped")
+    @GroupThreads(1)
+    public long sendTyped(Control control) throws InterruptedException {
+        try {
+            return buffer.sendMessage(payload++);
+        } catch (InterruptedException e) {
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+            return -1;
+        }
+    }
+
+    @Benchmark
+    @Group("sendReceiveTyped")
+    @GroupThreads(1)
+    public long receiveTyped(Control control) throws InterruptedException {
+        try {
+            buffer.receiveMessage(received);
+            return received.getPayload();
+        } catch (InterruptedException e) {
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import prodconsumsemaphore.controller.FIFO;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link FIFO#enqueue(int)} e {@link FIFO#dequeue()} seguindo o mesmo protocolo de semáforos
+ * (empty, full e mutex) usado pelo ConsumerProducer.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Timeout(time = 3)
+@Fork(1)
+public class FifoSemaphoreBenchmark {
+    @Param({"1", "16", "256"})
+    public int bufferSize;
+
+    private FIFO fifo;
+    private Semaphore empty;
+    private Semaphore full;
+    private Semaphore mutex;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        fifo = new FIFO(bufferSize);
+        empty = new Semaphore(bufferSize);
+        full = new Semaphore(0);
+        mutex = new Semaphore(1);
+    }
+
+    @Benchmark
+    @Group("enqueueDequeue")
+    @GroupThreads(1)
+    public void enqueue(Control control) throws InterruptedException {
+        try {
+            empty.acquire();
+            mutex.acquire();
+            fifo.enqueue(42);
+            mutex.release();
+            full.release();
+        } catch (InterruptedException e) {
+            // O JMH interrompe quem ficou bloqueado após o fim da iteração
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("enqueueDequeue")
+    @GroupThreads(1)
+    public int dequeue(Control control) throws InterruptedException {
+        try {
+            full.acquire();
+            mutex.acquire();
+            int item = fifo.dequeue();
+            mutex.release();
+            empty.release();
+            return item;
+        } catch (InterruptedException e) {
+            if (!control.stopMeasurement) {
+                throw e;
+            }
+            return -1;
+        }
+    }
+}
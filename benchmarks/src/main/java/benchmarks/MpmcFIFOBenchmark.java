@@ -0,0 +1,65 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Timeout;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+import prodconsumsemaphore.controller.MpmcFIFO;
+import prodconsumsemaphore.controller.RingBuffer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark de {@link MpmcFIFO#offer(int)} e {@link MpmcFIFO#poll()} com espera ativa quando o buffer
+ * está cheio ou vazio.
+ */
+@State(Scope.Group)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Timeout(time = 3)
+@Fork(1)
+public class MpmcFIFOBenchmark {
+    @Param({"1", "16", "256"})
+    public int bufferSize;
+
+    private MpmcFIFO ring;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ring = new MpmcFIFO(bufferSize);
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    @GroupThreads(1)
+    public void offer(Control control) {
+        while (!ring.offer(42) && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    @Group("offerPoll")
+    @GroupThreads(1)
+    public long poll(Control control) {
+        long item;
+        while ((item = ring.poll()) == RingBuffer.EMPTY && !control.stopMeasurement) {
+            Thread.onSpinWait();
+        }
+        return item;
+    }
+}
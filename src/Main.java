@@ -1,3 +1,5 @@
+import common.ContentionProfiler;
+import headless.HeadlessRunner;
 import prodconsum.MessageVisualization;
 import prodconsumsemaphore.view.ProdutorConsumidorGUI;
 
@@ -5,6 +7,13 @@ import javax.swing.*;
 
 public class Main {
     public static void main(String[] args) {
+        ContentionProfiler.registerPlatformMBean(); // Consultável com JConsole enquanto a simulação executa
+
+        if (args.length > 0) { // Com argumentos, executa sem interface gráfica
+            HeadlessRunner.main(args);
+            return;
+        }
+
         String[] options = {"Solução Produtor e Consumidor com passagem de mensagem", "Solução Produtor e Consumidor por Semáforo"};
         int choice = JOptionPane.showOptionDialog(
                 null,
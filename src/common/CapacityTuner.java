@@ -0,0 +1,141 @@
+package common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajusta periodicamente a capacidade de um buffer conforme um {@link ElasticCapacity}.
+ * <p>
+ * Uma thread de plataforma ({@code capacity-tuner}) amostra o buffer a cada intervalo configurado. Se o tempo que os
+ * produtores passaram bloqueados desde a amostra anterior ultrapassar a marca alta, a capacidade dobra; se a
+ * ocupação ficar abaixo da marca baixa por várias amostras seguidas, ela cai pela metade. As threads de produção e
+ * consumo não participam da decisão: o redimensionamento é feito pelo próprio buffer, sob o seu lock, sem perder
+ * nem reordenar itens.
+ */
+public final class CapacityTuner {
+    /**
+     * Buffer cuja capacidade pode ser alterada com os produtores e consumidores em execução.
+     */
+    public interface Target {
+        /**
+         * Retorna a capacidade atual.
+         * @return Quantidade máxima de itens no buffer.
+         */
+        int capacity();
+
+        /**
+         * Retorna a quantidade de itens no buffer.
+         * @return Ocupação atual.
+         */
+        int size();
+
+        /**
+         * Retorna o tempo total, somado entre os produtores, passado esperando espaço no buffer.
+         * @return Tempo bloqueado, em nanossegundos; só precisa crescer de forma monotônica.
+         */
+        long producerBlockedNanos();
+
+        /**
+         * Altera a capacidade do buffer sem perder nem reordenar itens.
+         * @param capacity Capacidade desejada.
+         * @return A capacidade efetivamente aplicada, que pode ficar entre a atual e a desejada se os slots ainda
+         *         estiverem ocupados.
+         */
+        int resize(int capacity);
+    }
+
+    private final ElasticCapacity policy;
+    private final Target target;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long growCount;
+    private volatile long shrinkCount;
+    private long lastSampleNanos;
+    private long lastBlockedNanos;
+    private int lowSamples; // Amostras seguidas abaixo da marca baixa
+
+    /**
+     * Construtor da classe CapacityTuner. Inicia a thread de ajuste imediatamente.
+     * @param policy Limites e marcas d'água da capacidade.
+     * @param target Buffer ajustado.
+     */
+    public CapacityTuner(ElasticCapacity policy, Target target) {
+        this.policy = policy;
+        this.target = target;
+        this.lastSampleNanos = System.nanoTime();
+        this.lastBlockedNanos = target.producerBlockedNanos();
+        thread = new Thread(this::run, "capacity-tuner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(policy.sampleMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+            sample();
+        }
+    }
+
+    /**
+     * Lê o buffer e decide se a capacidade deve mudar.
+     */
+    private void sample() {
+        long now = System.nanoTime();
+        long blocked = target.producerBlockedNanos();
+        double blockedFraction = (double) (blocked - lastBlockedNanos) / Math.max(1, now - lastSampleNanos);
+        lastSampleNanos = now;
+        lastBlockedNanos = blocked;
+
+        int capacity = target.capacity();
+        int desired;
+        if (capacity != policy.clamp(capacity)) {
+            desired = policy.clamp(capacity); // Capacidade inicial fora dos limites
+        } else if (blockedFraction >= policy.highWatermark()) {
+            lowSamples = 0;
+            desired = policy.clamp(2L * capacity);
+        } else if (target.size() < policy.lowWatermark() * capacity) {
+            lowSamples++;
+            desired = lowSamples >= policy.shrinkAfterSamples() ? policy.clamp(capacity / 2) : capacity;
+        } else {
+            lowSamples = 0;
+            desired = capacity;
+        }
+        if (desired == capacity) {
+            return;
+        }
+        int applied = target.resize(desired);
+        if (applied > capacity) {
+            growCount++;
+        } else if (applied < capacity) {
+            shrinkCount++;
+            lowSamples = 0;
+        }
+    }
+
+    /**
+     * Retorna quantas vezes a capacidade aumentou.
+     * @return Contador de aumentos.
+     */
+    public long getGrowCount() {
+        return growCount;
+    }
+
+    /**
+     * Retorna quantas vezes a capacidade diminuiu.
+     * @return Contador de reduções.
+     */
+    public long getShrinkCount() {
+        return shrinkCount;
+    }
+
+    /**
+     * Encerra a thread de ajuste; a capacidade atual é mantida.
+     */
+    public void close() {
+        running = false;
+        thread.interrupt();
+    }
+}
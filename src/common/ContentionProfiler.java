@@ -0,0 +1,253 @@
+package common;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contabiliza o tempo que cada thread passa bloqueada em cada {@link ContentionSite} e quantas vezes uma thread
+ * acordada de uma condição encontrou ainda sem trabalho e voltou a aguardar (despertares vazios, típicos de
+ * {@code signalAll} ou de despertares espúrios).
+ * <p>
+ * Apenas os caminhos que de fato aguardam chamam o perfilador: quem encontra permissão, espaço ou item na primeira
+ * tentativa não paga nada. Cada thread escreve apenas nos seus próprios contadores, criados na primeira espera,
+ * então o registro não disputa nenhum lock nem aloca objetos depois disso. As leituras somam os contadores de
+ * todas as threads sem pará-las e refletem um instante aproximado.
+ * <p>
+ * Os contadores de uma thread encerrada são somados a um total das threads encerradas e descartados na leitura
+ * seguinte, ou a cada {@value #SWEEP_INTERVAL} threads novas, para que pools, threads virtuais e simulações
+ * reiniciadas não acumulem entradas: {@link #getSites()} continua contando o tempo delas, e {@link #getThreads()}
+ * mostra apenas as threads vivas.
+ * <p>
+ * Há uma única instância por JVM, {@link #global()}, publicada por JMX com {@link #registerPlatformMBean()}.
+ */
+public final class ContentionProfiler implements ContentionProfilerMXBean {
+    /**
+     * Nome do MBean no servidor da plataforma.
+     */
+    public static final String OBJECT_NAME = "finalso:type=ContentionProfiler";
+
+    /**
+     * Totais de um ponto de espera.
+     *
+     * @param site         Nome do ponto de espera.
+     * @param blockedCount Esperas que precisaram aguardar.
+     * @param blockedNanos Tempo total aguardando, em nanossegundos.
+     * @param emptyWakeups Despertares que encontraram a condição ainda falsa.
+     */
+    public record SiteContention(String site, long blockedCount, long blockedNanos, long emptyWakeups) {
+    }
+
+    /**
+     * Totais de uma thread em um ponto de espera.
+     *
+     * @param thread       Nome da thread na primeira espera.
+     * @param threadId     Identificador da thread.
+     * @param site         Nome do ponto de espera.
+     * @param blockedCount Esperas que precisaram aguardar.
+     * @param blockedNanos Tempo total aguardando, em nanossegundos.
+     * @param emptyWakeups Despertares que encontraram a condição ainda falsa.
+     */
+    public record ThreadContention(String thread, long threadId, String site, long blockedCount, long blockedNanos,
+                                   long emptyWakeups) {
+    }
+
+    private static final ContentionSite[] SITES = ContentionSite.values();
+    private static final int COUNT = 0;
+    private static final int NANOS = 1;
+    private static final int EMPTY_WAKEUPS = 2;
+    private static final int FIELDS = 3;
+    private static final int SWEEP_INTERVAL = 256; // Threads novas entre duas limpezas sem leitura
+
+    private static final ContentionProfiler GLOBAL = new ContentionProfiler();
+
+    /**
+     * Contadores de uma thread, escritos apenas por ela.
+     */
+    private static final class ThreadCounters {
+        final String thread;
+        final long threadId;
+        final WeakReference<Thread> owner; // Não impede a coleta da thread encerrada
+        final int generation; // Contadores de uma geração anterior a reset() são substituídos
+        final AtomicLongArray values = new AtomicLongArray(SITES.length * FIELDS);
+
+        ThreadCounters(Thread thread, int generation) {
+            this.thread = thread.getName();
+            this.threadId = thread.threadId();
+            this.owner = new WeakReference<>(thread);
+            this.generation = generation;
+        }
+
+        boolean isTerminated() {
+            Thread current = owner.get();
+            return current == null || !current.isAlive();
+        }
+
+        void add(ContentionSite site, int field, long delta) {
+            int index = site.ordinal() * FIELDS + field;
+            values.lazySet(index, values.get(index) + delta); // Um único escritor: não precisa de CAS
+        }
+
+        long get(ContentionSite site, int field) {
+            return values.get(site.ordinal() * FIELDS + field);
+        }
+    }
+
+    private final Queue<ThreadCounters> counters = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<ThreadCounters> local = new ThreadLocal<>();
+    private final long[] retired = new long[SITES.length * FIELDS]; // Threads encerradas; protegido por si mesmo
+    private final AtomicInteger registrations = new AtomicInteger();
+    private volatile int generation;
+    private volatile boolean enabled = true;
+
+    private ContentionProfiler() {
+    }
+
+    /**
+     * Retorna o perfilador da JVM.
+     * @return A instância única.
+     */
+    public static ContentionProfiler global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Publica o perfilador no servidor de MBeans da plataforma com o nome {@value #OBJECT_NAME}. Chamadas
+     * repetidas não têm efeito.
+     * @throws IllegalStateException se o servidor recusar o registro.
+     */
+    public static void registerPlatformMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(GLOBAL, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // Já publicado
+        } catch (JMException e) {
+            throw new IllegalStateException("Falha ao publicar o perfilador de contenção: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Registra uma espera concluída.
+     * @param site Ponto de espera.
+     * @param blockedNanos Tempo aguardando, em nanossegundos.
+     */
+    public void recordBlocked(ContentionSite site, long blockedNanos) {
+        if (enabled) {
+            ThreadCounters current = current();
+            current.add(site, COUNT, 1);
+            current.add(site, NANOS, blockedNanos);
+        }
+    }
+
+    /**
+     * Registra um despertar que encontrou a condição ainda falsa.
+     * @param site Ponto de espera.
+     */
+    public void recordEmptyWakeup(ContentionSite site) {
+        if (enabled) {
+            current().add(site, EMPTY_WAKEUPS, 1);
+        }
+    }
+
+    private ThreadCounters current() {
+        ThreadCounters current = local.get();
+        int currentGeneration = generation;
+        if (current == null || current.generation != currentGeneration) {
+            current = new ThreadCounters(Thread.currentThread(), currentGeneration);
+            local.set(current);
+            counters.add(current);
+            if (registrations.incrementAndGet() % SWEEP_INTERVAL == 0) {
+                sweep();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Soma os contadores das threads encerradas ao total das encerradas e os remove da lista. O encerramento
+     * visto por {@link Thread#isAlive()} garante que as últimas escritas da thread já são visíveis.
+     */
+    private void sweep() {
+        synchronized (retired) {
+            for (Iterator<ThreadCounters> it = counters.iterator(); it.hasNext(); ) {
+                ThreadCounters thread = it.next();
+                if (thread.isTerminated()) {
+                    for (int i = 0; i < retired.length; i++) {
+                        retired[i] += thread.values.get(i);
+                    }
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public List<SiteContention> getSites() {
+        long[] totals;
+        synchronized (retired) {
+            sweep();
+            totals = retired.clone();
+            for (ThreadCounters thread : counters) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += thread.values.get(i);
+                }
+            }
+        }
+        List<SiteContention> sites = new ArrayList<>(SITES.length);
+        for (ContentionSite site : SITES) {
+            int base = site.ordinal() * FIELDS;
+            sites.add(new SiteContention(site.name(), totals[base + COUNT], totals[base + NANOS],
+                    totals[base + EMPTY_WAKEUPS]));
+        }
+        return sites;
+    }
+
+    @Override
+    public List<ThreadContention> getThreads() {
+        sweep();
+        List<ThreadContention> threads = new ArrayList<>();
+        for (ThreadCounters thread : counters) {
+            for (ContentionSite site : SITES) {
+                long count = thread.get(site, COUNT);
+                long emptyWakeups = thread.get(site, EMPTY_WAKEUPS);
+                if (count > 0 || emptyWakeups > 0) {
+                    threads.add(new ThreadContention(thread.thread, thread.threadId, site.name(), count,
+                            thread.get(site, NANOS), emptyWakeups));
+                }
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * Descarta os totais acumulados. Cada thread passa a usar contadores novos na próxima espera.
+     */
+    @Override
+    public void reset() {
+        synchronized (retired) {
+            generation++;
+            counters.clear();
+            Arrays.fill(retired, 0);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package common;
+
+import java.util.List;
+
+/**
+ * Interface de gerenciamento do {@link ContentionProfiler}, publicada no servidor de MBeans da plataforma com o
+ * nome {@value ContentionProfiler#OBJECT_NAME}, para consulta com JConsole, VisualVM ou {@code jcmd}.
+ */
+public interface ContentionProfilerMXBean {
+    /**
+     * Verifica se as esperas estão sendo contabilizadas.
+     * @return true se o perfilador está ligado.
+     */
+    boolean isEnabled();
+
+    /**
+     * Liga ou desliga a contabilização das esperas. Os totais acumulados são mantidos.
+     * @param enabled true para contabilizar.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Retorna os totais de cada ponto de espera, somados entre todas as threads, inclusive as já encerradas.
+     * @return Um elemento por ponto de espera, na ordem de {@link ContentionSite}.
+     */
+    List<ContentionProfiler.SiteContention> getSites();
+
+    /**
+     * Retorna os totais de cada thread viva em cada ponto de espera em que ela já aguardou.
+     * @return Um elemento por thread e ponto de espera.
+     */
+    List<ContentionProfiler.ThreadContention> getThreads();
+
+    /**
+     * Descarta os totais acumulados, inclusive os das threads já encerradas.
+     */
+    void reset();
+}
@@ -0,0 +1,27 @@
+package common;
+
+/**
+ * Pontos de espera acompanhados pelo {@link ContentionProfiler}.
+ */
+public enum ContentionSite {
+    /** Semáforo empty do ConsumerProducer: produtores aguardando espaço no buffer. */
+    SEMAPHORE_EMPTY,
+    /** Semáforo full do ConsumerProducer: consumidores aguardando itens. */
+    SEMAPHORE_FULL,
+    /** Semáforo mutex do ConsumerProducer: acesso exclusivo ao FIFO. */
+    SEMAPHORE_MUTEX,
+    /** Anéis sem bloqueio do ConsumerProducer: produtores aguardando espaço. */
+    RING_FULL,
+    /** Anéis sem bloqueio do ConsumerProducer: consumidores aguardando itens. */
+    RING_EMPTY,
+    /** Condição notFull do FIFO: espera por espaço. */
+    FIFO_NOT_FULL,
+    /** Condição notEmpty do FIFO: espera por itens. */
+    FIFO_NOT_EMPTY,
+    /** Lock do BlockingQueueBuffer, disputado por produtores, consumidores e confirmações. */
+    BUFFER_LOCK,
+    /** Condição notFull do BlockingQueueBuffer: espera por confirmações. */
+    BUFFER_NOT_FULL,
+    /** Condição notEmpty do BlockingQueueBuffer: espera por mensagens. */
+    BUFFER_NOT_EMPTY
+}
@@ -0,0 +1,62 @@
+package common;
+
+/**
+ * Limites e marcas d'água da capacidade adaptativa de um buffer, aplicados por um {@link CapacityTuner}.
+ * A capacidade dobra quando os produtores passam tempo demais bloqueados esperando espaço e cai pela metade
+ * quando a ocupação fica baixa por várias amostras seguidas, sempre entre o mínimo e o máximo.
+ *
+ * @param minCapacity        Menor capacidade permitida.
+ * @param maxCapacity        Maior capacidade permitida.
+ * @param highWatermark      Fração do intervalo de amostragem, somada entre os produtores, passada bloqueada
+ *                           esperando espaço a partir da qual a capacidade cresce.
+ * @param lowWatermark       Fração da capacidade ocupada abaixo da qual uma amostra conta para a redução.
+ * @param sampleMillis       Intervalo entre duas amostras, em milissegundos.
+ * @param shrinkAfterSamples Quantidade de amostras seguidas abaixo da marca baixa antes de reduzir a capacidade.
+ */
+public record ElasticCapacity(int minCapacity, int maxCapacity, double highWatermark, double lowWatermark,
+                              long sampleMillis, int shrinkAfterSamples) {
+    private static final double DEFAULT_HIGH_WATERMARK = 0.05;
+    private static final double DEFAULT_LOW_WATERMARK = 0.25;
+    private static final long DEFAULT_SAMPLE_MILLIS = 250;
+    private static final int DEFAULT_SHRINK_AFTER_SAMPLES = 20; // Cinco segundos de ocupação baixa
+
+    /**
+     * Valida a configuração.
+     * @throws IllegalArgumentException se os limites não formarem um intervalo positivo, se as marcas d'água não
+     *                                  estiverem entre 0 e 1 ou se o intervalo e a quantidade de amostras não
+     *                                  forem positivos.
+     */
+    public ElasticCapacity {
+        if (minCapacity < 1 || maxCapacity < minCapacity) {
+            throw new IllegalArgumentException("Limites de capacidade inválidos: " + minCapacity + " a " + maxCapacity);
+        }
+        if (!(highWatermark > 0 && highWatermark <= 1) || !(lowWatermark >= 0 && lowWatermark < 1)) {
+            throw new IllegalArgumentException("Marcas d'água devem estar entre 0 e 1: " + highWatermark + ", "
+                    + lowWatermark);
+        }
+        if (sampleMillis <= 0 || shrinkAfterSamples < 1) {
+            throw new IllegalArgumentException("Intervalo e quantidade de amostras devem ser positivos.");
+        }
+    }
+
+    /**
+     * Capacidade adaptativa com as marcas d'água padrão: cresce quando os produtores ficam bloqueados mais de 5%
+     * do tempo e diminui depois de cinco segundos com menos de um quarto da capacidade ocupada.
+     * @param minCapacity Menor capacidade permitida.
+     * @param maxCapacity Maior capacidade permitida.
+     * @return A configuração correspondente.
+     */
+    public static ElasticCapacity between(int minCapacity, int maxCapacity) {
+        return new ElasticCapacity(minCapacity, maxCapacity, DEFAULT_HIGH_WATERMARK, DEFAULT_LOW_WATERMARK,
+                DEFAULT_SAMPLE_MILLIS, DEFAULT_SHRINK_AFTER_SAMPLES);
+    }
+
+    /**
+     * Limita uma capacidade ao intervalo configurado.
+     * @param capacity Capacidade desejada.
+     * @return A capacidade mais próxima dentro dos limites.
+     */
+    public int clamp(long capacity) {
+        return (int) Math.max(minCapacity, Math.min(maxCapacity, capacity));
+    }
+}
@@ -0,0 +1,251 @@
+package common;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log de eventos assíncrono e limitado.
+ * As threads de produção e consumo apenas publicam eventos estruturados (tipo, valor numérico e uma referência
+ * de detalhe) em um anel de tamanho fixo, sem locks, sem concatenação de strings e sem E/S. Uma thread de
+ * escrita em segundo plano retira os eventos, formata o texto e entrega cada linha aos {@link EventSink}s.
+ * <p>
+ * Quando o anel está cheio, a {@link OverflowPolicy} decide se o evento novo é descartado ou se o mais antigo
+ * ainda não escrito é sobrescrito; em ambos os casos o descarte é contabilizado. No nível {@link Level#OFF}
+ * a publicação retorna após uma única comparação e nenhuma thread de escrita é criada.
+ */
+public final class EventLog {
+    /**
+     * Níveis de log, do mais restrito ao mais detalhado.
+     */
+    public enum Level {
+        /** Nenhum evento é registrado. */
+        OFF,
+        /** Apenas eventos de ciclo de vida (por exemplo, limpeza do buffer). */
+        INFO,
+        /** Todos os eventos, inclusive um por item produzido ou consumido. */
+        TRACE
+    }
+
+    /**
+     * Política aplicada quando o anel de eventos está cheio.
+     */
+    public enum OverflowPolicy {
+        /** Descarta o evento que está sendo publicado. */
+        DROP_NEWEST,
+        /** Descarta o evento mais antigo ainda não escrito para abrir espaço ao novo. */
+        OVERWRITE_OLDEST
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final VarHandle WRITE_CURSOR;
+    private static final VarHandle READ_CURSOR;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WRITE_CURSOR = lookup.findVarHandle(EventLog.class, "writeCursor", long.class);
+            READ_CURSOR = lookup.findVarHandle(EventLog.class, "readCursor", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Level level;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    private final int mask;
+    private final EventType[] types;
+    private final long[] values;
+    private final Object[] details;
+    private final AtomicLongArray published; // Posição + 1 do evento completamente escrito em cada slot
+    private final List<EventSink> sinks = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile long writeCursor;
+    private volatile long readCursor;
+    private volatile boolean closed;
+
+    /**
+     * Cria um log desligado: não guarda eventos nem cria thread de escrita.
+     * @return Um log no nível {@link Level#OFF}.
+     */
+    public static EventLog off() {
+        return new EventLog(1, Level.OFF, OverflowPolicy.DROP_NEWEST);
+    }
+
+    /**
+     * Construtor da classe EventLog.
+     * @param capacity Quantidade de eventos que cabem no anel; arredondada para a próxima potência de dois.
+     * @param level Nível de log; eventos mais detalhados que este nível são ignorados na publicação.
+     * @param policy Política aplicada quando o anel está cheio.
+     */
+    public EventLog(int capacity, Level level, OverflowPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade do log deve ser positiva: " + capacity);
+        }
+        int length = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        this.level = level;
+        this.policy = policy;
+        this.capacity = length;
+        this.mask = length - 1;
+        this.types = new EventType[length];
+        this.values = new long[length];
+        this.details = new Object[length];
+        this.published = new AtomicLongArray(length);
+
+        if (level == Level.OFF) {
+            writer = null;
+        } else {
+            writer = new Thread(this::writeLoop, "event-log-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Verifica se eventos do nível informado são registrados.
+     * @param required Nível do evento.
+     * @return true se o evento seria registrado.
+     */
+    public boolean isEnabled(Level required) {
+        return required.compareTo(level) <= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Publica um evento sem bloquear e sem alocar. Pode ser chamado por qualquer número de threads.
+     * @param type Tipo do evento.
+     * @param value Valor numérico do evento (por exemplo, o item produzido).
+     * @param detail Referência de detalhe já existente (por exemplo, a mensagem enviada), ou null.
+     */
+    public void publish(EventType type, long value, Object detail) {
+        if (type.level().compareTo(level) > 0) {
+            return;
+        }
+        long claim;
+        while (true) {
+            claim = (long) WRITE_CURSOR.getVolatile(this);
+            long read = (long) READ_CURSOR.getVolatile(this);
+            if (claim - read >= capacity) {
+                if (policy == OverflowPolicy.DROP_NEWEST) {
+                    dropped.increment();
+                    return;
+                }
+                if (READ_CURSOR.compareAndSet(this, read, read + 1)) { // Abre espaço descartando o mais antigo
+                    dropped.increment();
+                }
+                continue;
+            }
+            if (WRITE_CURSOR.compareAndSet(this, claim, claim + 1)) {
+                break;
+            }
+        }
+        int index = (int) (claim & mask);
+        types[index] = type;
+        values[index] = value;
+        details[index] = detail;
+        published.setRelease(index, claim + 1);
+    }
+
+    /**
+     * Adiciona um destino para as linhas formatadas.
+     * @param sink Destino das linhas.
+     */
+    public void addSink(EventSink sink) {
+        sinks.add(sink);
+    }
+
+    /**
+     * Remove um destino previamente adicionado.
+     * @param sink Destino a ser removido.
+     */
+    public void removeSink(EventSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Retorna quantos eventos foram descartados por falta de espaço no anel.
+     * @return Contador de eventos descartados.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Aguarda até que todos os eventos publicados antes da chamada tenham sido entregues aos sinks.
+     * @param timeoutMillis Tempo máximo de espera, em milissegundos.
+     */
+    public void flush(long timeoutMillis) {
+        if (writer == null) {
+            return;
+        }
+        long target = writeCursor;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (readCursor < target && writer.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS / 10);
+        }
+    }
+
+    /**
+     * Encerra a thread de escrita depois de entregar os eventos pendentes.
+     */
+    public void close() {
+        closed = true;
+        if (writer != null) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Laço da thread de escrita: entrega os eventos disponíveis e estaciona brevemente quando não há nenhum.
+     */
+    private void writeLoop() {
+        while (true) {
+            if (drain() == 0) {
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Retira e entrega todos os eventos já publicados.
+     * @return Quantidade de eventos entregues.
+     */
+    private int drain() {
+        int delivered = 0;
+        while (true) {
+            long position = (long) READ_CURSOR.getVolatile(this);
+            int index = (int) (position & mask);
+            if (published.getAcquire(index) != position + 1) {
+                return delivered; // Ainda não publicado (ou reescrito por uma volta posterior)
+            }
+            EventType type = types[index];
+            long value = values[index];
+            Object detail = details[index];
+            if (policy == OverflowPolicy.OVERWRITE_OLDEST) {
+                // Um publicador pode ter descartado este evento enquanto era copiado
+                if (!READ_CURSOR.compareAndSet(this, position, position + 1)) {
+                    continue;
+                }
+            } else {
+                details[index] = null; // Não retém a referência até a próxima volta
+                READ_CURSOR.setRelease(this, position + 1);
+            }
+
+            String line = type.format(value, detail);
+            for (EventSink sink : sinks) {
+                sink.write(type, line);
+            }
+            delivered++;
+        }
+    }
+}
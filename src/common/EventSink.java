@@ -0,0 +1,20 @@
+package common;
+
+/**
+ * Destino das linhas formatadas pela thread de escrita do {@link EventLog}.
+ */
+@FunctionalInterface
+public interface EventSink {
+    /**
+     * Sink que imprime cada linha na saída padrão.
+     */
+    EventSink CONSOLE = (type, line) -> System.out.println(line);
+
+    /**
+     * Recebe um evento já formatado. É sempre chamado pela thread de escrita do log, nunca pelas threads
+     * que publicaram o evento.
+     * @param type Tipo do evento.
+     * @param line Texto formatado do evento.
+     */
+    void write(EventType type, String line);
+}
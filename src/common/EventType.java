@@ -0,0 +1,69 @@
+package common;
+
+/**
+ * Tipos de evento publicados no {@link EventLog}. Cada tipo define o nível mínimo de log em que é registrado
+ * e o modelo de texto usado pela thread de escrita para formatá-lo, fora do caminho crítico.
+ * Modelos com {@code %d} usam o valor numérico do evento; modelos com {@code %s} usam o detalhe. Tipos que
+ * também são publicados sem detalhe (mensagens tipadas, sem texto) têm um segundo modelo numérico para esse caso.
+ */
+public enum EventType {
+    ITEM_GENERATED(EventLog.Level.TRACE, "Producer: Generated item -> Item %d"),
+    MESSAGE_SENT(EventLog.Level.TRACE, "Producer: Sent message -> %s",
+            "Producer: Sent message -> Message containing Item %d"),
+    MESSAGE_RECEIVED(EventLog.Level.TRACE, "Consumer: Received message -> %s",
+            "Consumer: Received message -> Message containing Item %d"),
+    INITIAL_ACK_SENT(EventLog.Level.TRACE, "Consumer: Sent initial empty message to indicate free slot."),
+    ACK_SENT(EventLog.Level.TRACE, "Consumer: Sent empty message as acknowledgment."),
+    ACKS_SENT(EventLog.Level.TRACE, "Consumer: Sent %d empty messages as acknowledgment."),
+    ITEM_PROCESSED(EventLog.Level.TRACE, "Consumer (Server): Processed item -> %s",
+            "Consumer (Server): Processed item -> Item %d"),
+    BUFFER_CLEARED(EventLog.Level.INFO, "Buffer has been cleared."),
+    MESSAGES_RECOVERED(EventLog.Level.INFO, "Buffer recovered %d unacknowledged messages from the journal."),
+    CAPACITY_CHANGED(EventLog.Level.INFO, "Buffer capacity changed to %d."),
+    ITEM_REJECTED(EventLog.Level.TRACE, "Buffer full: rejected item %d."),
+    ITEM_DROPPED(EventLog.Level.TRACE, "Buffer full: dropped item %d."),
+    ITEM_RUN_BY_CALLER(EventLog.Level.TRACE, "Buffer full: producer processed item %d itself."),
+    PRODUCED(EventLog.Level.TRACE, "Produced: %d"),
+    CONSUMED(EventLog.Level.TRACE, "Consumed: %d");
+
+    private final EventLog.Level level;
+    private final String template;
+    private final String numericTemplate; // Usado quando o evento é publicado sem detalhe
+
+    EventType(EventLog.Level level, String template) {
+        this(level, template, null);
+    }
+
+    EventType(EventLog.Level level, String template, String numericTemplate) {
+        this.level = level;
+        this.template = template;
+        this.numericTemplate = numericTemplate;
+    }
+
+    /**
+     * Retorna o nível mínimo de log em que este tipo de evento é registrado.
+     * @return Nível do evento.
+     */
+    public EventLog.Level level() {
+        return level;
+    }
+
+    /**
+     * Formata o evento como texto.
+     * @param value Valor numérico do evento.
+     * @param detail Detalhe do evento, usado pelos modelos com {@code %s}.
+     * @return A linha de log correspondente.
+     */
+    public String format(long value, Object detail) {
+        if (detail == null && numericTemplate != null) {
+            return String.format(numericTemplate, value);
+        }
+        if (template.contains("%s")) {
+            return String.format(template, detail);
+        }
+        if (template.contains("%d")) {
+            return String.format(template, value);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,38 @@
+package common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modos de execução das threads de produtores e consumidores.
+ * Os caminhos de espera das simulações usam apenas locks de {@code java.util.concurrent} e
+ * {@link java.util.concurrent.locks.LockSupport}, nunca {@code synchronized} em torno de uma espera, de modo
+ * que threads virtuais bloqueadas liberam a thread portadora e milhares de pares cabem em uma única JVM.
+ */
+public enum ExecutionMode {
+    /** Uma thread do sistema operacional por produtor ou consumidor. */
+    PLATFORM,
+    /** Uma thread virtual por produtor ou consumidor, executada sobre poucas threads portadoras. */
+    VIRTUAL;
+
+    /**
+     * Cria uma thread ainda não iniciada neste modo.
+     * @param name Nome da thread.
+     * @param task Tarefa executada pela thread.
+     * @return A thread criada, a ser iniciada pelo chamador.
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread.Builder builder = this == VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+        return builder.name(name).unstarted(task);
+    }
+
+    /**
+     * Cria um executor que inicia uma nova thread neste modo para cada tarefa submetida.
+     * @param prefix Prefixo dos nomes das threads, seguido de um contador iniciado em 0.
+     * @return O executor; deve ser encerrado pelo chamador.
+     */
+    public ExecutorService newExecutor(String prefix) {
+        Thread.Builder builder = this == VIRTUAL ? Thread.ofVirtual() : Thread.ofPlatform();
+        return Executors.newThreadPerTaskExecutor(builder.name(prefix, 0).factory());
+    }
+}
@@ -0,0 +1,176 @@
+package common;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma log-linear de latências, no estilo do HdrHistogram.
+ * Cada potência de dois é dividida em {@value #SUB_BUCKETS} sub-intervalos lineares, o que garante erro relativo
+ * abaixo de 1% em toda a faixa registrável (de 0 a cerca de 18 minutos, em nanossegundos). Os contadores ficam
+ * em um array pré-alocado: {@link #record(long)} não aloca objetos nem usa locks e pode ser chamado por qualquer
+ * número de threads.
+ * <p>
+ * As leituras ({@link #valueAtPercentile(double)}, {@link #summary()}) percorrem os contadores sem parar quem
+ * registra, portanto refletem um instante aproximado enquanto a simulação está em execução.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // Sub-intervalos por potência de dois
+    private static final int MAX_VALUE_BITS = 40; // Maior valor registrável: 2^40 - 1 ns, cerca de 18 minutos
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Resumo das latências em um instante, em nanossegundos.
+     *
+     * @param count Quantidade de valores registrados.
+     * @param p50   Mediana.
+     * @param p99   Percentil 99.
+     * @param p999  Percentil 99,9.
+     * @param max   Maior valor registrado.
+     * @param mean  Média dos valores registrados.
+     */
+    public record Summary(long count, long p50, long p99, long p999, long max, double mean) {
+        /**
+         * Formata o resumo em microssegundos, para exibição.
+         * @return Texto com os percentis e o máximo.
+         */
+        public String toMicrosText() {
+            return String.format(Locale.ROOT, "p50 %.1f µs | p99 %.1f µs | p99.9 %.1f µs | max %.1f µs",
+                    p50 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+        }
+    }
+
+    /**
+     * Registra uma latência.
+     * @param nanos Latência em nanossegundos; valores negativos contam como 0 e valores acima da faixa
+     *              registrável contam como o maior valor registrável.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+        counts.getAndIncrement(indexOf(value));
+        totalCount.increment();
+        totalNanos.add(value);
+        long currentMax = maxNanos.get();
+        while (value > currentMax && !maxNanos.compareAndSet(currentMax, value)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    /**
+     * Registra o tempo decorrido desde um instante obtido com {@link System#nanoTime()}.
+     * @param startNanos Instante inicial.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Retorna a quantidade de valores registrados.
+     * @return Contador de valores.
+     */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Retorna o maior valor registrado.
+     * @return Latência máxima, em nanossegundos.
+     */
+    public long getMax() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Retorna o valor abaixo do qual está a porcentagem informada dos registros.
+     * O resultado é o limite superior do sub-intervalo correspondente, limitado ao máximo registrado.
+     * @param percentile Percentil entre 0 e 100.
+     * @return Latência no percentil, em nanossegundos; 0 se nada foi registrado.
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        return valueAtPercentile(snapshot, total, percentile);
+    }
+
+    /**
+     * Retorna o resumo com mediana, p99, p99,9, máximo e média, calculados sobre uma única leitura dos contadores.
+     * @return O resumo atual.
+     */
+    public Summary summary() {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        double mean = total == 0 ? 0 : (double) totalNanos.sum() / totalCount.sum();
+        return new Summary(total, valueAtPercentile(snapshot, total, 50), valueAtPercentile(snapshot, total, 99),
+                valueAtPercentile(snapshot, total, 99.9), getMax(), mean);
+    }
+
+    /**
+     * Zera o histograma. Registros concorrentes com a limpeza podem ser mantidos ou descartados.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    private long valueAtPercentile(long[] snapshot, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Calcula o índice do contador de um valor. Os valores abaixo de {@code 2 * SUB_BUCKETS} têm um contador
+     * cada; a partir daí, cada potência de dois usa {@code SUB_BUCKETS} contadores de mesma largura.
+     */
+    private static int indexOf(long value) {
+        int magnitude = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return (magnitude << SUB_BUCKET_BITS) + (int) (value >>> magnitude);
+    }
+
+    /**
+     * Retorna o maior valor contado pelo índice informado.
+     */
+    private static long highestEquivalentValue(int index) {
+        int magnitude = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+        long subBucket = index - ((long) magnitude << SUB_BUCKET_BITS);
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+
+    /**
+     * Converte nanossegundos para microssegundos, para relatórios.
+     * @param nanos Valor em nanossegundos.
+     * @return Valor em microssegundos.
+     */
+    public static double toMicros(long nanos) {
+        return nanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
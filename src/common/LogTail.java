@@ -0,0 +1,76 @@
+package common;
+
+import java.util.ArrayDeque;
+import java.util.function.BiConsumer;
+
+/**
+ * Sink que guarda apenas as últimas linhas de log, para serem lidas periodicamente pela interface gráfica.
+ * Quando a capacidade é atingida, as linhas mais antigas são descartadas, mantendo a memória limitada.
+ */
+public class LogTail implements EventSink {
+    private final ArrayDeque<Entry> lines;
+    private final int capacity;
+
+    /**
+     * Construtor da classe LogTail.
+     * @param capacity Quantidade máxima de linhas guardadas.
+     */
+    public LogTail(int capacity) {
+        this.capacity = capacity;
+        this.lines = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public synchronized void write(EventType type, String line) {
+        if (lines.size() == capacity) {
+            lines.removeFirst();
+        }
+        lines.addLast(new Entry(type, line));
+    }
+
+    /**
+     * Guarda uma linha sem tipo de evento, descartando a mais antiga se a capacidade foi atingida.
+     * @param line Linha de log.
+     */
+    public void add(String line) {
+        write(null, line);
+    }
+
+    /**
+     * Retorna todas as linhas guardadas e esvazia o sink.
+     * @return Uma string contendo as linhas, uma por linha.
+     */
+    public synchronized String drain() {
+        StringBuilder text = new StringBuilder();
+        while (!lines.isEmpty()) {
+            text.append(lines.removeFirst().line()).append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Entrega todas as linhas guardadas, na ordem em que chegaram, e esvazia o sink.
+     * O destino é chamado fora do lock, então pode ser lento sem atrasar a thread de escrita do log.
+     * @param target Destino de cada linha, com o tipo do evento ({@code null} para linhas sem tipo).
+     */
+    public void drainTo(BiConsumer<EventType, String> target) {
+        Entry[] drained;
+        synchronized (this) {
+            drained = lines.toArray(new Entry[0]);
+            lines.clear();
+        }
+        for (Entry entry : drained) {
+            target.accept(entry.type(), entry.line());
+        }
+    }
+
+    /**
+     * Descarta todas as linhas guardadas.
+     */
+    public synchronized void clear() {
+        lines.clear();
+    }
+
+    private record Entry(EventType type, String line) {
+    }
+}
@@ -0,0 +1,23 @@
+package common;
+
+/**
+ * Resultado de uma inserção sem bloqueio ({@code offer}) em um buffer, conforme a {@link OverflowPolicy}.
+ */
+public enum OfferResult {
+    /** O item entrou no buffer; com {@link OverflowPolicy#DROP_OLDEST}, talvez no lugar do mais antigo. */
+    ACCEPTED,
+    /** O buffer estava cheio e o item foi recusado. */
+    REJECTED,
+    /** O buffer estava cheio e o item foi descartado. */
+    DROPPED,
+    /** O buffer estava cheio e o item deve ser processado por quem chamou. */
+    RUN_BY_CALLER;
+
+    /**
+     * Indica se o item não precisa de mais nada de quem chamou: entrou no buffer ou foi descartado pela política.
+     * @return true para {@link #ACCEPTED} e {@link #DROPPED}.
+     */
+    public boolean isHandled() {
+        return this == ACCEPTED || this == DROPPED;
+    }
+}
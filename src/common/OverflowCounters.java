@@ -0,0 +1,37 @@
+package common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores das vezes em que cada {@link OverflowPolicy} foi aplicada por um buffer cheio. Podem ser
+ * incrementados por qualquer número de threads sem locks.
+ */
+public final class OverflowCounters {
+    private final LongAdder[] counts = new LongAdder[OverflowPolicy.values().length];
+
+    /**
+     * Construtor da classe OverflowCounters, com todos os contadores em zero.
+     */
+    public OverflowCounters() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Conta uma aplicação da política.
+     * @param policy Política aplicada.
+     */
+    public void record(OverflowPolicy policy) {
+        counts[policy.ordinal()].increment();
+    }
+
+    /**
+     * Retorna quantas vezes a política foi aplicada.
+     * @param policy Política consultada.
+     * @return Contador da política.
+     */
+    public long get(OverflowPolicy policy) {
+        return counts[policy.ordinal()].sum();
+    }
+}
@@ -0,0 +1,17 @@
+package common;
+
+/**
+ * Políticas aplicadas por uma inserção sem bloqueio ({@code offer}) quando o buffer continua cheio depois do
+ * tempo de espera permitido. Com elas, um consumidor lento faz os produtores descartarem carga de forma
+ * previsível, em vez de acumular threads bloqueadas.
+ */
+public enum OverflowPolicy {
+    /** Recusa o item novo e informa quem chamou, que decide o que fazer com ele. */
+    REJECT,
+    /** Descarta o item mais antigo do buffer para abrir espaço ao novo. */
+    DROP_OLDEST,
+    /** Descarta o item novo em silêncio; para quem chamou, a inserção foi concluída. */
+    DROP_NEWEST,
+    /** Devolve o item a quem chamou para que ele mesmo o processe, o que desacelera a produção. */
+    CALLER_RUNS
+}
@@ -0,0 +1,66 @@
+package common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuração do ritmo de uma thread produtora ou consumidora. É imutável e pode ser compartilhada; cada thread
+ * cria o seu próprio {@link RatePacer} com {@link #newPacer()}.
+ *
+ * @param ratePerSecond Operações por segundo de cada thread; 0 significa sem limite.
+ * @param burst         No modo de laço fechado, quantas operações podem ser feitas em sequência para recuperar
+ *                      o atraso depois de um período parado (como a capacidade de um token bucket). Ignorado no
+ *                      laço aberto, que sempre recupera todo o atraso.
+ * @param openLoop      true para seguir um cronograma fixo de instantes pretendidos e medir a latência a partir
+ *                      deles, sem esconder o tempo bloqueado (omissão coordenada).
+ */
+public record Pacing(double ratePerSecond, int burst, boolean openLoop) {
+    private static final Pacing UNLIMITED = new Pacing(0, 1, false);
+
+    /**
+     * Valida a configuração.
+     * @throws IllegalArgumentException se a taxa for negativa ou não finita, ou se o burst for menor que 1.
+     */
+    public Pacing {
+        if (ratePerSecond < 0 || Double.isNaN(ratePerSecond) || Double.isInfinite(ratePerSecond)) {
+            throw new IllegalArgumentException("Taxa inválida: " + ratePerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst deve ser ao menos 1: " + burst);
+        }
+    }
+
+    /**
+     * Ritmo sem limite: as operações são feitas o mais rápido possível.
+     * @return Configuração sem limite de taxa.
+     */
+    public static Pacing unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Ritmo em laço fechado com um intervalo fixo entre operações, equivalente às pausas em milissegundos
+     * usadas pela interface gráfica, mas sem acumular a duração de cada operação.
+     * @param millis Intervalo entre duas operações; valores menores ou iguais a 0 significam sem limite.
+     * @return A configuração correspondente.
+     */
+    public static Pacing everyMillis(long millis) {
+        return millis <= 0 ? UNLIMITED : new Pacing(TimeUnit.SECONDS.toMillis(1) / (double) millis, 1, false);
+    }
+
+    /**
+     * Indica se não há limite de taxa.
+     * @return true se as operações não são espaçadas.
+     */
+    public boolean isUnlimited() {
+        return ratePerSecond == 0;
+    }
+
+    /**
+     * Cria um marcador de ritmo para uma única thread.
+     * @return Um novo marcador, que começa a contar o cronograma na primeira chamada de
+     *         {@link RatePacer#awaitNext()}.
+     */
+    public RatePacer newPacer() {
+        return new RatePacer(this);
+    }
+}
@@ -0,0 +1,112 @@
+package common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Marcador de ritmo com resolução de nanossegundos, usado por uma única thread.
+ * Segue um cronograma de instantes pretendidos {@code início + k * intervalo}, calculado a partir do início e não
+ * da operação anterior, então a duração de cada operação não desloca o ritmo e taxas de milhões de operações por
+ * segundo por thread são possíveis.
+ * <p>
+ * No laço fechado, um atraso maior que o burst configurado é esquecido e o cronograma recomeça do instante atual.
+ * No laço aberto o cronograma nunca é refeito: os itens atrasados são enviados em sequência e o instante pretendido
+ * devolvido por {@link #awaitNext()} serve como origem da latência, de modo que o tempo em que a thread ficou
+ * bloqueada aparece nas medições.
+ * <p>
+ * Esperas longas estacionam a thread e os últimos microssegundos são aguardados com {@link Thread#yield()} e
+ * espera ativa, para acordar perto do instante pretendido.
+ */
+public final class RatePacer {
+    private static final long PARK_MARGIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50); // Acordar antes e ajustar
+    private static final long YIELD_MARGIN_NANOS = TimeUnit.MICROSECONDS.toNanos(2);
+
+    private final Pacing pacing;
+    private final double intervalNanos;
+    private long start;
+    private long index = -1; // Índice da próxima operação no cronograma; -1 antes da primeira chamada
+    private volatile boolean cancelled;
+    private volatile Thread waiter;
+
+    /**
+     * Construtor da classe RatePacer.
+     * @param pacing Configuração do ritmo.
+     */
+    RatePacer(Pacing pacing) {
+        this.pacing = pacing;
+        this.intervalNanos = pacing.isUnlimited() ? 0 : TimeUnit.SECONDS.toNanos(1) / pacing.ratePerSecond();
+    }
+
+    /**
+     * Aguarda até o instante pretendido da próxima operação.
+     * Retorna imediatamente se a operação já estiver atrasada, se não houver limite de taxa ou se
+     * {@link #cancel()} tiver sido chamado.
+     * @return O instante pretendido da operação, em nanossegundos de {@link System#nanoTime()}.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    public long awaitNext() throws InterruptedException {
+        long now = System.nanoTime();
+        if (intervalNanos == 0) {
+            return now;
+        }
+        if (index < 0) {
+            start = now;
+            index = 0;
+        }
+        long intended = start + (long) (index * intervalNanos);
+        long maxLag = (long) ((pacing.burst() - 1) * intervalNanos);
+        if (!pacing.openLoop() && now - intended > maxLag) {
+            start = now - maxLag; // Esquece o atraso além do burst
+            index = 0;
+            intended = start;
+        }
+        index++;
+        waitUntil(intended);
+        return intended;
+    }
+
+    /**
+     * Indica se a latência deve ser medida a partir do instante pretendido devolvido por {@link #awaitNext()}.
+     * @return true no modo de laço aberto.
+     */
+    public boolean isOpenLoop() {
+        return pacing.openLoop();
+    }
+
+    /**
+     * Encerra a espera atual e todas as futuras, para que a thread perceba rapidamente um pedido de parada.
+     * Pode ser chamado por qualquer thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        Thread current = waiter;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    private void waitUntil(long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return;
+        }
+        waiter = Thread.currentThread();
+        try {
+            while (remaining > 0 && !cancelled) {
+                if (remaining > PARK_MARGIN_NANOS) {
+                    LockSupport.parkNanos(this, remaining - PARK_MARGIN_NANOS);
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                } else if (remaining > YIELD_MARGIN_NANOS) {
+                    Thread.yield();
+                } else {
+                    Thread.onSpinWait();
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        } finally {
+            waiter = null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Estratégias de espera disponíveis, da menor latência de passagem à menor ocupação de CPU.
+ */
+public enum StandardWaitStrategy implements WaitStrategy {
+    /**
+     * Espera ativa contínua. Menor latência possível, mas ocupa um núcleo inteiro por thread em espera;
+     * adequada apenas quando há núcleos dedicados para produtores e consumidores.
+     */
+    BUSY_SPIN {
+        @Override
+        public int idle(int attempts) throws InterruptedException {
+            checkInterrupted();
+            Thread.onSpinWait();
+            return attempts + 1;
+        }
+    },
+
+    /**
+     * Espera ativa curta e depois {@link Thread#yield()}: cede o núcleo a outras threads prontas, mas continua
+     * consumindo CPU quando não há nenhuma.
+     */
+    SPIN_THEN_YIELD {
+        @Override
+        public int idle(int attempts) throws InterruptedException {
+            checkInterrupted();
+            if (attempts < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return attempts + 1;
+        }
+    },
+
+    /**
+     * Espera ativa curta, depois {@link Thread#yield()} e por fim estacionamento com intervalos que dobram a cada
+     * tentativa, até {@value #MAX_PARK_MICROS} µs. Equilíbrio entre latência e CPU para cargas irregulares.
+     */
+    SPIN_THEN_PARK {
+        @Override
+        public int idle(int attempts) throws InterruptedException {
+            if (attempts < SPIN_TRIES) {
+                checkInterrupted();
+                Thread.onSpinWait();
+            } else if (attempts < SPIN_TRIES + YIELD_TRIES) {
+                checkInterrupted();
+                Thread.yield();
+            } else {
+                park(attempts - SPIN_TRIES - YIELD_TRIES);
+            }
+            return attempts + 1;
+        }
+    },
+
+    /**
+     * Bloqueia no mecanismo do buffer até ser sinalizada; não consome CPU durante a espera, mas cada passagem
+     * custa o despertar da thread pelo sistema operacional. Buffers sem mecanismo de bloqueio (os anéis sem lock)
+     * estacionam com intervalos crescentes, como em {@link #SPIN_THEN_PARK}, sem a fase ativa.
+     */
+    BLOCKING {
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+
+        @Override
+        public int idle(int attempts) throws InterruptedException {
+            park(attempts);
+            return attempts + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100; // Tentativas com espera ativa antes de ceder a CPU
+    private static final int YIELD_TRIES = 100; // Tentativas com Thread.yield antes de estacionar a thread
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_MICROS = 1000;
+    private static final int MAX_BACKOFF_SHIFT = 10; // 1 µs * 2^10 ≈ 1 ms
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * Estaciona a thread por um intervalo que dobra a cada tentativa, limitado a {@value #MAX_PARK_MICROS} µs.
+     * @param parkAttempts Quantas vezes a thread já estacionou nesta espera.
+     * @throws InterruptedException se a thread for interrompida.
+     */
+    private static void park(int parkAttempts) throws InterruptedException {
+        long nanos = Math.min(MIN_PARK_NANOS << Math.min(parkAttempts, MAX_BACKOFF_SHIFT),
+                TimeUnit.MICROSECONDS.toNanos(MAX_PARK_MICROS));
+        LockSupport.parkNanos(nanos);
+        checkInterrupted();
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
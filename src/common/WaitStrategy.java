@@ -0,0 +1,25 @@
+package common;
+
+/**
+ * Estratégia de espera usada quando o buffer está cheio (para o produtor) ou vazio (para o consumidor).
+ * Estratégias bloqueantes deixam a espera com o mecanismo do próprio buffer (condição ou semáforo), que estaciona
+ * a thread até ser sinalizada. As demais liberam o buffer e chamam {@link #idle(int)} entre duas novas tentativas,
+ * trocando CPU por uma passagem de itens em microssegundos.
+ * <p>
+ * As estratégias padrão estão em {@link StandardWaitStrategy}.
+ */
+public interface WaitStrategy {
+    /**
+     * Indica se quem espera deve bloquear no mecanismo do buffer em vez de tentar de novo em laço.
+     * @return true se a espera deve bloquear até ser sinalizada.
+     */
+    boolean isBlocking();
+
+    /**
+     * Aguarda um pouco antes da próxima tentativa. Chamado sem nenhum lock do buffer adquirido.
+     * @param attempts Número de tentativas malsucedidas desde o início da espera (0 na primeira chamada).
+     * @return O número de tentativas a passar na próxima chamada.
+     * @throws InterruptedException se a thread for interrompida.
+     */
+    int idle(int attempts) throws InterruptedException;
+}
@@ -0,0 +1,55 @@
+package common;
+
+/**
+ * Item de trabalho de um {@link WorkStealingPool}. É um objeto reutilizável: as filas do pool guardam itens
+ * pré-alocados e apenas copiam os campos entre eles, sem alocar objetos por item.
+ */
+public final class WorkItem {
+    private long value;
+    private long stamp;
+    private long sequence;
+
+    /**
+     * Preenche o item.
+     * @param value Valor do item, por exemplo o conteúdo de uma mensagem.
+     * @param stamp Instante de origem do item, em nanossegundos de {@link System#nanoTime()}.
+     * @param sequence Número de sequência do item, usado para confirmá-lo na origem; -1 se não houver.
+     */
+    public void set(long value, long stamp, long sequence) {
+        this.value = value;
+        this.stamp = stamp;
+        this.sequence = sequence;
+    }
+
+    /**
+     * Copia os campos de outro item.
+     * @param source Item de origem.
+     */
+    void copyFrom(WorkItem source) {
+        set(source.value, source.stamp, source.sequence);
+    }
+
+    /**
+     * Retorna o valor do item.
+     * @return Valor do item.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * Retorna o instante de origem do item.
+     * @return Instante de origem, em nanossegundos de {@link System#nanoTime()}.
+     */
+    public long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Retorna o número de sequência do item.
+     * @return Número de sequência, ou -1 se não houver.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,408 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pool de consumidores com filas locais e roubo de trabalho, para itens com custo de processamento desigual.
+ * <p>
+ * Threads despachantes retiram itens de uma {@link Source} (o buffer compartilhado) e os colocam na fila local
+ * mais curta entre os workers. Cada worker processa primeiro a sua fila, na ordem de chegada; quando ela esvazia,
+ * rouba o item mais antigo da fila mais longa de outro worker. Assim um item caro prende apenas o worker que o
+ * processa, e os itens que estavam atrás dele são levados pelos workers ociosos.
+ * <p>
+ * As filas locais são anéis de {@link WorkItem} pré-alocados, cada um com o seu lock, e o total de itens nas
+ * filas é limitado: quando todas estão cheias, os despachantes param de retirar itens da origem, preservando a
+ * contrapressão do buffer. Itens de workers diferentes podem terminar fora da ordem de entrada.
+ * <p>
+ * Para cada worker são medidos os itens processados, os itens roubados e o tempo ocupado processando, de onde vem
+ * a utilização de {@link WorkerStats}.
+ */
+public final class WorkStealingPool {
+    /**
+     * Origem dos itens, lida pelas threads despachantes.
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * Retira o próximo item da origem, aguardando se não houver nenhum.
+         * @param into Item reutilizável que recebe os campos do item retirado.
+         * @return true se um item foi retirado; false se a origem terminou.
+         * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+         */
+        boolean next(WorkItem into) throws InterruptedException;
+    }
+
+    /**
+     * Processamento de um item por um worker.
+     */
+    @FunctionalInterface
+    public interface Processor {
+        /**
+         * Processa um item.
+         * @param worker Índice do worker, de 0 até a quantidade de workers menos 1.
+         * @param item Item a processar; é reutilizado pelo worker depois do retorno.
+         * @throws InterruptedException se a thread for interrompida durante o processamento.
+         */
+        void process(int worker, WorkItem item) throws InterruptedException;
+    }
+
+    /**
+     * Métricas de um worker.
+     *
+     * @param worker      Índice do worker.
+     * @param processed   Itens processados, incluindo os roubados.
+     * @param stolen      Itens roubados da fila de outro worker.
+     * @param busyNanos   Tempo total processando itens.
+     * @param utilization Fração do tempo desde o início do pool gasta processando itens.
+     */
+    public record WorkerStats(int worker, long processed, long stolen, long busyNanos, double utilization) {
+    }
+
+    private final String name;
+    private final int dispatcherCount;
+    private final Source source;
+    private final Processor processor;
+    private final Worker[] workers;
+    private final int totalCapacity;
+    private final AtomicInteger reserved = new AtomicInteger(); // Itens nas filas ou a caminho delas
+    private final AtomicInteger queued = new AtomicInteger(); // Itens já colocados nas filas
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition workAvailable = idleLock.newCondition();
+    private final Condition spaceAvailable = idleLock.newCondition();
+    private volatile int idleWorkers; // Alterado apenas com idleLock
+    private volatile int waitingDispatchers; // Alterado apenas com idleLock
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running = true;
+    private volatile long startNanos;
+
+    /**
+     * Construtor da classe WorkStealingPool. Nenhuma thread é iniciada antes de {@link #start(ExecutionMode)}.
+     * @param name Prefixo dos nomes das threads do pool.
+     * @param workerCount Quantidade de workers.
+     * @param localCapacity Capacidade da fila local de cada worker.
+     * @param dispatcherCount Quantidade de threads lendo a origem; mais de uma apenas se a origem aceitar
+     *                        leitores concorrentes.
+     * @param source Origem dos itens.
+     * @param processor Processamento de cada item.
+     * @throws IllegalArgumentException se alguma quantidade ou capacidade não for positiva.
+     */
+    public WorkStealingPool(String name, int workerCount, int localCapacity, int dispatcherCount, Source source,
+                            Processor processor) {
+        if (workerCount < 1 || localCapacity < 1 || dispatcherCount < 1) {
+            throw new IllegalArgumentException("Workers, capacidade local e despachantes devem ser positivos: "
+                    + workerCount + ", " + localCapacity + ", " + dispatcherCount);
+        }
+        this.name = name;
+        this.dispatcherCount = dispatcherCount;
+        this.source = source;
+        this.processor = processor;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(localCapacity);
+        }
+        this.totalCapacity = Math.multiplyExact(workerCount, localCapacity);
+    }
+
+    /**
+     * Inicia os despachantes e os workers.
+     * @param executionMode Tipo das threads criadas.
+     */
+    public void start(ExecutionMode executionMode) {
+        startNanos = System.nanoTime();
+        synchronized (threads) {
+            for (int i = 0; i < dispatcherCount; i++) {
+                threads.add(executionMode.newThread(name + "-dispatcher-" + i, this::dispatch));
+            }
+            for (int i = 0; i < workers.length; i++) {
+                int index = i;
+                threads.add(executionMode.newThread(name + "-worker-" + i, () -> work(index)));
+            }
+            threads.forEach(Thread::start);
+        }
+    }
+
+    /**
+     * Laço de um despachante: reserva espaço nas filas, retira um item da origem e o coloca na fila mais curta.
+     */
+    private void dispatch() {
+        WorkItem incoming = new WorkItem(); // Reutilizado a cada item
+        try {
+            while (reserveSpace()) {
+                boolean taken;
+                try {
+                    taken = source.next(incoming);
+                } catch (InterruptedException e) {
+                    releaseSpace();
+                    throw e;
+                }
+                if (!taken || !running) {
+                    releaseSpace(); // Um item retirado depois de stop() é descartado, como os das filas
+                    return;
+                }
+                place(incoming);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Aguarda até que o total de itens nas filas e a caminho delas esteja abaixo da capacidade e reserva um lugar.
+     * @return true se o lugar foi reservado; false se o pool foi parado.
+     */
+    private boolean reserveSpace() throws InterruptedException {
+        while (running) {
+            int current = reserved.get();
+            if (current < totalCapacity) {
+                if (reserved.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                continue;
+            }
+            idleLock.lockInterruptibly();
+            try {
+                waitingDispatchers++;
+                try {
+                    while (reserved.get() >= totalCapacity && running) {
+                        spaceAvailable.await();
+                    }
+                } finally {
+                    waitingDispatchers--;
+                }
+            } finally {
+                idleLock.unlock();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Devolve um lugar reservado e acorda um despachante que esteja aguardando espaço.
+     */
+    private void releaseSpace() {
+        reserved.decrementAndGet();
+        if (waitingDispatchers > 0) {
+            idleLock.lock();
+            try {
+                spaceAvailable.signal();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Coloca o item na fila local mais curta. A reserva garante que ao menos uma fila tem espaço.
+     */
+    private void place(WorkItem item) {
+        while (true) {
+            Worker target = workers[0];
+            for (Worker worker : workers) {
+                if (worker.count < target.count) {
+                    target = worker;
+                }
+            }
+            if (target.offer(item)) {
+                break;
+            }
+            Thread.onSpinWait(); // Outro despachante ocupou o último lugar da fila escolhida
+        }
+        queued.incrementAndGet();
+        if (idleWorkers > 0) {
+            idleLock.lock();
+            try {
+                workAvailable.signal();
+            } finally {
+                idleLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Laço de um worker: processa a própria fila, rouba de outras quando ela está vazia e aguarda quando
+     * todas estão vazias.
+     */
+    private void work(int index) {
+        Worker self = workers[index];
+        WorkItem item = new WorkItem(); // Reutilizado a cada item
+        try {
+            while (running) {
+                if (take(self, item)) {
+                    process(index, self, item);
+                } else if (steal(index, item)) {
+                    self.stolen++;
+                    process(index, self, item);
+                } else {
+                    awaitWork();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(int index, Worker self, WorkItem item) throws InterruptedException {
+        long begin = System.nanoTime();
+        try {
+            processor.process(index, item);
+        } finally {
+            self.busyNanos += System.nanoTime() - begin;
+            self.processed++;
+        }
+    }
+
+    /**
+     * Retira o item mais antigo de uma fila e devolve o seu lugar aos despachantes.
+     */
+    private boolean take(Worker worker, WorkItem into) {
+        if (worker.count == 0 || !worker.poll(into)) {
+            return false;
+        }
+        queued.decrementAndGet();
+        releaseSpace();
+        return true;
+    }
+
+    /**
+     * Rouba o item mais antigo da fila mais longa entre os outros workers.
+     */
+    private boolean steal(int thief, WorkItem into) {
+        while (queued.get() > 0) {
+            Worker victim = null;
+            for (int i = 1; i < workers.length; i++) {
+                Worker candidate = workers[(thief + i) % workers.length];
+                if (candidate.count > 0 && (victim == null || candidate.count > victim.count)) {
+                    victim = candidate;
+                }
+            }
+            if (victim == null) {
+                return false; // O item contado está na própria fila ou acabou de ser retirado
+            }
+            if (take(victim, into)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Aguarda até que haja itens em alguma fila.
+     */
+    private void awaitWork() throws InterruptedException {
+        idleLock.lockInterruptibly();
+        try {
+            idleWorkers++;
+            try {
+                while (queued.get() == 0 && running) {
+                    workAvailable.await();
+                }
+            } finally {
+                idleWorkers--;
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    /**
+     * Retorna as métricas de cada worker.
+     * @return Uma lista com um elemento por worker, na ordem dos índices.
+     */
+    public List<WorkerStats> getWorkerStats() {
+        long elapsed = Math.max(1, System.nanoTime() - startNanos);
+        List<WorkerStats> stats = new ArrayList<>(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            Worker worker = workers[i];
+            long busy = worker.busyNanos;
+            stats.add(new WorkerStats(i, worker.processed, worker.stolen, busy, Math.min(1.0, (double) busy / elapsed)));
+        }
+        return stats;
+    }
+
+    /**
+     * Retorna a quantidade de itens aguardando nas filas locais.
+     * @return Itens retirados da origem e ainda não processados.
+     */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * Interrompe os despachantes e os workers. Os itens que ainda estiverem nas filas locais não são processados.
+     */
+    public void stop() {
+        running = false;
+        synchronized (threads) {
+            threads.forEach(Thread::interrupt);
+        }
+    }
+
+    /**
+     * Aguarda o término de todas as threads do pool.
+     * Pré-condição: stop() deve ter sido chamado, ou a origem deve ter terminado e as filas esvaziado.
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        List<Thread> started;
+        synchronized (threads) {
+            started = new ArrayList<>(threads);
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Fila local de um worker: anel de itens pré-alocados protegido por um lock próprio, e as métricas do worker,
+     * escritas apenas pela sua thread.
+     */
+    private static final class Worker {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final WorkItem[] slots;
+        private int head;
+        private volatile int count; // Lido sem lock para escolher filas; alterado apenas com o lock
+        private volatile long processed;
+        private volatile long stolen;
+        private volatile long busyNanos;
+
+        Worker(int capacity) {
+            slots = new WorkItem[capacity];
+            for (int i = 0; i < capacity; i++) {
+                slots[i] = new WorkItem();
+            }
+        }
+
+        boolean offer(WorkItem item) {
+            lock.lock();
+            try {
+                if (count == slots.length) {
+                    return false;
+                }
+                slots[(head + count) % slots.length].copyFrom(item);
+                count++;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean poll(WorkItem into) {
+            lock.lock();
+            try {
+                if (count == 0) {
+                    return false;
+                }
+                into.copyFrom(slots[head]);
+                head = (head + 1) % slots.length;
+                count--;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package common.view;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Modelo de lista do log de atividades, guardado em um anel de capacidade fixa.
+ * Quando o anel enche, as linhas mais antigas são descartadas. As linhas que passam pelo filtro ficam em um
+ * segundo anel de sequências, atualizado a cada linha, então adicionar uma linha custa O(1) e apenas trocar o
+ * filtro percorre o anel inteiro.
+ * <p>
+ * Não é thread-safe: deve ser usado apenas na EDT.
+ */
+final class ActivityLogModel extends AbstractListModel<String> {
+    private final int capacity;
+    private final String[] lines;
+    private final LogCategory[] categories;
+    private long nextSequence; // Sequência da próxima linha; o anel guarda [nextSequence - stored, nextSequence)
+    private int stored;
+    private final long[] visible; // Sequências das linhas que passam pelo filtro, da mais antiga para a mais nova
+    private int visibleHead;
+    private int visibleSize;
+    private final EnumSet<LogCategory> filter = EnumSet.allOf(LogCategory.class);
+
+    /**
+     * Construtor da classe ActivityLogModel.
+     * @param capacity Quantidade máxima de linhas guardadas.
+     */
+    ActivityLogModel(int capacity) {
+        this.capacity = capacity;
+        this.lines = new String[capacity];
+        this.categories = new LogCategory[capacity];
+        this.visible = new long[capacity];
+    }
+
+    @Override
+    public int getSize() {
+        return visibleSize;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return lines[slot(visible[(visibleHead + index) % capacity])];
+    }
+
+    /**
+     * Adiciona um lote de linhas, descartando as mais antigas se necessário, e notifica a lista com no máximo
+     * dois eventos: um para as linhas que saíram do início e outro para as que entraram no fim.
+     * Pré-condição: o lote não tem mais linhas que a capacidade.
+     * @param batch Linhas a serem adicionadas, na ordem em que chegaram.
+     */
+    void addAll(List<LogEntry> batch) {
+        int removed = 0;
+        int added = 0;
+        for (LogEntry entry : batch) {
+            if (stored == capacity) {
+                long oldest = nextSequence - stored;
+                if (visibleSize > 0 && visible[visibleHead] == oldest) {
+                    visibleHead = (visibleHead + 1) % capacity;
+                    visibleSize--;
+                    removed++;
+                }
+                lines[slot(oldest)] = null;
+                stored--;
+            }
+            long sequence = nextSequence++;
+            lines[slot(sequence)] = entry.line();
+            categories[slot(sequence)] = entry.category();
+            stored++;
+            if (filter.contains(entry.category())) {
+                visible[(visibleHead + visibleSize) % capacity] = sequence;
+                visibleSize++;
+                added++;
+            }
+        }
+        // As linhas removidas são sempre anteriores às adicionadas, pois o lote cabe no anel
+        if (removed > 0) {
+            fireIntervalRemoved(this, 0, removed - 1);
+        }
+        if (added > 0) {
+            fireIntervalAdded(this, visibleSize - added, visibleSize - 1);
+        }
+    }
+
+    /**
+     * Troca as categorias exibidas e recalcula as linhas visíveis.
+     * @param categories Categorias que devem aparecer na lista.
+     */
+    void setFilter(Set<LogCategory> categories) {
+        filter.clear();
+        filter.addAll(categories);
+        visibleHead = 0;
+        visibleSize = 0;
+        for (long sequence = nextSequence - stored; sequence < nextSequence; sequence++) {
+            if (filter.contains(this.categories[slot(sequence)])) {
+                visible[visibleSize++] = sequence;
+            }
+        }
+        fireContentsChanged(this, 0, Math.max(0, visibleSize - 1));
+    }
+
+    /**
+     * Descarta todas as linhas.
+     */
+    void clear() {
+        int previousSize = visibleSize;
+        Arrays.fill(lines, null);
+        stored = 0;
+        visibleHead = 0;
+        visibleSize = 0;
+        if (previousSize > 0) {
+            fireIntervalRemoved(this, 0, previousSize - 1);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    /**
+     * Uma linha do log com a sua categoria.
+     */
+    record LogEntry(LogCategory category, String line) {
+    }
+}
@@ -0,0 +1,183 @@
+package common.view;
+
+import common.EventType;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+/**
+ * Painel do log de atividades das interfaces gráficas.
+ * <p>
+ * As linhas ficam em um anel de capacidade fixa ({@link ActivityLogModel}) exibido por uma {@link JList} com
+ * altura e largura de linha fixas, que desenha apenas as linhas visíveis e nunca mede as demais; a memória e o
+ * custo de cada atualização não crescem com a duração da execução, ao contrário de um {@link JTextArea}.
+ * As linhas recebidas na mesma passada da EDT são adicionadas de uma só vez.
+ * <p>
+ * Caixas de seleção filtram as linhas por {@link LogCategory}. Quando o usuário rola a lista para cima, o painel
+ * para de acompanhar o fim e guarda as linhas novas à parte (também com limite), para que as linhas em leitura
+ * não se movam; ao voltar ao fim da lista, as linhas guardadas são adicionadas e o acompanhamento recomeça.
+ * <p>
+ * Não é thread-safe: deve ser usado apenas na EDT.
+ */
+public final class ActivityLogPanel extends JPanel {
+    // Define a altura e a largura das linhas, para que a lista não precise medir cada uma
+    private static final String PROTOTYPE_LINE = "Consumer (Server): Processed item -> Message containing Item 0000000";
+
+    private final int capacity;
+    private final ActivityLogModel model;
+    private final JList<String> list;
+    private final JScrollPane scrollPane;
+    private final JLabel statusLabel = new JLabel(" ");
+    private final ArrayDeque<ActivityLogModel.LogEntry> pending = new ArrayDeque<>();
+    private final EnumSet<LogCategory> filter = EnumSet.allOf(LogCategory.class);
+    private boolean flushScheduled;
+    private boolean paused;
+    private boolean autoScrolling; // Ignora os eventos de rolagem causados pelo próprio painel
+    private long discarded; // Linhas descartadas enquanto o painel estava pausado
+
+    /**
+     * Construtor da classe ActivityLogPanel.
+     * @param capacity Quantidade máxima de linhas guardadas.
+     * @throws IllegalArgumentException se a capacidade não for positiva.
+     */
+    public ActivityLogPanel(int capacity) {
+        super(new BorderLayout());
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade do log deve ser positiva: " + capacity);
+        }
+        this.capacity = capacity;
+        this.model = new ActivityLogModel(capacity);
+
+        list = new JList<>(model);
+        list.setPrototypeCellValue(PROTOTYPE_LINE);
+        scrollPane = new JScrollPane(list);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(_ -> scrolled());
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        for (LogCategory category : LogCategory.values()) {
+            JCheckBox checkBox = new JCheckBox(category.label(), true);
+            checkBox.addActionListener(_ -> setCategoryVisible(category, checkBox.isSelected()));
+            filterPanel.add(checkBox);
+        }
+        filterPanel.add(statusLabel);
+
+        add(filterPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+    }
+
+    /**
+     * Adiciona uma linha ao log. A lista é atualizada uma única vez para todas as linhas adicionadas na mesma
+     * passada da EDT.
+     * Pré-condição: deve ser chamado na EDT.
+     * @param type Tipo do evento que gerou a linha, ou {@code null} para avisos da própria interface.
+     * @param line Texto da linha, sem quebra de linha.
+     */
+    public void append(EventType type, String line) {
+        pending.addLast(new ActivityLogModel.LogEntry(LogCategory.of(type), line));
+        if (pending.size() > capacity) {
+            pending.removeFirst(); // Sairia do anel de qualquer forma
+            if (paused) {
+                discarded++;
+            }
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(this::flush);
+        }
+    }
+
+    /**
+     * Adiciona uma linha sem tipo de evento, como os avisos da própria interface.
+     * Pré-condição: deve ser chamado na EDT.
+     * @param line Texto da linha, sem quebra de linha.
+     */
+    public void append(String line) {
+        append(null, line);
+    }
+
+    /**
+     * Descarta todas as linhas e volta a acompanhar o fim do log.
+     * Pré-condição: deve ser chamado na EDT.
+     */
+    public void clear() {
+        pending.clear();
+        model.clear();
+        paused = false;
+        discarded = 0;
+        updateStatus();
+    }
+
+    /**
+     * Passa as linhas recebidas para a lista, exceto enquanto o painel estiver pausado.
+     */
+    private void flush() {
+        flushScheduled = false;
+        if (!paused && !pending.isEmpty()) {
+            autoScrolling = true;
+            try {
+                model.addAll(new ArrayList<>(pending));
+                pending.clear();
+                scrollToEnd();
+            } finally {
+                autoScrolling = false;
+            }
+        }
+        updateStatus();
+    }
+
+    private void setCategoryVisible(LogCategory category, boolean visible) {
+        if (visible) {
+            filter.add(category);
+        } else {
+            filter.remove(category);
+        }
+        autoScrolling = true;
+        try {
+            model.setFilter(filter);
+            if (!paused) {
+                scrollToEnd();
+            }
+        } finally {
+            autoScrolling = false;
+        }
+    }
+
+    private void scrollToEnd() {
+        int last = model.getSize() - 1;
+        if (last >= 0) {
+            list.ensureIndexIsVisible(last);
+        }
+    }
+
+    /**
+     * Pausa o acompanhamento quando o usuário sai do fim da lista e o retoma quando ele volta.
+     */
+    private void scrolled() {
+        if (autoScrolling) {
+            return;
+        }
+        BoundedRangeModel bar = scrollPane.getVerticalScrollBar().getModel();
+        boolean atEnd = bar.getValue() + bar.getExtent() >= bar.getMaximum();
+        if (paused && atEnd) {
+            paused = false;
+            discarded = 0;
+            flush();
+        } else if (!paused && !atEnd) {
+            paused = true;
+            updateStatus();
+        }
+    }
+
+    private void updateStatus() {
+        if (!paused) {
+            statusLabel.setText(" ");
+        } else if (discarded > 0) {
+            statusLabel.setText("Pausado: " + pending.size() + " linhas novas, " + discarded + " descartadas");
+        } else {
+            statusLabel.setText("Pausado: " + pending.size() + " linhas novas");
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package common.view;
+
+import org.jfree.data.xy.AbstractXYDataset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dataset XY de tamanho limitado para gráficos que recebem pontos durante toda a execução.
+ * <p>
+ * Cada série guarda os pontos em camadas de capacidade fixa. A primeira camada tem os pontos mais recentes sem
+ * alteração; quando ela enche, os pontos mais antigos passam para a camada seguinte em grupos de
+ * {@code factor} pontos, cada grupo reduzido ao seu mínimo e ao seu máximo, o que preserva picos e vales.
+ * O grupo ainda incompleto de cada camada é desenhado com o seu mínimo e máximo provisórios, para que não haja
+ * lacuna entre uma camada e a seguinte. Pontos mais antigos que a janela configurada são descartados em qualquer
+ * camada. Assim a memória e o custo de redesenho ficam constantes, por mais longa que seja a execução.
+ * <p>
+ * A última camada descarta os pontos que saem dela mesmo que ainda estejam dentro da janela. Como cada camada
+ * guarda dois pontos para cada {@code factor} da anterior, as camadas cobrem juntas cerca de
+ * {@code pointsPerTier * (1 + r + r² + ... + r^(tiers-1))} pontos originais, com {@code r = factor / 2}; a janela
+ * só é respeitada por inteiro se couber nesse trecho. Com os valores padrão e 600 pontos por camada, são 12600
+ * pontos originais.
+ * <p>
+ * Não é thread-safe: deve ser alterado e lido apenas na EDT, como os datasets do JFreeChart.
+ */
+public class DownsampledXYDataset extends AbstractXYDataset {
+    private static final int DEFAULT_TIERS = 3;
+    private static final int DEFAULT_FACTOR = 8;
+
+    private final double window;
+    private final int pointsPerTier;
+    private final int tierCount;
+    private final int factor;
+    private final List<String> keys = new ArrayList<>();
+    private final List<Series> series = new ArrayList<>();
+
+    /**
+     * Construtor da classe DownsampledXYDataset com três camadas, cada uma oito vezes mais grossa que a anterior.
+     * @param window Janela de tempo mantida, na unidade do eixo X; pontos mais antigos são descartados.
+     * @param pointsPerTier Capacidade de cada camada, em pontos.
+     */
+    public DownsampledXYDataset(double window, int pointsPerTier) {
+        this(window, pointsPerTier, DEFAULT_TIERS, DEFAULT_FACTOR);
+    }
+
+    /**
+     * Construtor da classe DownsampledXYDataset.
+     * @param window Janela de tempo mantida, na unidade do eixo X; pontos mais antigos são descartados. O trecho
+     *               visível também é limitado pela capacidade das camadas, como descrito na classe.
+     * @param pointsPerTier Capacidade de cada camada, em pontos.
+     * @param tiers Quantidade de camadas; 1 mantém apenas os pontos originais.
+     * @param factor Quantos pontos de uma camada formam um grupo de mínimo e máximo na seguinte.
+     * @throws IllegalArgumentException se a janela não for positiva, se a capacidade for menor que 2, se não
+     *                                  houver camadas ou se o fator for menor que 3 (que não reduziria os pontos).
+     */
+    public DownsampledXYDataset(double window, int pointsPerTier, int tiers, int factor) {
+        if (!(window > 0) || pointsPerTier < 2 || tiers < 1 || factor < 3) {
+            throw new IllegalArgumentException("Parâmetros inválidos para o dataset: janela " + window
+                    + ", capacidade " + pointsPerTier + ", camadas " + tiers + ", fator " + factor);
+        }
+        this.window = window;
+        this.pointsPerTier = pointsPerTier;
+        this.tierCount = tiers;
+        this.factor = factor;
+    }
+
+    /**
+     * Adiciona uma série vazia.
+     * @param key Nome da série, exibido na legenda.
+     * @return O índice da série, usado em {@link #add(int, double, double)}.
+     */
+    public int addSeries(String key) {
+        keys.add(key);
+        series.add(new Series(tierCount, pointsPerTier));
+        fireDatasetChanged();
+        return series.size() - 1;
+    }
+
+    /**
+     * Adiciona um ponto ao fim de uma série e notifica o gráfico.
+     * Pré-condição: {@code x} não é menor que o último X da série.
+     * @param seriesIndex Índice da série.
+     * @param x Valor do eixo X.
+     * @param y Valor do eixo Y.
+     */
+    public void add(int seriesIndex, double x, double y) {
+        Series target = series.get(seriesIndex);
+        target.push(0, x, y, factor);
+        target.trimBefore(x - window);
+        fireDatasetChanged();
+    }
+
+    /**
+     * Remove todos os pontos de todas as séries, mantendo as séries.
+     */
+    public void clear() {
+        for (Series target : series) {
+            target.clear();
+        }
+        fireDatasetChanged();
+    }
+
+    @Override
+    public int getSeriesCount() {
+        return series.size();
+    }
+
+    @Override
+    public Comparable<?> getSeriesKey(int seriesIndex) {
+        return keys.get(seriesIndex);
+    }
+
+    @Override
+    public int getItemCount(int seriesIndex) {
+        return series.get(seriesIndex).size();
+    }
+
+    @Override
+    public Number getX(int seriesIndex, int item) {
+        return getXValue(seriesIndex, item);
+    }
+
+    @Override
+    public Number getY(int seriesIndex, int item) {
+        return getYValue(seriesIndex, item);
+    }
+
+    @Override
+    public double getXValue(int seriesIndex, int item) {
+        return series.get(seriesIndex).value(item, true);
+    }
+
+    @Override
+    public double getYValue(int seriesIndex, int item) {
+        return series.get(seriesIndex).value(item, false);
+    }
+
+    /**
+     * Pontos de uma série, da camada mais grossa (mais antiga) para a original (mais recente).
+     */
+    private static final class Series {
+        private final Tier[] tiers;
+
+        Series(int tierCount, int pointsPerTier) {
+            tiers = new Tier[tierCount];
+            for (int i = 0; i < tierCount; i++) {
+                tiers[i] = new Tier(pointsPerTier);
+            }
+        }
+
+        /**
+         * Adiciona um ponto a uma camada; se ela estiver cheia, o ponto mais antigo passa para a camada seguinte.
+         */
+        void push(int level, double x, double y, int factor) {
+            Tier tier = tiers[level];
+            if (tier.isFull()) {
+                double oldestX = tier.x(0);
+                double oldestY = tier.y(0);
+                tier.removeOldest();
+                if (level + 1 < tiers.length) {
+                    accumulate(level + 1, oldestX, oldestY, factor);
+                }
+            }
+            tier.append(x, y);
+        }
+
+        /**
+         * Acumula um ponto no grupo em formação da camada; ao completar o grupo, adiciona à camada o mínimo e o
+         * máximo, na ordem em que aconteceram.
+         */
+        private void accumulate(int level, double x, double y, int factor) {
+            Tier tier = tiers[level];
+            tier.addToBucket(x, y);
+            if (tier.bucketCount < factor) {
+                return;
+            }
+            double minX = tier.minX;
+            double minY = tier.minY;
+            double maxX = tier.maxX;
+            double maxY = tier.maxY;
+            tier.resetBucket();
+            if (minX == maxX) {
+                push(level, minX, minY, factor);
+            } else if (minX < maxX) {
+                push(level, minX, minY, factor);
+                push(level, maxX, maxY, factor);
+            } else {
+                push(level, maxX, maxY, factor);
+                push(level, minX, minY, factor);
+            }
+        }
+
+        /**
+         * Descarta os pontos anteriores ao limite, começando pela camada mais antiga. O grupo em formação de uma
+         * camada é mais recente que os pontos dela e é descartado inteiro quando o seu último ponto sai da janela.
+         */
+        void trimBefore(double cutoff) {
+            for (int level = tiers.length - 1; level >= 0; level--) {
+                Tier tier = tiers[level];
+                while (tier.size > 0 && tier.x(0) < cutoff) {
+                    tier.removeOldest();
+                }
+                if (tier.size > 0) {
+                    return; // As camadas mais recentes só têm pontos posteriores
+                }
+                if (tier.bucketCount > 0) {
+                    if (tier.lastX >= cutoff) {
+                        return;
+                    }
+                    tier.resetBucket();
+                }
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (Tier tier : tiers) {
+                size += tier.size + tier.provisionalCount();
+            }
+            return size;
+        }
+
+        /**
+         * Retorna um ponto na ordem do eixo X: em cada camada, da mais grossa para a original, os pontos
+         * consolidados e depois os provisórios do grupo em formação.
+         */
+        double value(int item, boolean x) {
+            int index = item;
+            for (int level = tiers.length - 1; level >= 0; level--) {
+                Tier tier = tiers[level];
+                if (index < tier.size) {
+                    return x ? tier.x(index) : tier.y(index);
+                }
+                index -= tier.size;
+                int provisional = tier.provisionalCount();
+                if (index < provisional) {
+                    return tier.provisional(index, x);
+                }
+                index -= provisional;
+            }
+            throw new IndexOutOfBoundsException("Item inexistente: " + item);
+        }
+
+        void clear() {
+            for (Tier tier : tiers) {
+                tier.clear();
+            }
+        }
+    }
+
+    /**
+     * Anel de pontos de capacidade fixa, com o grupo de mínimo e máximo em formação para esta camada.
+     */
+    private static final class Tier {
+        private final double[] xs;
+        private final double[] ys;
+        private int head;
+        private int size;
+        private int bucketCount;
+        private double minX, minY, maxX, maxY;
+        private double lastX; // X do ponto mais recente do grupo
+
+        Tier(int capacity) {
+            xs = new double[capacity];
+            ys = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == xs.length;
+        }
+
+        double x(int index) {
+            return xs[(head + index) % xs.length];
+        }
+
+        double y(int index) {
+            return ys[(head + index) % ys.length];
+        }
+
+        void append(double x, double y) {
+            int index = (head + size) % xs.length;
+            xs[index] = x;
+            ys[index] = y;
+            size++;
+        }
+
+        void removeOldest() {
+            head = (head + 1) % xs.length;
+            size--;
+        }
+
+        void addToBucket(double x, double y) {
+            if (bucketCount == 0 || y < minY) {
+                minX = x;
+                minY = y;
+            }
+            if (bucketCount == 0 || y > maxY) {
+                maxX = x;
+                maxY = y;
+            }
+            lastX = x;
+            bucketCount++;
+        }
+
+        /**
+         * Retorna quantos pontos provisórios representam o grupo em formação: nenhum, um ou o mínimo e o máximo.
+         */
+        int provisionalCount() {
+            return bucketCount == 0 ? 0 : minX == maxX ? 1 : 2;
+        }
+
+        /**
+         * Retorna um ponto provisório do grupo em formação, na ordem em que aconteceram.
+         */
+        double provisional(int index, boolean x) {
+            boolean minFirst = minX <= maxX;
+            boolean min = index == 0 ? minFirst : !minFirst;
+            return min ? (x ? minX : minY) : (x ? maxX : maxY);
+        }
+
+        void resetBucket() {
+            bucketCount = 0;
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+            bucketCount = 0;
+        }
+    }
+}
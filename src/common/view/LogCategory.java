@@ -0,0 +1,44 @@
+package common.view;
+
+import common.EventType;
+
+/**
+ * Categorias usadas para filtrar o log de atividades exibido pelas interfaces gráficas.
+ */
+public enum LogCategory {
+    PRODUCED("Produção"),
+    CONSUMED("Consumo"),
+    ACK("Confirmações"),
+    OTHER("Outros");
+
+    private final String label;
+
+    LogCategory(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Retorna o nome da categoria exibido no filtro.
+     * @return Nome da categoria.
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Retorna a categoria de um tipo de evento.
+     * @param type Tipo do evento; {@code null} para linhas sem tipo, como os avisos da própria interface.
+     * @return A categoria correspondente.
+     */
+    public static LogCategory of(EventType type) {
+        if (type == null) {
+            return OTHER;
+        }
+        return switch (type) {
+            case ITEM_GENERATED, MESSAGE_SENT, PRODUCED -> PRODUCED;
+            case MESSAGE_RECEIVED, ITEM_PROCESSED, CONSUMED, ITEM_RUN_BY_CALLER -> CONSUMED;
+            case INITIAL_ACK_SENT, ACK_SENT, ACKS_SENT -> ACK;
+            case BUFFER_CLEARED, MESSAGES_RECOVERED, CAPACITY_CHANGED, ITEM_REJECTED, ITEM_DROPPED -> OTHER;
+        };
+    }
+}
@@ -0,0 +1,362 @@
+package headless;
+
+import common.ContentionProfiler;
+import common.ElasticCapacity;
+import common.EventLog;
+import common.ExecutionMode;
+import common.StandardWaitStrategy;
+import common.WaitStrategy;
+import prodconsum.BlockingQueueBuffer;
+import prodconsum.Consumer;
+import prodconsum.ConsumerPool;
+import prodconsum.MessageJournal;
+import prodconsum.MessageReceiver;
+import prodconsum.MessageSender;
+import prodconsum.Producer;
+import prodconsumsemaphore.controller.BufferMode;
+import prodconsumsemaphore.controller.ConsumerProducer;
+import prodconsumsemaphore.controller.MappedFIFO;
+import prodconsumsemaphore.controller.PriorityFIFO;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ponto de entrada sem interface gráfica, para servidores sem display.
+ * Executa uma das implementações de buffer pelo tempo configurado e grava um relatório JSON ou CSV com vazão,
+ * ocupação do buffer e estatísticas de bloqueio. Nenhuma classe Swing ou JFreeChart é carregada.
+ */
+public class HeadlessRunner {
+    private static final long LOG_FLUSH_MILLIS = 1000; // Espera máxima pela escrita dos eventos pendentes ao parar
+
+    /**
+     * Simulação controlada pelo executor: abstrai as duas famílias de buffer do projeto.
+     */
+    private interface Simulation {
+        void start() throws IOException;
+
+        void stop() throws InterruptedException, IOException;
+
+        int occupancy();
+
+        RunReport report(RunOptions options, double elapsedSeconds, double occupancyMean, int occupancyMax,
+                         long occupancySamples);
+    }
+
+    /**
+     * Método principal do modo sem interface gráfica.
+     * @param args Argumentos da linha de comando; veja {@link RunOptions#usage()}.
+     */
+    public static void main(String[] args) {
+        RunOptions options;
+        try {
+            options = RunOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(RunOptions.usage());
+            System.exit(2);
+            return;
+        }
+
+        ContentionProfiler.registerPlatformMBean();
+
+        // O log das threads vai para a saída de erro, deixando a saída padrão apenas para o relatório
+        PrintStream reportStream = System.out;
+        System.setOut(System.err);
+        try {
+            RunReport report = run(options);
+            String text = options.format == RunOptions.Format.CSV ? report.toCsv() : report.toJson();
+            if (options.output == null) {
+                reportStream.print(text);
+                reportStream.flush();
+            } else {
+                Files.writeString(Path.of(options.output), text, StandardCharsets.UTF_8);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage()); // Por exemplo, arquivo mapeado com outra capacidade
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Falha de entrada e saída: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Executa a simulação descrita pelas opções e coleta o relatório.
+     * @param options Parâmetros da execução.
+     * @return O relatório de desempenho.
+     * @throws InterruptedException se a thread principal for interrompida durante a execução.
+     * @throws IOException se o arquivo do buffer mapeado não puder ser aberto ou fechado, ou se a conexão do
+     *                     transporte não puder ser aberta.
+     */
+    public static RunReport run(RunOptions options) throws InterruptedException, IOException {
+        Simulation simulation = options.implementation == RunOptions.Implementation.MESSAGE
+                ? new MessageSimulation(options)
+                : new SemaphoreSimulation(options);
+
+        long samples = 0;
+        long occupancySum = 0;
+        int occupancyMax = 0;
+
+        long start = System.nanoTime();
+        long deadline = start + (long) (options.durationSeconds * 1e9);
+        simulation.start();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(Math.max(1, Math.min(options.sampleMillis, (deadline - System.nanoTime()) / 1_000_000)));
+            int occupancy = simulation.occupancy();
+            occupancySum += occupancy;
+            occupancyMax = Math.max(occupancyMax, occupancy);
+            samples++;
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        simulation.stop();
+
+        double occupancyMean = samples == 0 ? 0 : (double) occupancySum / samples;
+        return simulation.report(options, elapsedSeconds, occupancyMean, occupancyMax, samples);
+    }
+
+    /**
+     * Simulação baseada no ConsumerProducer (modos SEMAPHORE, SPSC, MPMC, MAPPED, PRIORITY e PARTITIONED).
+     */
+    private static class SemaphoreSimulation implements Simulation {
+        private final ConsumerProducer consumerProducer;
+        private final EventLog eventLog;
+        private final ExecutionMode executionMode;
+        private final MappedFIFO mappedFIFO; // Aberto aqui e fechado em stop(); null fora do modo MAPPED
+        private final ElasticCapacity elastic; // null com capacidade fixa
+
+        SemaphoreSimulation(RunOptions options) throws IOException {
+            eventLog = options.createEventLog();
+            elastic = options.elastic;
+            executionMode = options.executionMode;
+            BufferMode mode = options.implementation.toBufferMode();
+            WaitStrategy waitStrategy = options.waitStrategy != null
+                    ? options.waitStrategy
+                    : ConsumerProducer.defaultWaitStrategy(mode);
+            if (mode == BufferMode.MAPPED) {
+                mappedFIFO = new MappedFIFO(Path.of(options.mappedFile), options.bufferSize);
+                consumerProducer = new ConsumerProducer(mappedFIFO, options.producerPacing(),
+                        options.consumerPacing(), message -> { }, options.producers, options.consumers, eventLog,
+                        waitStrategy);
+            } else if (mode == BufferMode.PRIORITY) {
+                mappedFIFO = null;
+                consumerProducer = new ConsumerProducer(new PriorityFIFO(options.bufferSize, options.laneWeights),
+                        options.producerPacing(), options.consumerPacing(), message -> { }, options.producers,
+                        options.consumers, eventLog, waitStrategy);
+            } else {
+                mappedFIFO = null;
+                consumerProducer = new ConsumerProducer(options.bufferSize, options.producerPacing(),
+                        options.consumerPacing(), message -> { }, mode, options.producers, options.consumers,
+                        eventLog, waitStrategy);
+            }
+            if (options.consumerPool > 0) {
+                consumerProducer.enableConsumerPool(options.consumerPool);
+            }
+            if (options.overflow != null) {
+                consumerProducer.setOverflowPolicy(options.overflow, options.offerTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void start() {
+            if (elastic != null) {
+                consumerProducer.enableElasticCapacity(elastic);
+            }
+            consumerProducer.start(executionMode);
+        }
+
+        @Override
+        public void stop() throws InterruptedException, IOException {
+            consumerProducer.stop();
+            consumerProducer.awaitTermination();
+            eventLog.flush(LOG_FLUSH_MILLIS);
+            eventLog.close();
+            if (mappedFIFO != null) {
+                mappedFIFO.close();
+            }
+        }
+
+        @Override
+        public int occupancy() {
+            return consumerProducer.getBufferSize();
+        }
+
+        @Override
+        public RunReport report(RunOptions options, double elapsedSeconds, double occupancyMean, int occupancyMax,
+                                long occupancySamples) {
+            return new RunReport(options.implementation.name().toLowerCase(), consumerProducer.getBufferCapacity(),
+                    options.producers, options.consumers, options.producerRate, options.consumerRate, elapsedSeconds,
+                    consumerProducer.getProducedCount(), consumerProducer.getConsumedCount(),
+                    occupancyMean, occupancyMax, occupancySamples,
+                    consumerProducer.getProducerBlockedCount(), consumerProducer.getProducerBlockedNanos(),
+                    consumerProducer.getConsumerBlockedCount(), consumerProducer.getConsumerBlockedNanos(),
+                    consumerProducer.getQueueLatency().summary(), consumerProducer.getEndToEndLatency().summary(),
+                    consumerProducer.getConsumerPool() != null
+                            ? consumerProducer.getConsumerPool().getWorkerStats()
+                            : List.of(),
+                    consumerProducer.getLaneStats(), consumerProducer.getOverflowCounters(),
+                    consumerProducer.getPartitionStats());
+        }
+    }
+
+    /**
+     * Simulação baseada em Producer e Consumer trocando mensagens pelo BlockingQueueBuffer. Com --transport, os
+     * produtores enviam a um buffer local e as mensagens seguem por SocketChannel até o buffer dos consumidores.
+     */
+    private static class MessageSimulation implements Simulation {
+        private final BlockingQueueBuffer buffer; // De onde os consumidores retiram; null com --transport connect
+        private final BlockingQueueBuffer producerBuffer; // Onde os produtores enviam; null com --transport listen
+        private final EventLog eventLog;
+        private final List<Producer> producers = new ArrayList<>();
+        private final List<Consumer> consumers = new ArrayList<>();
+        private final ConsumerPool consumerPool; // Substitui os consumidores com --consumer-pool; null sem pool
+        private final MessageReceiver receiver; // null sem --transport ou com connect
+        private final MessageSender sender; // null sem --transport ou com listen
+        private final InetSocketAddress transportAddress; // Receptor de --transport connect
+        private final ExecutorService executor;
+        private final MessageJournal journal; // Aberto aqui e fechado em stop(); null sem --journal
+        private final ElasticCapacity elastic; // null com capacidade fixa
+        private final ExecutionMode executionMode;
+
+        MessageSimulation(RunOptions options) throws IOException {
+            eventLog = options.createEventLog();
+            elastic = options.elastic;
+            executionMode = options.executionMode;
+            journal = options.journal != null
+                    ? new MessageJournal(Path.of(options.journal), options.journalLingerMicros)
+                    : null;
+            RunOptions.Transport transport = options.transport;
+            buffer = transport != RunOptions.Transport.CONNECT ? newBuffer(options, journal) : null;
+            producerBuffer = transport == null ? buffer
+                    : transport != RunOptions.Transport.LISTEN ? newBuffer(options, null) : null;
+            receiver = buffer != null && transport != null
+                    ? new MessageReceiver(buffer, transport == RunOptions.Transport.LISTEN
+                            ? options.transportAddress
+                            : new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                    : null;
+            sender = producerBuffer != null && transport != null ? new MessageSender(producerBuffer) : null;
+            transportAddress = options.transportAddress;
+            executor = options.executionMode.newExecutor("message-worker-");
+            if (options.overflow != null && producerBuffer != null) {
+                producerBuffer.setOverflowPolicy(options.overflow);
+            }
+            for (int i = 0; i < options.producers; i++) {
+                Producer producer = options.overflow != null
+                        ? new Producer(producerBuffer, options.producerPacing(), options.offerTimeoutMillis,
+                                TimeUnit.MILLISECONDS)
+                        : new Producer(producerBuffer, options.producerPacing());
+                producers.add(producer);
+            }
+            if (options.consumerPool > 0) {
+                consumerPool = new ConsumerPool(buffer, options.consumerPool, options.consumers,
+                        options.consumerPacing());
+            } else {
+                consumerPool = null;
+                for (int i = 0; i < options.consumers; i++) {
+                    // O buffer já nasce com uma confirmação por slot, então nenhuma confirmação inicial é enviada
+                    Consumer consumer = new Consumer(buffer, 0, options.consumerPacing());
+                    consumers.add(consumer);
+                }
+            }
+        }
+
+        private BlockingQueueBuffer newBuffer(RunOptions options, MessageJournal journal) {
+            return new BlockingQueueBuffer(options.bufferSize, eventLog,
+                    options.waitStrategy != null ? options.waitStrategy : StandardWaitStrategy.BLOCKING, journal);
+        }
+
+        @Override
+        public void start() throws IOException {
+            if (elastic != null) {
+                consumerSide().enableElasticCapacity(elastic);
+            }
+            if (receiver != null) {
+                receiver.start(executionMode);
+            }
+            if (sender != null) {
+                // Com loopback, o endereço só é conhecido depois que o receptor abre a porta
+                sender.start(executionMode, receiver != null ? receiver.getLocalAddress() : transportAddress);
+            }
+            producers.forEach(executor::execute);
+            consumers.forEach(executor::execute);
+            if (consumerPool != null) {
+                consumerPool.start(executionMode);
+            }
+        }
+
+        @Override
+        public void stop() throws InterruptedException, IOException {
+            consumerSide().disableElasticCapacity(); // A capacidade final entra no relatório
+            producers.forEach(Producer::stop);
+            consumers.forEach(Consumer::stop);
+            if (consumerPool != null) {
+                consumerPool.stop();
+            }
+            if (sender != null) {
+                sender.stop();
+                sender.awaitTermination();
+            }
+            if (receiver != null) {
+                receiver.stop();
+                receiver.awaitTermination();
+            }
+            executor.shutdownNow(); // Interrompe quem estiver aguardando dentro do buffer
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            if (consumerPool != null) {
+                consumerPool.awaitTermination();
+            }
+            eventLog.flush(LOG_FLUSH_MILLIS);
+            eventLog.close();
+            if (journal != null) {
+                journal.close(); // Grava o último lote e o checkpoint
+            }
+        }
+
+        /**
+         * Retorna o buffer do lado dos consumidores, ou o buffer local dos produtores com --transport connect.
+         */
+        private BlockingQueueBuffer consumerSide() {
+            return buffer != null ? buffer : producerBuffer;
+        }
+
+        /**
+         * Retorna o buffer do lado dos produtores, ou o buffer dos consumidores com --transport listen.
+         */
+        private BlockingQueueBuffer producerSide() {
+            return producerBuffer != null ? producerBuffer : buffer;
+        }
+
+        @Override
+        public int occupancy() {
+            return consumerSide().size();
+        }
+
+        @Override
+        public RunReport report(RunOptions options, double elapsedSeconds, double occupancyMean, int occupancyMax,
+                                long occupancySamples) {
+            BlockingQueueBuffer consumed = consumerSide();
+            BlockingQueueBuffer produced = producerSide();
+            return new RunReport("message", consumed.getCapacity(), options.producers, options.consumers,
+                    options.producerRate, options.consumerRate, elapsedSeconds,
+                    produced.getProducerMessageCount(), consumed.getConsumerMessageCount(),
+                    occupancyMean, occupancyMax, occupancySamples,
+                    produced.getSendBlockedCount(), produced.getSendBlockedNanos(),
+                    consumed.getReceiveBlockedCount(), consumed.getReceiveBlockedNanos(),
+                    consumed.getQueueLatency().summary(), consumed.getEndToEndLatency().summary(),
+                    consumerPool != null ? consumerPool.getWorkerStats() : List.of(), List.of(),
+                    produced.getOverflowCounters(), List.of());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package headless;
+
+import common.ElasticCapacity;
+import common.EventLog;
+import common.ExecutionMode;
+import common.OverflowPolicy;
+import common.Pacing;
+import common.StandardWaitStrategy;
+import prodconsumsemaphore.controller.BufferMode;
+
+import java.net.InetSocketAddress;
+import java.util.Locale;
+
+/**
+ * Parâmetros de uma execução sem interface gráfica, lidos da linha de comando.
+ */
+public class RunOptions {
+    private static final int LOG_CAPACITY = 8192; // Eventos pendentes de escrita no log da execução
+
+    /**
+     * Implementações de buffer que podem ser exercitadas pelo modo sem interface gráfica.
+     */
+    public enum Implementation {
+        /** ConsumerProducer com FIFO e semáforos. */
+        SEMAPHORE,
+        /** ConsumerProducer com o buffer SPSC sem bloqueio. */
+        SPSC,
+        /** ConsumerProducer com o buffer MPMC sem bloqueio. */
+        MPMC,
+        /** ConsumerProducer com o buffer SPSC em arquivo mapeado, compartilhável entre processos. */
+        MAPPED,
+        /** ConsumerProducer com o buffer de faixas de prioridade; o produtor i insere na faixa i % faixas. */
+        PRIORITY,
+        /** ConsumerProducer com uma partição por consumidor, escolhida pelo hash de cada item. */
+        PARTITIONED,
+        /** Producer e Consumer trocando mensagens pelo BlockingQueueBuffer. */
+        MESSAGE;
+
+        /**
+         * Converte a implementação para o modo de buffer do ConsumerProducer.
+         * @return O modo correspondente.
+         * @throws IllegalStateException se a implementação não usar o ConsumerProducer.
+         */
+        BufferMode toBufferMode() {
+            return switch (this) {
+                case SEMAPHORE -> BufferMode.SEMAPHORE;
+                case SPSC -> BufferMode.SPSC;
+                case MPMC -> BufferMode.MPMC;
+                case MAPPED -> BufferMode.MAPPED;
+                case PRIORITY -> BufferMode.PRIORITY;
+                case PARTITIONED -> BufferMode.PARTITIONED;
+                case MESSAGE -> throw new IllegalStateException("MESSAGE não usa o ConsumerProducer");
+            };
+        }
+    }
+
+    /**
+     * Formatos disponíveis para o relatório.
+     */
+    public enum Format { JSON, CSV }
+
+    /**
+     * Modos de ritmo das threads.
+     */
+    public enum Loop {
+        /** O atraso além do burst é esquecido e a latência parte da inserção no buffer. */
+        CLOSED,
+        /** Cronograma fixo; a latência parte do instante pretendido de produção. */
+        OPEN
+    }
+
+    /**
+     * Modos de transporte das mensagens do MESSAGE entre produtores e consumidores.
+     */
+    public enum Transport {
+        /** Produtores e consumidores no mesmo processo, ligados por uma conexão local. */
+        LOOPBACK,
+        /** Apenas o receptor e os consumidores; os produtores se conectam de outro processo. */
+        LISTEN,
+        /** Apenas os produtores, conectados ao receptor de outro processo. */
+        CONNECT
+    }
+
+    Implementation implementation = Implementation.SEMAPHORE;
+    int bufferSize = 5;
+    double producerRate = 2.0;   // Itens por segundo de cada produtor; 0 = sem limite
+    double consumerRate = 1.4;   // Itens por segundo de cada consumidor; 0 = sem limite
+    int producers = 1;
+    int consumers = 1;
+    int burst = 1;               // Operações em sequência para recuperar atraso no laço fechado
+    Loop loop = Loop.CLOSED;
+    double durationSeconds = 10;
+    long sampleMillis = 100;
+    Format format = Format.JSON;
+    String output;               // Arquivo de saída; null = saída padrão
+    String mappedFile;           // Arquivo do buffer MAPPED
+    String journal;              // Diretório do journal do MESSAGE; null = sem persistência
+    long journalLingerMicros = 1000; // Espera por mais envios antes de cada fsync do journal
+    EventLog.Level logLevel = EventLog.Level.OFF; // Log de eventos desligado por padrão
+    ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    StandardWaitStrategy waitStrategy; // null = estratégia padrão de cada implementação
+    ElasticCapacity elastic;     // Limites da capacidade adaptativa; null = capacidade fixa
+    int consumerPool;            // Workers do pool com roubo de trabalho; 0 = consumidores processam os itens
+    int[] laneWeights = {4, 1};  // Pesos das faixas do PRIORITY, da maior prioridade para a menor
+    OverflowPolicy overflow;     // Política dos produtores com o buffer cheio; null = aguardam sem limite
+    long offerTimeoutMillis;     // Espera máxima por espaço antes de aplicar a política
+    Transport transport;         // Transporte do MESSAGE por SocketChannel; null = buffer compartilhado em processo
+    InetSocketAddress transportAddress; // Porta de LISTEN ou receptor de CONNECT; null com LOOPBACK
+
+    /**
+     * Interpreta os argumentos da linha de comando.
+     * @param args Argumentos no formato {@code --nome valor}.
+     * @return As opções lidas, com valores padrão para os argumentos omitidos.
+     * @throws IllegalArgumentException se algum argumento for desconhecido ou inválido.
+     */
+    public static RunOptions parse(String[] args) {
+        RunOptions options = new RunOptions();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Valor ausente para " + name);
+            }
+            String value = args[++i];
+            try {
+                switch (name) {
+                    case "--impl" -> options.implementation = Implementation.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--buffer-size" -> options.bufferSize = Integer.parseInt(value);
+                    case "--producer-rate" -> options.producerRate = Double.parseDouble(value);
+                    case "--consumer-rate" -> options.consumerRate = Double.parseDouble(value);
+                    case "--producers" -> options.producers = Integer.parseInt(value);
+                    case "--consumers" -> options.consumers = Integer.parseInt(value);
+                    case "--burst" -> options.burst = Integer.parseInt(value);
+                    case "--loop" -> options.loop = Loop.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--duration" -> options.durationSeconds = Double.parseDouble(value);
+                    case "--sample-ms" -> options.sampleMillis = Long.parseLong(value);
+                    case "--format" -> options.format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--output" -> options.output = value;
+                    case "--mapped-file" -> options.mappedFile = value;
+                    case "--journal" -> options.journal = value;
+                    case "--journal-linger-us" -> options.journalLingerMicros = Long.parseLong(value);
+                    case "--threads" -> options.executionMode = ExecutionMode.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--wait" -> options.waitStrategy = StandardWaitStrategy.valueOf(
+                            value.toUpperCase(Locale.ROOT).replace('-', '_'));
+                    case "--log" -> options.logLevel = EventLog.Level.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--elastic" -> options.elastic = parseElastic(value);
+                    case "--consumer-pool" -> options.consumerPool = Integer.parseInt(value);
+                    case "--lanes" -> options.laneWeights = parseLanes(value);
+                    case "--overflow" -> options.overflow = OverflowPolicy.valueOf(
+                            value.toUpperCase(Locale.ROOT).replace('-', '_'));
+                    case "--offer-timeout-ms" -> options.offerTimeoutMillis = Long.parseLong(value);
+                    case "--transport" -> options.parseTransport(value);
+                    default -> throw new IllegalArgumentException("Argumento desconhecido: " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Valor inválido para " + name + ": " + value);
+            }
+        }
+        int minimumThreads = options.implementation == Implementation.MAPPED ? 0 : 1;
+        int minimumProducers = options.transport == Transport.LISTEN ? 0 : minimumThreads;
+        int minimumConsumers = options.transport == Transport.CONNECT ? 0 : minimumThreads;
+        if (options.bufferSize <= 0 || options.producers < minimumProducers || options.consumers < minimumConsumers
+                || options.producers + options.consumers == 0 || options.durationSeconds <= 0 || options.sampleMillis <= 0
+                || options.producerRate < 0 || options.consumerRate < 0 || options.burst < 1
+                || Double.isInfinite(options.producerRate) || Double.isInfinite(options.consumerRate)) {
+            throw new IllegalArgumentException("Tamanhos, quantidades, burst, duração e taxas devem ser positivos.");
+        }
+        if (options.journalLingerMicros < 0) {
+            throw new IllegalArgumentException("--journal-linger-us não pode ser negativo.");
+        }
+        if (options.journal != null && options.implementation != Implementation.MESSAGE) {
+            throw new IllegalArgumentException("--journal só se aplica a --impl message.");
+        }
+        if (options.elastic != null && options.implementation != Implementation.SEMAPHORE
+                && options.implementation != Implementation.MESSAGE) {
+            throw new IllegalArgumentException("--elastic só se aplica a --impl semaphore e message.");
+        }
+        if (options.consumerPool < 0 || (options.consumerPool > 0 && options.consumers == 0)) {
+            throw new IllegalArgumentException("--consumer-pool exige ao menos um consumidor para despachar os itens.");
+        }
+        if (options.consumerPool > 0 && options.implementation == Implementation.PARTITIONED) {
+            throw new IllegalArgumentException("--consumer-pool não se aplica a --impl partitioned.");
+        }
+        if (options.offerTimeoutMillis < 0 || (options.offerTimeoutMillis > 0 && options.overflow == null)) {
+            throw new IllegalArgumentException("--offer-timeout-ms exige --overflow e não pode ser negativo.");
+        }
+        if (options.overflow == OverflowPolicy.DROP_OLDEST && (options.implementation == Implementation.SPSC
+                || options.implementation == Implementation.MAPPED
+                || options.implementation == Implementation.PARTITIONED)) {
+            throw new IllegalArgumentException("--overflow drop-oldest não se aplica a --impl spsc, mapped e partitioned.");
+        }
+        if (options.transport != null && (options.implementation != Implementation.MESSAGE
+                || options.journal != null)) {
+            throw new IllegalArgumentException("--transport só se aplica a --impl message, sem --journal.");
+        }
+        if ((options.transport == Transport.LISTEN && options.producers > 0)
+                || (options.transport == Transport.CONNECT && (options.consumers > 0 || options.consumerPool > 0))) {
+            throw new IllegalArgumentException(
+                    "--transport listen não tem produtores e --transport connect não tem consumidores.");
+        }
+        if (options.implementation == Implementation.MAPPED && options.mappedFile == null) {
+            throw new IllegalArgumentException("--impl mapped exige --mapped-file.");
+        }
+        return options;
+    }
+
+    /**
+     * Interpreta os limites da capacidade adaptativa no formato {@code MIN:MAX}.
+     * @throws NumberFormatException se algum dos limites não for um número.
+     * @throws IllegalArgumentException se o formato ou os limites forem inválidos.
+     */
+    private static ElasticCapacity parseElastic(String value) {
+        int separator = value.indexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("--elastic espera MIN:MAX: " + value);
+        }
+        return ElasticCapacity.between(Integer.parseInt(value.substring(0, separator)),
+                Integer.parseInt(value.substring(separator + 1)));
+    }
+
+    /**
+     * Interpreta o transporte no formato {@code loopback}, {@code listen:PORTA} ou {@code connect:HOST:PORTA}.
+     * @throws NumberFormatException se a porta não for um número.
+     * @throws IllegalArgumentException se o formato ou a porta forem inválidos.
+     */
+    private void parseTransport(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.equals("loopback")) {
+            transport = Transport.LOOPBACK;
+            transportAddress = null;
+        } else if (lower.startsWith("listen:")) {
+            transport = Transport.LISTEN;
+            transportAddress = new InetSocketAddress(Integer.parseInt(value.substring("listen:".length())));
+        } else if (lower.startsWith("connect:") && value.lastIndexOf(':') > "connect:".length()) {
+            int separator = value.lastIndexOf(':');
+            transport = Transport.CONNECT;
+            transportAddress = new InetSocketAddress(value.substring("connect:".length(), separator),
+                    Integer.parseInt(value.substring(separator + 1)));
+        } else {
+            throw new IllegalArgumentException("--transport espera loopback, listen:PORTA ou connect:HOST:PORTA: "
+                    + value);
+        }
+    }
+
+    /**
+     * Interpreta os pesos das faixas no formato {@code P0,P1,...}, da maior prioridade para a menor.
+     * @throws NumberFormatException se algum dos pesos não for um número.
+     */
+    private static int[] parseLanes(String value) {
+        String[] parts = value.split(",");
+        int[] weights = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        return weights;
+    }
+
+    /**
+     * Retorna o ritmo de cada produtor.
+     * @return Ritmo com a taxa, o burst e o modo de laço configurados.
+     */
+    Pacing producerPacing() {
+        return new Pacing(producerRate, burst, loop == Loop.OPEN);
+    }
+
+    /**
+     * Retorna o ritmo de cada consumidor.
+     * @return Ritmo com a taxa, o burst e o modo de laço configurados.
+     */
+    Pacing consumerPacing() {
+        return new Pacing(consumerRate, burst, loop == Loop.OPEN);
+    }
+
+    /**
+     * Cria o log de eventos da execução no nível configurado, escrevendo na saída de erro.
+     * Eventos que não couberem no anel são descartados, para não atrasar as threads medidas.
+     * @return O log de eventos; desligado quando o nível é OFF.
+     */
+    EventLog createEventLog() {
+        if (logLevel == EventLog.Level.OFF) {
+            return EventLog.off();
+        }
+        EventLog log = new EventLog(LOG_CAPACITY, logLevel, EventLog.OverflowPolicy.DROP_NEWEST);
+        log.addSink((type, line) -> System.err.println(line));
+        return log;
+    }
+
+    /**
+     * Retorna o texto de ajuda da linha de comando.
+     * @return Descrição dos argumentos aceitos.
+     */
+    public static String usage() {
+        return """
+                Uso: java -cp <classpath> headless.HeadlessRunner [opções]
+                  --impl semaphore|spsc|mpmc|mapped|priority|partitioned|message
+                                                      Implementação do buffer (padrão: semaphore); partitioned
+                                                      tem uma partição por consumidor
+                  --buffer-size N                     Capacidade do buffer (padrão: 5)
+                  --producer-rate R                   Itens/s de cada produtor, 0 = sem limite (padrão: 2)
+                  --consumer-rate R                   Itens/s de cada consumidor, 0 = sem limite (padrão: 1.4)
+                  --producers N                       Quantidade de produtores (padrão: 1)
+                  --consumers N                       Quantidade de consumidores (padrão: 1); com mapped,
+                                                      0 ou 1 produtor e consumidor por processo
+                  --burst N                           Operações seguidas para recuperar atraso (padrão: 1)
+                  --loop closed|open                  Laço aberto mede a latência desde o instante pretendido
+                                                      de produção (padrão: closed)
+                  --duration S                        Duração da execução em segundos (padrão: 10)
+                  --sample-ms N                       Intervalo de amostragem da ocupação (padrão: 100)
+                  --format json|csv                   Formato do relatório (padrão: json)
+                  --output ARQUIVO                    Arquivo do relatório (padrão: saída padrão)
+                  --mapped-file ARQUIVO               Arquivo do buffer mapped, compartilhado entre processos
+                  --journal DIRETÓRIO                 Persiste as mensagens de message em um journal
+                  --journal-linger-us N               Espera por mais envios antes de cada fsync (padrão: 1000)
+                  --threads platform|virtual          Tipo das threads de produtores e consumidores (padrão: platform)
+                  --wait busy-spin|spin-then-yield|spin-then-park|blocking
+                                                      Espera com buffer cheio/vazio (padrão: da implementação)
+                  --log off|info|trace                Nível do log de eventos na saída de erro (padrão: off)
+                  --elastic MIN:MAX                   Capacidade adaptativa entre MIN e MAX, partindo de
+                                                      --buffer-size (semaphore e message)
+                  --consumer-pool N                   Processa os itens em N workers com roubo de trabalho; os
+                                                      consumidores apenas os despacham (padrão: 0, desligado)
+                  --lanes P0,P1,...                   Pesos das faixas de priority, da maior prioridade para a
+                                                      menor; o produtor i usa a faixa i % faixas (padrão: 4,1)
+                  --overflow reject|drop-oldest|drop-newest|caller-runs
+                                                      Com o buffer cheio, os produtores desistem de esperar e
+                                                      aplicam a política (padrão: aguardam sem limite)
+                  --offer-timeout-ms N                Espera por espaço antes da política (padrão: 0)
+                  --transport loopback|listen:PORTA|connect:HOST:PORTA
+                                                      Message por SocketChannel: loopback no mesmo processo,
+                                                      listen só com consumidores, connect só com produtores
+                                                      (padrão: buffer compartilhado em processo)
+                """;
+    }
+}
@@ -0,0 +1,217 @@
+package headless;
+
+import common.LatencyHistogram;
+import common.OverflowCounters;
+import common.OverflowPolicy;
+import common.WorkStealingPool;
+import prodconsumsemaphore.controller.PartitionedFIFO;
+import prodconsumsemaphore.controller.PriorityFIFO;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Relatório de desempenho de uma execução sem interface gráfica.
+ * <p>
+ * As métricas com um valor por worker, faixa ou partição são listas: no JSON saem como arrays e no CSV como
+ * valores separados por ponto e vírgula em uma única coluna. Valores não finitos saem como {@code null} no JSON e
+ * vazios no CSV.
+ *
+ * @param implementation      Implementação de buffer exercitada.
+ * @param bufferSize          Capacidade do buffer.
+ * @param producers           Quantidade de produtores.
+ * @param consumers           Quantidade de consumidores.
+ * @param producerRate        Taxa configurada de cada produtor (itens/s, 0 = sem limite).
+ * @param consumerRate        Taxa configurada de cada consumidor (itens/s, 0 = sem limite).
+ * @param elapsedSeconds      Duração medida da execução.
+ * @param produced            Total de itens produzidos.
+ * @param consumed            Total de itens consumidos.
+ * @param occupancyMean       Ocupação média do buffer entre as amostras.
+ * @param occupancyMax        Maior ocupação observada.
+ * @param occupancySamples    Quantidade de amostras de ocupação.
+ * @param producerBlockedCount Vezes em que um produtor encontrou o buffer cheio.
+ * @param producerBlockedNanos Tempo total dos produtores aguardando espaço.
+ * @param consumerBlockedCount Vezes em que um consumidor encontrou o buffer vazio.
+ * @param consumerBlockedNanos Tempo total dos consumidores aguardando itens.
+ * @param queueLatency        Tempo de permanência dos itens no buffer, da inserção até a remoção.
+ * @param endToEndLatency     Latência de ponta a ponta, da inserção até o fim do processamento.
+ * @param workerStats         Métricas de cada worker do pool de consumidores; vazia sem pool.
+ * @param laneStats           Métricas de cada faixa do buffer com prioridades; vazia nas demais implementações.
+ * @param overflow            Vezes em que cada política de estouro foi aplicada pelos produtores.
+ * @param partitionStats      Métricas de cada partição do buffer particionado; vazia nas demais implementações.
+ */
+public record RunReport(String implementation, int bufferSize, int producers, int consumers,
+                        double producerRate, double consumerRate, double elapsedSeconds,
+                        long produced, long consumed,
+                        double occupancyMean, int occupancyMax, long occupancySamples,
+                        long producerBlockedCount, long producerBlockedNanos,
+                        long consumerBlockedCount, long consumerBlockedNanos,
+                        LatencyHistogram.Summary queueLatency, LatencyHistogram.Summary endToEndLatency,
+                        List<WorkStealingPool.WorkerStats> workerStats, List<PriorityFIFO.LaneStats> laneStats,
+                        OverflowCounters overflow, List<PartitionedFIFO.PartitionStats> partitionStats) {
+
+    private static final String[] CSV_COLUMNS = {
+            "implementation", "bufferSize", "producers", "consumers", "producerRate", "consumerRate",
+            "elapsedSeconds", "produced", "consumed", "producedPerSecond", "consumedPerSecond",
+            "occupancyMean", "occupancyMax", "occupancySamples",
+            "producerBlockedCount", "producerBlockedMillis", "producerBlockedRatio",
+            "consumerBlockedCount", "consumerBlockedMillis", "consumerBlockedRatio",
+            "queueP50Micros", "queueP99Micros", "queueP999Micros", "queueMaxMicros",
+            "endToEndP50Micros", "endToEndP99Micros", "endToEndP999Micros", "endToEndMaxMicros",
+            "poolWorkers", "poolStolen", "workerUtilization",
+            "laneWeights", "laneDequeued", "laneP50Micros", "laneP99Micros", "laneMaxMicros",
+            "rejected", "droppedOldest", "droppedNewest", "callerRuns",
+            "partitionEnqueued", "partitionOccupancyMean", "partitionOccupancyMax", "partitionP99Micros",
+            "partitionSkew"
+    };
+
+    /**
+     * Retorna a vazão de produção.
+     * @return Itens produzidos por segundo.
+     */
+    public double producedPerSecond() {
+        return produced / elapsedSeconds;
+    }
+
+    /**
+     * Retorna a vazão de consumo.
+     * @return Itens consumidos por segundo.
+     */
+    public double consumedPerSecond() {
+        return consumed / elapsedSeconds;
+    }
+
+    /**
+     * Retorna a fração do tempo disponível dos produtores gasta aguardando espaço no buffer.
+     * @return Valor entre 0 e 1; 0 sem produtores neste processo.
+     */
+    public double producerBlockedRatio() {
+        return blockedRatio(producerBlockedNanos, producers);
+    }
+
+    /**
+     * Retorna a fração do tempo disponível dos consumidores gasta aguardando itens no buffer.
+     * @return Valor entre 0 e 1; 0 sem consumidores neste processo.
+     */
+    public double consumerBlockedRatio() {
+        return blockedRatio(consumerBlockedNanos, consumers);
+    }
+
+    private double blockedRatio(long blockedNanos, int threads) {
+        double available = elapsedSeconds * 1e9 * threads;
+        return available > 0 ? blockedNanos / available : 0;
+    }
+
+    /**
+     * Retorna quantos itens os workers do pool roubaram das filas uns dos outros.
+     * @return Total de itens roubados; 0 sem pool.
+     */
+    public long poolStolen() {
+        return workerStats.stream().mapToLong(WorkStealingPool.WorkerStats::stolen).sum();
+    }
+
+    /**
+     * Retorna a utilização de cada worker do pool.
+     * @return Utilizações na ordem dos workers, ou lista vazia sem pool.
+     */
+    public List<Double> workerUtilization() {
+        return workerStats.stream().map(WorkStealingPool.WorkerStats::utilization).toList();
+    }
+
+    /**
+     * Extrai um valor de cada faixa do buffer com prioridades.
+     * @param value Valor extraído das métricas de uma faixa.
+     * @return Valores na ordem das faixas, ou lista vazia fora do modo PRIORITY.
+     */
+    private List<Object> perLane(Function<PriorityFIFO.LaneStats, Object> value) {
+        return laneStats.stream().map(value).toList();
+    }
+
+    /**
+     * Extrai um valor de cada partição do buffer particionado.
+     * @param value Valor extraído das métricas de uma partição.
+     * @return Valores na ordem das partições, ou lista vazia fora do modo PARTITIONED.
+     */
+    private List<Object> perPartition(Function<PartitionedFIFO.PartitionStats, Object> value) {
+        return partitionStats.stream().map(value).toList();
+    }
+
+    /**
+     * Formata o relatório como um objeto JSON.
+     * @return Texto JSON do relatório.
+     */
+    public String toJson() {
+        Object[] values = values();
+        StringBuilder json = new StringBuilder("{\n");
+        for (int i = 0; i < CSV_COLUMNS.length; i++) {
+            json.append("  \"").append(CSV_COLUMNS[i]).append("\": ");
+            json.append(formatJson(values[i]));
+            json.append(i + 1 < CSV_COLUMNS.length ? ",\n" : "\n");
+        }
+        return json.append("}\n").toString();
+    }
+
+    /**
+     * Formata o relatório como CSV, com uma linha de cabeçalho e uma linha de valores.
+     * @return Texto CSV do relatório.
+     */
+    public String toCsv() {
+        Object[] values = values();
+        StringBuilder csv = new StringBuilder(String.join(",", CSV_COLUMNS)).append('\n');
+        for (int i = 0; i < values.length; i++) {
+            csv.append(i > 0 ? "," : "").append(format(values[i]));
+        }
+        return csv.append('\n').toString();
+    }
+
+    private Object[] values() {
+        return new Object[]{
+                implementation, bufferSize, producers, consumers, producerRate, consumerRate,
+                elapsedSeconds, produced, consumed, producedPerSecond(), consumedPerSecond(),
+                occupancyMean, occupancyMax, occupancySamples,
+                producerBlockedCount, producerBlockedNanos / 1e6, producerBlockedRatio(),
+                consumerBlockedCount, consumerBlockedNanos / 1e6, consumerBlockedRatio(),
+                LatencyHistogram.toMicros(queueLatency.p50()), LatencyHistogram.toMicros(queueLatency.p99()),
+                LatencyHistogram.toMicros(queueLatency.p999()), LatencyHistogram.toMicros(queueLatency.max()),
+                LatencyHistogram.toMicros(endToEndLatency.p50()), LatencyHistogram.toMicros(endToEndLatency.p99()),
+                LatencyHistogram.toMicros(endToEndLatency.p999()), LatencyHistogram.toMicros(endToEndLatency.max()),
+                workerStats.size(), poolStolen(), workerUtilization(),
+                perLane(PriorityFIFO.LaneStats::weight), perLane(PriorityFIFO.LaneStats::dequeued),
+                perLane(lane -> LatencyHistogram.toMicros(lane.queueLatency().p50())),
+                perLane(lane -> LatencyHistogram.toMicros(lane.queueLatency().p99())),
+                perLane(lane -> LatencyHistogram.toMicros(lane.queueLatency().max())),
+                overflow.get(OverflowPolicy.REJECT), overflow.get(OverflowPolicy.DROP_OLDEST),
+                overflow.get(OverflowPolicy.DROP_NEWEST), overflow.get(OverflowPolicy.CALLER_RUNS),
+                perPartition(PartitionedFIFO.PartitionStats::enqueued),
+                perPartition(PartitionedFIFO.PartitionStats::occupancyMean),
+                perPartition(PartitionedFIFO.PartitionStats::occupancyMax),
+                perPartition(partition -> LatencyHistogram.toMicros(partition.queueLatency().p99())),
+                PartitionedFIFO.skew(partitionStats)
+        };
+    }
+
+    private static String formatJson(Object value) {
+        if (value instanceof String text) {
+            return '"' + text + '"';
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(RunReport::formatJson).collect(Collectors.joining(", ", "[", "]"));
+        }
+        if (value instanceof Double number && !Double.isFinite(number)) {
+            return "null";
+        }
+        return format(value);
+    }
+
+    private static String format(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().map(RunReport::format).collect(Collectors.joining(";"));
+        }
+        if (value instanceof Double number) {
+            return Double.isFinite(number) ? String.format(Locale.ROOT, "%.4f", number) : "";
+        }
+        return String.valueOf(value);
+    }
+}
@@ -1,138 +1,1061 @@
 package prodconsum;
 
+import common.CapacityTuner;
+import common.ContentionProfiler;
+import common.ContentionSite;
+import common.ElasticCapacity;
+import common.EventLog;
+import common.EventSink;
+import common.EventType;
+import common.LatencyHistogram;
+import common.LogTail;
+import common.OfferResult;
+import common.OverflowCounters;
+import common.OverflowPolicy;
+import common.StandardWaitStrategy;
+import common.WaitStrategy;
+
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 /**
  * Classe BlockingQueueBuffer que implementa um buffer bloqueante para armazenar mensagens.
  * Permite a troca de mensagens entre o produtor e o consumidor, garantindo que o consumidor
  * só consuma mensagens quando houver disponibilidade no buffer.
+ * <p>
+ * Os slots livres são controlados por um contador de confirmações (créditos). Produtores aguardam na
+ * condição {@code notFull} e consumidores na condição {@code notEmpty}, e cada operação sinaliza apenas
+ * o lado que pode progredir.
+ * <p>
+ * As mensagens ficam em um anel de slots {@link Message} pré-alocados na construção. A API tipada
+ * ({@link #sendMessage(long)} e {@link #receiveMessage(Message)}) apenas copia campos entre esses slots e as
+ * mensagens do chamador, sem alocar objetos; a API de strings continua disponível para quem precisa de texto.
+ * <p>
+ * As operações apenas publicam eventos no {@link EventLog}; a formatação e a escrita acontecem fora do lock.
+ * <p>
+ * Com um {@link MessageJournal}, cada envio é gravado no journal antes de retornar, com o fsync compartilhado
+ * entre envios concorrentes, e as mensagens ainda não confirmadas com {@link #acknowledge(Message)} voltam ao
+ * buffer quando ele é recriado sobre o mesmo journal: a entrega passa a ser pelo menos uma vez.
+ * <p>
+ * A capacidade pode mudar com o buffer em uso, manualmente com {@link #resize(int)} ou por um
+ * {@link CapacityTuner} ligado com {@link #enableElasticCapacity(ElasticCapacity)}.
+ * <p>
+ * Além dos envios e recebimentos que aguardam sem limite, {@link #offerMessage(long, long, long, TimeUnit)} e
+ * {@link #pollMessage(Message, long, TimeUnit)} aguardam no máximo o tempo informado. Um envio que continua sem
+ * confirmações ao fim do tempo segue a {@link OverflowPolicy} configurada, e cada aplicação é contada.
+ * <p>
+ * Ouvintes registrados com {@link #addMessageListener(Runnable)} e {@link #addCreditListener(Runnable)} são
+ * avisados quando chegam mensagens ou confirmações, para que adaptadores assíncronos como {@link BufferPublisher}
+ * e {@link BufferSubscriber} reajam sem manter uma thread bloqueada no buffer.
+ * <p>
+ * As esperas pelo lock e pelas condições, e os despertares que encontram a condição ainda falsa, são informados
+ * ao {@link ContentionProfiler}.
  */
 public class BlockingQueueBuffer {
-    private final Queue<String> messageQueue = new LinkedList<>();
-    private final Queue<String> ackQueue = new LinkedList<>();
-    private final LinkedList<String> log = new LinkedList<>();
+    private Message[] slots; // Anel de mensagens pré-alocadas, uma por slot do buffer; trocado em resize()
+    private int head; // Índice da mensagem mais antiga
+    private int count; // Quantidade de mensagens no buffer
+    private static final int LOG_CAPACITY = 4096; // Eventos pendentes de escrita no log padrão
+    private static final int LOG_TAIL_CAPACITY = 1000; // Linhas guardadas para getAllLogs
+
+    private final EventLog eventLog;
+    private final LogTail logTail = new LogTail(LOG_TAIL_CAPACITY);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition(); // Sinalizada quando uma confirmação é devolvida
+    private final Condition notEmpty = lock.newCondition(); // Sinalizada quando uma mensagem é enviada
+    private int credits; // Confirmações disponíveis, isto é, slots livres no buffer
+    private final MessageJournal journal; // null sem persistência
+    private final long sequenceBase; // Sequência da primeira mensagem enviada por este buffer
     private int producerMessageCount = 0;
     private int consumerMessageCount = 0;
-    private final int capacity; // Campo para armazenar a capacidade do buffer
+    private long sendBlockedCount = 0; // Vezes em que um envio encontrou o buffer cheio
+    private long sendBlockedNanos = 0;
+    private long receiveBlockedCount = 0; // Vezes em que um recebimento encontrou o buffer vazio
+    private long receiveBlockedNanos = 0;
+    private int capacity; // Campo para armazenar a capacidade do buffer; protegido pelo lock
+    private final WaitStrategy waitStrategy;
+    private CapacityTuner capacityTuner; // null sem capacidade adaptativa; protegido pelo monitor de tunerLock
+    private final Object tunerLock = new Object();
+    private volatile OverflowPolicy overflowPolicy = OverflowPolicy.REJECT; // Aplicada por offerMessage
+    private final OverflowCounters overflowCounters = new OverflowCounters();
+    private final ContentionProfiler profiler = ContentionProfiler.global();
+    private final List<Runnable> messageListeners = new CopyOnWriteArrayList<>(); // Avisados a cada envio
+    private final List<Runnable> creditListeners = new CopyOnWriteArrayList<>(); // Avisados a cada confirmação
+    private final LatencyHistogram queueLatency = new LatencyHistogram(); // Do envio até o recebimento
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram(); // Do envio até o fim do processamento
 
     /**
      * Construtor da classe BlockingQueueBuffer.
-     * @param capacity Capacidade do buffer. Inicializa a fila de confirmações (ackQueue) com mensagens vazias.
+     * @param capacity Capacidade do buffer. Inicializa o contador de confirmações com um crédito por slot.
      */
     public BlockingQueueBuffer(int capacity) {
+        this(capacity, consoleLog());
+    }
+
+    /**
+     * Construtor da classe BlockingQueueBuffer com log de eventos configurável.
+     * @param capacity Capacidade do buffer. Inicializa o contador de confirmações com um crédito por slot.
+     * @param eventLog Log que recebe os eventos do buffer; use {@link EventLog#off()} para desligá-lo.
+     */
+    public BlockingQueueBuffer(int capacity, EventLog eventLog) {
+        this(capacity, eventLog, StandardWaitStrategy.BLOCKING);
+    }
+
+    /**
+     * Construtor da classe BlockingQueueBuffer com log de eventos e estratégia de espera configuráveis.
+     * @param capacity Capacidade do buffer. Inicializa o contador de confirmações com um crédito por slot.
+     * @param eventLog Log que recebe os eventos do buffer; use {@link EventLog#off()} para desligá-lo.
+     * @param waitStrategy Estratégia usada quando o buffer está cheio (sem confirmações) ou vazio.
+     */
+    public BlockingQueueBuffer(int capacity, EventLog eventLog, WaitStrategy waitStrategy) {
+        this(capacity, eventLog, waitStrategy, null);
+    }
+
+    /**
+     * Construtor da classe BlockingQueueBuffer com persistência das mensagens em um journal.
+     * As mensagens não confirmadas encontradas no journal entram no buffer antes de qualquer envio, na ordem
+     * original; se forem mais que a capacidade, o buffer as guarda todas e só aceita novos envios quando voltar
+     * a ter slots livres.
+     * @param capacity Capacidade do buffer. Inicializa o contador de confirmações com um crédito por slot.
+     * @param eventLog Log que recebe os eventos do buffer; use {@link EventLog#off()} para desligá-lo.
+     * @param waitStrategy Estratégia usada quando o buffer está cheio (sem confirmações) ou vazio.
+     * @param journal Journal das mensagens, ou null para manter as mensagens apenas em memória. Não é fechado
+     *                pelo buffer.
+     */
+    public BlockingQueueBuffer(int capacity, EventLog eventLog, WaitStrategy waitStrategy, MessageJournal journal) {
+        List<Message> recovered = journal != null ? journal.getRecoveredMessages() : List.of();
+        this.waitStrategy = waitStrategy;
         this.capacity = capacity; // Armazena a capacidade no campo
-        for (int i = 0; i < capacity; i++) {
-            ackQueue.offer("EMPTY");
+        this.credits = Math.max(0, capacity - recovered.size());
+        this.slots = new Message[Math.max(capacity, recovered.size())];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Message();
+        }
+        for (Message message : recovered) {
+            slots[count++].copyFrom(message);
         }
+        this.journal = journal;
+        this.sequenceBase = journal != null ? journal.getNextSequence() : 0;
+        this.eventLog = eventLog;
+        eventLog.addSink(logTail);
+        if (!recovered.isEmpty()) {
+            eventLog.publish(EventType.MESSAGES_RECOVERED, recovered.size(), null);
+        }
+    }
+
+    /**
+     * Cria o log padrão: todos os eventos, impressos no console, sobrescrevendo os mais antigos se a escrita
+     * não acompanhar o ritmo das threads.
+     */
+    private static EventLog consoleLog() {
+        EventLog log = new EventLog(LOG_CAPACITY, EventLog.Level.TRACE, EventLog.OverflowPolicy.OVERWRITE_OLDEST);
+        log.addSink(EventSink.CONSOLE);
+        return log;
     }
 
     /**
-     * Envia uma mensagem para o buffer. Aguarda se o buffer está cheio (ackQueue vazia).
+     * Envia uma mensagem para o buffer. Aguarda se o buffer está cheio (sem confirmações disponíveis).
      * Incrementa o contador de mensagens produzidas e adiciona o log da operação.
      * @param message Mensagem a ser enviada ao buffer.
      * @throws InterruptedException se a thread for interrompida enquanto aguarda espaço no buffer.
      */
-    public synchronized void sendMessage(String message) throws InterruptedException {
-        while (ackQueue.isEmpty()) {
-            wait();
+    public void sendMessage(String message) throws InterruptedException {
+        long sequenceId;
+        lockInterruptibly();
+        try {
+            awaitCredit();
+
+            sequenceId = sequenceBase + producerMessageCount;
+            journal(sequenceId, producerMessageCount, message);
+            credits--;
+            enqueue(sequenceId, producerMessageCount, System.nanoTime(), message);
+            producerMessageCount++;
+            eventLog.publish(EventType.MESSAGE_SENT, producerMessageCount, message);
+
+            notEmpty.signal();
+            fire(messageListeners);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequenceId);
+    }
+
+    /**
+     * Envia uma mensagem tipada para o buffer, sem alocar objetos. Aguarda se o buffer está cheio
+     * (sem confirmações disponíveis).
+     * @param payload Conteúdo numérico da mensagem.
+     * @return O número de sequência atribuído à mensagem.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda espaço no buffer.
+     */
+    public long sendMessage(long payload) throws InterruptedException {
+        return sendMessage(payload, System.nanoTime());
+    }
+
+    /**
+     * Envia uma mensagem tipada com um instante de origem informado por quem chama, por exemplo o instante
+     * pretendido de envio em uma carga de laço aberto, de modo que o tempo aguardando espaço no buffer entre
+     * nas latências medidas. Não aloca objetos.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param timestamp Instante de origem da mensagem, em nanossegundos de {@link System#nanoTime()}.
+     * @return O número de sequência atribuído à mensagem.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda espaço no buffer ou a gravação
+     *                              no journal; no segundo caso a mensagem já está no buffer.
+     */
+    public long sendMessage(long payload, long timestamp) throws InterruptedException {
+        long sequenceId;
+        lockInterruptibly();
+        try {
+            awaitCredit();
+
+            sequenceId = sequenceBase + producerMessageCount;
+            journal(sequenceId, payload, null);
+            credits--;
+            enqueue(sequenceId, payload, timestamp, null);
+            producerMessageCount++;
+            eventLog.publish(EventType.MESSAGE_SENT, payload, null);
+
+            notEmpty.signal();
+            fire(messageListeners);
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(sequenceId);
+        return sequenceId;
+    }
+
+    /**
+     * Envia uma mensagem tipada se houver uma confirmação disponível, sem aguardar e sem contabilizar tempo
+     * bloqueado nem aplicar a política de estouro. Usado por {@link MessageReceiver}, que só aceita mensagens da
+     * rede para as quais já concedeu confirmações.
+     * Pré-condição: o buffer não deve ter journal, pois a gravação aguardaria o disco.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param timestamp Instante de origem da mensagem, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se a mensagem entrou no buffer; false se não havia confirmações.
+     */
+    boolean trySendMessage(long payload, long timestamp) {
+        lock();
+        try {
+            if (credits == 0) {
+                return false;
+            }
+            long sequenceId = sequenceBase + producerMessageCount;
+            credits--;
+            enqueue(sequenceId, payload, timestamp, null);
+            producerMessageCount++;
+            eventLog.publish(EventType.MESSAGE_SENT, payload, null);
+
+            notEmpty.signal();
+            fire(messageListeners);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verifica se o buffer grava as mensagens em um journal.
+     * @return true se o buffer foi criado com um journal.
+     */
+    boolean hasJournal() {
+        return journal != null;
+    }
+
+    /**
+     * Tenta enviar uma mensagem tipada, aguardando no máximo o tempo informado por uma confirmação. Se o buffer
+     * continuar cheio, aplica a política de estouro: com DROP_OLDEST a mensagem mais antiga é descartada (e
+     * confirmada no journal) para dar lugar à nova; se o buffer estiver sem confirmações mas vazio, não há o que
+     * descartar e a mensagem é recusada. Não aloca objetos.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param timestamp Instante de origem da mensagem, em nanossegundos de {@link System#nanoTime()}.
+     * @param timeout Tempo máximo de espera por uma confirmação; 0 não aguarda.
+     * @param unit Unidade do tempo de espera.
+     * @return {@link OfferResult#ACCEPTED} se a mensagem entrou no buffer; senão o resultado da política aplicada.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda espaço no buffer ou a gravação
+     *                              no journal; no segundo caso a mensagem já está no buffer.
+     */
+    public OfferResult offerMessage(long payload, long timestamp, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long sequenceId;
+        lockInterruptibly();
+        try {
+            if (!awaitCredit(deadline)) {
+                OverflowPolicy policy = overflowPolicy;
+                if (policy == OverflowPolicy.DROP_OLDEST && count > 0) {
+                    Message oldest = slots[head];
+                    head = (head + 1) % slots.length;
+                    count--;
+                    credits++; // O slot do descartado recebe a mensagem nova logo abaixo
+                    acknowledge(oldest.getSequenceId()); // Não volta ao buffer depois de um reinício
+                    oldest.clearText();
+                    overflowCounters.record(policy);
+                    eventLog.publish(EventType.ITEM_DROPPED, oldest.getPayload(), null);
+                } else {
+                    return applyOverflow(policy == OverflowPolicy.DROP_OLDEST ? OverflowPolicy.REJECT : policy,
+                            payload);
+                }
+            }
+
+            sequenceId = sequenceBase + producerMessageCount;
+            journal(sequenceId, payload, null);
+            credits--;
+            enqueue(sequenceId, payload, timestamp, null);
+            producerMessageCount++;
+            eventLog.publish(EventType.MESSAGE_SENT, payload, null);
+
+            notEmpty.signal();
+            fire(messageListeners);
+        } finally {
+            lock.unlock();
         }
+        awaitDurable(sequenceId);
+        return OfferResult.ACCEPTED;
+    }
 
-        ackQueue.poll();
-        messageQueue.offer(message);
-        producerMessageCount++;
-        log.add("Producer: Sent message -> " + message);
-        System.out.println("Producer: Sent message -> " + message);
+    /**
+     * Conta e registra uma mensagem que não entrou no buffer.
+     * Pré-condição: a política não é DROP_OLDEST, que é tratada por quem chama.
+     * @return O resultado correspondente à política.
+     */
+    private OfferResult applyOverflow(OverflowPolicy policy, long payload) {
+        overflowCounters.record(policy);
+        return switch (policy) {
+            case REJECT -> {
+                eventLog.publish(EventType.ITEM_REJECTED, payload, null);
+                yield OfferResult.REJECTED;
+            }
+            case DROP_NEWEST -> {
+                eventLog.publish(EventType.ITEM_DROPPED, payload, null);
+                yield OfferResult.DROPPED;
+            }
+            case CALLER_RUNS -> {
+                eventLog.publish(EventType.ITEM_RUN_BY_CALLER, payload, null);
+                yield OfferResult.RUN_BY_CALLER;
+            }
+            case DROP_OLDEST -> throw new IllegalStateException("DROP_OLDEST é aplicada por offerMessage.");
+        };
+    }
 
-        notifyAll();
+    /**
+     * Envia um lote de mensagens para o buffer. A cada posse do lock, transfere tantas mensagens quanto
+     * permitirem as confirmações disponíveis e sinaliza apenas os consumidores que podem progredir; aguarda
+     * novas confirmações apenas se ainda restarem mensagens.
+     * @param messages Mensagens a serem enviadas, na ordem de iteração da coleção.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda espaço no buffer. As mensagens
+     *                              transferidas antes da interrupção permanecem no buffer.
+     */
+    public void sendMessages(Collection<String> messages) throws InterruptedException {
+        Iterator<String> pending = messages.iterator();
+        long lastSequenceId = -1;
+        lockInterruptibly();
+        try {
+            while (pending.hasNext()) {
+                awaitCredit();
+
+                int sent = 0;
+                while (pending.hasNext() && credits > 0) {
+                    String message = pending.next();
+                    lastSequenceId = sequenceBase + producerMessageCount + sent;
+                    journal(lastSequenceId, producerMessageCount + sent, message);
+                    credits--;
+                    enqueue(lastSequenceId, producerMessageCount + sent, System.nanoTime(), message);
+                    sent++;
+                    eventLog.publish(EventType.MESSAGE_SENT, producerMessageCount + sent, message);
+                }
+                producerMessageCount += sent;
+
+                signal(notEmpty, sent);
+                fire(messageListeners);
+            }
+        } finally {
+            lock.unlock();
+        }
+        awaitDurable(lastSequenceId); // Um único fsync cobre o lote inteiro
     }
 
     /**
      * Recebe uma mensagem do buffer. Aguarda se não houver mensagens disponíveis.
-     * Incrementa o contador de mensagens consumidas e adiciona o log da operação.
+     * Incrementa o contador de mensagens consumidas, devolve a confirmação do slot liberado
+     * e adiciona o log da operação.
      * @return A mensagem recebida.
      * @throws InterruptedException se a thread for interrompida enquanto aguarda uma mensagem.
      */
-    public synchronized String receiveMessage() throws InterruptedException {
-        while (messageQueue.isEmpty()) {
-            wait();
+    public String receiveMessage() throws InterruptedException {
+        lockInterruptibly();
+        try {
+            awaitMessage();
+
+            Message slot = dequeue();
+            String message = slot.getText();
+            slot.clearText();
+            acknowledge(slot.getSequenceId()); // Sem a mensagem tipada, o consumidor não tem como confirmar depois
+            consumerMessageCount++;
+            eventLog.publish(EventType.MESSAGE_RECEIVED, consumerMessageCount, message);
+            sendAck();
+            return message;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recebe uma mensagem do buffer copiando seus campos para uma mensagem do chamador, sem alocar objetos.
+     * Aguarda se não houver mensagens disponíveis. Incrementa o contador de mensagens consumidas e devolve
+     * a confirmação do slot liberado.
+     * @param into Mensagem reutilizável que recebe os campos da mensagem retirada do buffer.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda uma mensagem.
+     */
+    public void receiveMessage(Message into) throws InterruptedException {
+        lockInterruptibly();
+        try {
+            awaitMessage();
+            take(into);
+        } finally {
+            lock.unlock();
         }
+    }
 
-        String message = messageQueue.poll();
+    /**
+     * Tenta receber uma mensagem do buffer, aguardando no máximo o tempo informado, sem alocar objetos.
+     * Como em {@link #receiveMessage(Message)}, devolve a confirmação do slot liberado.
+     * @param into Mensagem reutilizável que recebe os campos da mensagem retirada do buffer.
+     * @param timeout Tempo máximo de espera por uma mensagem; 0 não aguarda.
+     * @param unit Unidade do tempo de espera.
+     * @return true se uma mensagem foi recebida; false se o buffer continuou vazio até o fim do tempo.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda uma mensagem.
+     */
+    public boolean pollMessage(Message into, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lockInterruptibly();
+        try {
+            if (!awaitMessage(deadline)) {
+                return false;
+            }
+            take(into);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retira uma mensagem se houver alguma no buffer, sem aguardar e sem contabilizar tempo bloqueado.
+     * Usado por {@link BufferPublisher}, que só tenta retirar quando há demanda ou quando chega uma mensagem.
+     * @param into Mensagem reutilizável que recebe os campos da mensagem retirada do buffer.
+     * @return true se uma mensagem foi recebida; false se o buffer estava vazio.
+     */
+    boolean tryReceiveMessage(Message into) {
+        lock();
+        try {
+            if (count == 0) {
+                return false;
+            }
+            take(into);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retira a mensagem mais antiga para a mensagem do chamador e devolve a confirmação do slot.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e deve haver ao menos uma mensagem.
+     */
+    private void take(Message into) {
+        Message slot = dequeue();
+        into.copyFrom(slot);
+        slot.clearText();
         consumerMessageCount++;
-        log.add("Consumer: Received message -> " + message);
-        System.out.println("Consumer: Received message -> " + message);
+        if (into.hasText()) {
+            eventLog.publish(EventType.MESSAGE_RECEIVED, consumerMessageCount, into.getText());
+        } else {
+            eventLog.publish(EventType.MESSAGE_RECEIVED, into.getPayload(), null);
+        }
         sendAck();
-        notifyAll();
-        return message;
+    }
+
+    /**
+     * Retira um lote de mensagens do buffer. Aguarda até que haja ao menos uma mensagem e então transfere
+     * até {@code maxMessages} mensagens na mesma posse do lock, devolvendo as confirmações correspondentes
+     * e sinalizando apenas os produtores que podem progredir.
+     * @param target Coleção que recebe as mensagens, na ordem em que foram enviadas.
+     * @param maxMessages Quantidade máxima de mensagens a transferir.
+     * @return A quantidade de mensagens transferidas (ao menos 1 quando {@code maxMessages > 0}).
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda uma mensagem.
+     */
+    public int drainTo(Collection<String> target, int maxMessages) throws InterruptedException {
+        if (maxMessages <= 0) {
+            return 0;
+        }
+        lockInterruptibly();
+        try {
+            awaitMessage();
+
+            int drained = 0;
+            while (drained < maxMessages && count > 0) {
+                Message slot = dequeue();
+                String message = slot.getText();
+                slot.clearText();
+                acknowledge(slot.getSequenceId());
+                target.add(message);
+                drained++;
+                eventLog.publish(EventType.MESSAGE_RECEIVED, consumerMessageCount + drained, message);
+            }
+            consumerMessageCount += drained;
+            credits = Math.min(credits + drained, capacity - count); // Mensagens recuperadas além da capacidade
+            eventLog.publish(EventType.ACKS_SENT, drained, null);
+
+            signal(notFull, drained);
+            fire(creditListeners);
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Confirma que uma mensagem recebida com {@link #receiveMessage(Message)} foi processada, para que não seja
+     * entregue de novo depois de um reinício. Sem journal, não faz nada. As mensagens recebidas como texto
+     * ({@link #receiveMessage()} e {@link #drainTo(Collection, int)}) são confirmadas no recebimento.
+     * @param message Mensagem processada.
+     */
+    public void acknowledge(Message message) {
+        acknowledge(message.getSequenceId());
+    }
+
+    private void acknowledge(long sequenceId) {
+        if (journal != null) {
+            journal.acknowledge(sequenceId);
+        }
+    }
+
+    /**
+     * Copia a mensagem para o lote do journal antes de colocá-la no buffer, mantendo a ordem das sequências.
+     * A cópia nunca aguarda o disco, então consumidores e confirmações não ficam presos atrás do lock durante a
+     * gravação; o fsync é aguardado depois, fora do lock, com {@link #awaitDurable(long)}.
+     * Pré-condição: o lock deve estar adquirido pela thread atual.
+     */
+    private void journal(long sequenceId, long payload, String text) {
+        if (journal != null) {
+            journal.append(sequenceId, payload, text);
+        }
+    }
+
+    /**
+     * Aguarda o fsync do journal que cobre a mensagem, fora do lock, para que envios concorrentes compartilhem
+     * a mesma gravação.
+     */
+    private void awaitDurable(long sequenceId) throws InterruptedException {
+        if (journal != null && sequenceId >= 0) {
+            journal.awaitDurable(sequenceId);
+        }
     }
 
     /**
      * Envia uma confirmação de que uma mensagem foi consumida, liberando um espaço no buffer.
-     * Adiciona um log da confirmação enviada.
+     * Confirmações além dos slots realmente livres são descartadas, de modo que o buffer nunca
+     * ultrapassa sua capacidade. Adiciona um log da confirmação enviada.
+     */
+    public void sendAck() {
+        lock();
+        try {
+            if (credits + count < capacity) {
+                credits++;
+                notFull.signal();
+                fire(creditListeners);
+            }
+            eventLog.publish(EventType.ACK_SENT, 0, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adquire o lock, informando ao {@link ContentionProfiler} o tempo de espera quando ele está ocupado.
+     */
+    private void lock() {
+        if (lock.tryLock()) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        lock.lock();
+        profiler.recordBlocked(ContentionSite.BUFFER_LOCK, System.nanoTime() - blockedSince);
+    }
+
+    /**
+     * Adquire o lock como {@link #lock()}, desistindo se a thread for interrompida.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void lockInterruptibly() throws InterruptedException {
+        if (lock.tryLock()) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        lock.lockInterruptibly();
+        profiler.recordBlocked(ContentionSite.BUFFER_LOCK, System.nanoTime() - blockedSince);
+    }
+
+    /**
+     * Aguarda até que haja ao menos uma confirmação disponível, contabilizando o tempo bloqueado.
+     * Com estratégias não bloqueantes, o lock é liberado entre as tentativas.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void awaitCredit() throws InterruptedException {
+        if (credits > 0) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        if (waitStrategy.isBlocking()) {
+            notFull.await();
+            while (credits == 0) {
+                profiler.recordEmptyWakeup(ContentionSite.BUFFER_NOT_FULL);
+                notFull.await();
+            }
+        } else {
+            int attempts = 0;
+            while (credits == 0) {
+                attempts = idleUnlocked(attempts);
+            }
+        }
+        long blocked = System.nanoTime() - blockedSince;
+        sendBlockedCount++;
+        sendBlockedNanos += blocked;
+        profiler.recordBlocked(ContentionSite.BUFFER_NOT_FULL, blocked);
+    }
+
+    /**
+     * Aguarda até que haja ao menos uma mensagem no buffer, contabilizando o tempo bloqueado.
+     * Com estratégias não bloqueantes, o lock é liberado entre as tentativas.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void awaitMessage() throws InterruptedException {
+        if (count > 0) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        if (waitStrategy.isBlocking()) {
+            notEmpty.await();
+            while (count == 0) {
+                profiler.recordEmptyWakeup(ContentionSite.BUFFER_NOT_EMPTY);
+                notEmpty.await();
+            }
+        } else {
+            int attempts = 0;
+            while (count == 0) {
+                attempts = idleUnlocked(attempts);
+            }
+        }
+        long blocked = System.nanoTime() - blockedSince;
+        receiveBlockedCount++;
+        receiveBlockedNanos += blocked;
+        profiler.recordBlocked(ContentionSite.BUFFER_NOT_EMPTY, blocked);
+    }
+
+    /**
+     * Aguarda uma confirmação até o prazo, contabilizando o tempo bloqueado.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @param deadline Prazo, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se há uma confirmação; false se o prazo terminou sem nenhuma.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
      */
-    public synchronized void sendAck() {
-        ackQueue.offer("EMPTY");
-        log.add("Consumer: Sent empty message as acknowledgment.");
-        System.out.println("Consumer: Sent empty message as acknowledgment.");
-        notifyAll();
+    private boolean awaitCredit(long deadline) throws InterruptedException {
+        if (credits > 0) {
+            return true;
+        }
+        long blockedSince = System.nanoTime();
+        boolean ready = awaitUntil(notFull, true, deadline);
+        long blocked = System.nanoTime() - blockedSince;
+        sendBlockedCount++;
+        sendBlockedNanos += blocked;
+        profiler.recordBlocked(ContentionSite.BUFFER_NOT_FULL, blocked);
+        return ready;
+    }
+
+    /**
+     * Aguarda uma mensagem até o prazo, contabilizando o tempo bloqueado.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @param deadline Prazo, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se há uma mensagem; false se o prazo terminou com o buffer vazio.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private boolean awaitMessage(long deadline) throws InterruptedException {
+        if (count > 0) {
+            return true;
+        }
+        long blockedSince = System.nanoTime();
+        boolean ready = awaitUntil(notEmpty, false, deadline);
+        long blocked = System.nanoTime() - blockedSince;
+        receiveBlockedCount++;
+        receiveBlockedNanos += blocked;
+        profiler.recordBlocked(ContentionSite.BUFFER_NOT_EMPTY, blocked);
+        return ready;
+    }
+
+    private boolean awaitUntil(Condition condition, boolean credit, long deadline) throws InterruptedException {
+        ContentionSite site = credit ? ContentionSite.BUFFER_NOT_FULL : ContentionSite.BUFFER_NOT_EMPTY;
+        int attempts = 0;
+        boolean woken = false;
+        while (credit ? credits == 0 : count == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (waitStrategy.isBlocking()) {
+                if (woken) {
+                    profiler.recordEmptyWakeup(site);
+                }
+                woken = condition.awaitNanos(remaining) > 0; // Acordado antes do prazo
+            } else {
+                attempts = idleUnlocked(attempts);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Libera o lock durante uma espera da estratégia não bloqueante, para que o outro lado possa progredir.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @param attempts Tentativas malsucedidas até agora.
+     * @return O número de tentativas atualizado.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private int idleUnlocked(int attempts) throws InterruptedException {
+        lock.unlock();
+        try {
+            return waitStrategy.idle(attempts);
+        } finally {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Preenche o próximo slot livre do anel, sem alocar objetos.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e deve haver um slot livre.
+     * @param sequenceId Número de sequência da mensagem.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param timestamp Instante de origem da mensagem.
+     * @param text Texto da mensagem, ou null para mensagens tipadas.
+     */
+    private void enqueue(long sequenceId, long payload, long timestamp, String text) {
+        slots[(head + count) % slots.length].set(sequenceId, payload, timestamp, text);
+        count++;
+    }
+
+    /**
+     * Retira a mensagem mais antiga do anel e registra seu tempo de permanência no buffer. O slot devolvido continua válido até a próxima escrita,
+     * que só acontece depois que o lock for liberado.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e deve haver ao menos uma mensagem.
+     * @return O slot da mensagem retirada.
+     */
+    private Message dequeue() {
+        Message slot = slots[head];
+        queueLatency.recordSince(slot.getTimestamp());
+        head = (head + 1) % slots.length;
+        count--;
+        return slot;
     }
 
     /**
-     * Verifica se o buffer está cheio (ackQueue vazia).
+     * Avisa os ouvintes registrados.
+     * Pré-condição: o lock deve estar adquirido pela thread atual.
+     */
+    private static void fire(List<Runnable> listeners) {
+        if (!listeners.isEmpty()) {
+            listeners.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * Acorda no máximo {@code count} threads aguardando na condição: cada item transferido permite
+     * o progresso de apenas uma thread do outro lado.
+     * Pré-condição: o lock deve estar adquirido pela thread atual.
+     */
+    private static void signal(Condition condition, int count) {
+        for (int i = 0; i < count; i++) {
+            condition.signal();
+        }
+    }
+
+    /**
+     * Verifica se o buffer está cheio (sem confirmações disponíveis).
      * @return true se o buffer está cheio; caso contrário, false.
      */
-    public synchronized boolean isFull() {
-        return ackQueue.isEmpty();
+    public boolean isFull() {
+        lock.lock();
+        try {
+            return credits == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de mensagens atualmente no buffer.
+     * @return Quantidade de mensagens aguardando consumo.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Retorna uma cópia da fila de mensagens para visualização.
+     * Retorna uma cópia da fila de mensagens para visualização. Monta o texto de cada mensagem,
+     * portanto aloca e deve ser usado apenas fora do caminho crítico. Sob o lock apenas os campos são
+     * copiados; o texto é montado depois de liberá-lo, para não atrasar produtores e consumidores.
      * @return Uma nova fila contendo as mensagens atuais no buffer.
      */
-    public synchronized Queue<String> getMessageQueue() {
-        return new LinkedList<>(messageQueue);
+    public Queue<String> getMessageQueue() {
+        Message[] copies;
+        lock.lock();
+        try {
+            copies = new Message[count];
+            for (int i = 0; i < count; i++) {
+                copies[i] = new Message();
+                copies[i].copyFrom(slots[(head + i) % slots.length]);
+            }
+        } finally {
+            lock.unlock();
+        }
+        Queue<String> messages = new LinkedList<>();
+        for (Message copy : copies) {
+            messages.add(copy.getText());
+        }
+        return messages;
+    }
+
+    /**
+     * Registra um ouvinte avisado sempre que mensagens entram no buffer.
+     * O ouvinte é chamado com o lock do buffer adquirido, pela thread que enviou: deve apenas agendar trabalho,
+     * sem bloquear nem chamar o buffer de volta.
+     * @param listener Ouvinte a registrar.
+     */
+    public void addMessageListener(Runnable listener) {
+        messageListeners.add(listener);
+    }
+
+    /**
+     * Remove um ouvinte registrado com {@link #addMessageListener(Runnable)}.
+     * @param listener Ouvinte a remover.
+     */
+    public void removeMessageListener(Runnable listener) {
+        messageListeners.remove(listener);
+    }
+
+    /**
+     * Registra um ouvinte avisado sempre que confirmações são devolvidas, isto é, quando slots ficam livres.
+     * O ouvinte é chamado com o lock do buffer adquirido, pela thread que confirmou: deve apenas agendar trabalho,
+     * sem bloquear nem chamar o buffer de volta.
+     * @param listener Ouvinte a registrar.
+     */
+    public void addCreditListener(Runnable listener) {
+        creditListeners.add(listener);
+    }
+
+    /**
+     * Remove um ouvinte registrado com {@link #addCreditListener(Runnable)}.
+     * @param listener Ouvinte a remover.
+     */
+    public void removeCreditListener(Runnable listener) {
+        creditListeners.remove(listener);
+    }
+
+    /**
+     * Retorna a quantidade de confirmações disponíveis, isto é, de envios que não precisariam aguardar.
+     * @return Confirmações disponíveis no momento da leitura.
+     */
+    public int getAvailableCredits() {
+        lock.lock();
+        try {
+            return credits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Define a política aplicada por {@link #offerMessage(long, long, long, TimeUnit)} quando o buffer continua
+     * cheio ao fim do tempo de espera. Os envios que aguardam sem limite não são afetados.
+     * @param policy Política de estouro; o padrão é {@link OverflowPolicy#REJECT}.
+     */
+    public void setOverflowPolicy(OverflowPolicy policy) {
+        overflowPolicy = policy;
+    }
+
+    /**
+     * Retorna a política aplicada quando o buffer continua cheio ao fim do tempo de espera.
+     * @return A política de estouro atual.
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Retorna quantas vezes cada política de estouro foi aplicada.
+     * @return Os contadores de estouro.
+     */
+    public OverflowCounters getOverflowCounters() {
+        return overflowCounters;
     }
 
     /**
      * Retorna o número total de mensagens produzidas.
      * @return Contador de mensagens produzidas.
      */
-    public synchronized int getProducerMessageCount() {
-        return producerMessageCount;
+    public int getProducerMessageCount() {
+        lock.lock();
+        try {
+            return producerMessageCount;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Retorna o número total de mensagens consumidas.
      * @return Contador de mensagens consumidas.
      */
-    public synchronized int getConsumerMessageCount() {
-        return consumerMessageCount;
+    public int getConsumerMessageCount() {
+        lock.lock();
+        try {
+            return consumerMessageCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna quantas vezes um envio encontrou o buffer cheio e precisou aguardar.
+     * @return Contador de bloqueios dos produtores.
+     */
+    public long getSendBlockedCount() {
+        lock.lock();
+        try {
+            return sendBlockedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o tempo total, somado entre todas as threads, passado aguardando espaço no buffer.
+     * @return Tempo bloqueado nos envios, em nanossegundos.
+     */
+    public long getSendBlockedNanos() {
+        lock.lock();
+        try {
+            return sendBlockedNanos;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * Retorna todos os logs de atividades e esvazia o log.
-     * @return Uma string contendo todas as mensagens de log.
+     * Retorna quantas vezes um recebimento encontrou o buffer vazio e precisou aguardar.
+     * @return Contador de bloqueios dos consumidores.
      */
-    public synchronized String getAllLogs() {
-        StringBuilder allLogs = new StringBuilder();
-        while (!log.isEmpty()) {
-            allLogs.append(log.removeFirst()).append("\n");
+    public long getReceiveBlockedCount() {
+        lock.lock();
+        try {
+            return receiveBlockedCount;
+        } finally {
+            lock.unlock();
         }
-        return allLogs.toString();
     }
 
     /**
-     * Limpa o buffer, resetando as filas e reiniciando as mensagens de confirmação.
+     * Retorna o tempo total, somado entre todas as threads, passado aguardando mensagens no buffer.
+     * @return Tempo bloqueado nos recebimentos, em nanossegundos.
      */
-    public synchronized void clearBuffer() {
-        messageQueue.clear();
-        ackQueue.clear();
-        log.clear();
-        for (int i = 0; i < capacity; i++) {
-            ackQueue.offer("EMPTY");
+    public long getReceiveBlockedNanos() {
+        lock.lock();
+        try {
+            return receiveBlockedNanos;
+        } finally {
+            lock.unlock();
         }
-        System.out.println("Buffer has been cleared.");
+    }
+
+    /**
+     * Retorna os logs de atividades escritos desde a última chamada e esvazia o log.
+     * Apenas as linhas mais recentes são guardadas, de modo que o log não cresce sem limite.
+     * @return Uma string contendo as mensagens de log.
+     */
+    public String getAllLogs() {
+        return logTail.drain();
+    }
+
+    /**
+     * Entrega os logs de atividades escritos desde a última chamada, linha a linha e com o tipo de cada evento,
+     * e esvazia o log.
+     * @param target Destino de cada linha; é chamado na thread que chamou este método.
+     */
+    public void drainLogsTo(BiConsumer<EventType, String> target) {
+        logTail.drainTo(target);
+    }
+
+    /**
+     * Retorna o histograma do tempo de permanência no buffer: do envio de cada mensagem até seu recebimento.
+     * @return Histograma de latência, em nanossegundos.
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Retorna o histograma da latência de ponta a ponta: do envio de cada mensagem até o fim do seu processamento.
+     * O buffer não sabe quando o processamento termina; quem consome registra o tempo a partir de
+     * {@link Message#getTimestamp()}, como faz o {@link Consumer}.
+     * @return Histograma de latência, em nanossegundos.
+     */
+    public LatencyHistogram getEndToEndLatency() {
+        return endToEndLatency;
+    }
+
+    /**
+     * Retorna o log de eventos do buffer, para que produtores e consumidores publiquem seus próprios eventos.
+     * @return O log de eventos.
+     */
+    public EventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Limpa o buffer, resetando a fila e reiniciando as confirmações.
+     * Com journal, as mensagens descartadas são confirmadas e não voltam depois de um reinício.
+     */
+    public void clearBuffer() {
+        lock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                acknowledge(slots[(head + i) % slots.length].getSequenceId());
+            }
+            for (Message slot : slots) {
+                slot.clearText();
+            }
+            head = 0;
+            count = 0;
+            credits = capacity;
+            notFull.signalAll(); // Todos os slots voltaram a ficar livres
+            fire(creditListeners);
+        } finally {
+            lock.unlock();
+        }
+        logTail.clear();
+        eventLog.publish(EventType.BUFFER_CLEARED, 0, null);
     }
 
     /**
@@ -140,6 +1063,107 @@ public class BlockingQueueBuffer {
      * @return Capacidade do buffer.
      */
     public int getCapacity() {
-        return capacity;
+        lock.lock();
+        try {
+            return capacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Altera a capacidade do buffer com produtores e consumidores em execução, sem perder nem reordenar
+     * mensagens. As confirmações disponíveis acompanham a diferença de capacidade; ao reduzir abaixo da ocupação
+     * atual, as mensagens excedentes continuam no buffer e novos envios aguardam até que a ocupação caia.
+     * Pós-condição: o anel de slots tem espaço para a nova capacidade e para todas as mensagens atuais.
+     * @param newCapacity Nova capacidade.
+     * @return A capacidade aplicada, igual à pedida.
+     * @throws IllegalArgumentException se a capacidade não for positiva.
+     */
+    public int resize(int newCapacity) {
+        if (newCapacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + newCapacity);
+        }
+        lock.lock();
+        try {
+            if (newCapacity == capacity) {
+                return capacity;
+            }
+            int length = Math.max(newCapacity, count);
+            if (length != slots.length) {
+                Message[] resized = new Message[length];
+                for (int i = 0; i < length; i++) {
+                    // Mensagens atuais primeiro, na ordem; depois os slots livres, reaproveitados enquanto houver
+                    resized[i] = i < slots.length ? slots[(head + i) % slots.length] : new Message();
+                }
+                slots = resized;
+                head = 0;
+            }
+            int previousCredits = credits;
+            credits = Math.max(0, Math.min(credits + newCapacity - capacity, newCapacity - count));
+            capacity = newCapacity;
+            signal(notFull, credits - previousCredits); // Só acorda produtores se houver confirmações novas
+            if (credits > previousCredits) {
+                fire(creditListeners);
+            }
+            eventLog.publish(EventType.CAPACITY_CHANGED, newCapacity, null);
+            return newCapacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Liga a capacidade adaptativa: uma thread de ajuste passa a aumentar a capacidade quando os envios ficam
+     * bloqueados sem confirmações e a reduzi-la quando a ocupação fica baixa. Substitui um ajuste ligado antes.
+     * @param policy Limites e marcas d'água da capacidade.
+     */
+    public void enableElasticCapacity(ElasticCapacity policy) {
+        synchronized (tunerLock) {
+            disableElasticCapacity();
+            capacityTuner = new CapacityTuner(policy, new CapacityTuner.Target() {
+                @Override
+                public int capacity() {
+                    return getCapacity();
+                }
+
+                @Override
+                public int size() {
+                    return BlockingQueueBuffer.this.size();
+                }
+
+                @Override
+                public long producerBlockedNanos() {
+                    return getSendBlockedNanos();
+                }
+
+                @Override
+                public int resize(int capacity) {
+                    return BlockingQueueBuffer.this.resize(capacity);
+                }
+            });
+        }
+    }
+
+    /**
+     * Desliga a capacidade adaptativa, mantendo a capacidade atual.
+     */
+    public void disableElasticCapacity() {
+        synchronized (tunerLock) {
+            if (capacityTuner != null) {
+                capacityTuner.close();
+                capacityTuner = null;
+            }
+        }
+    }
+
+    /**
+     * Retorna a thread de ajuste da capacidade, para consultar quantas vezes ela alterou o buffer.
+     * @return O ajuste ligado por {@link #enableElasticCapacity(ElasticCapacity)}, ou null se não houver.
+     */
+    public CapacityTuner getCapacityTuner() {
+        synchronized (tunerLock) {
+            return capacityTuner;
+        }
     }
 }
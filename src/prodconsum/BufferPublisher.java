@@ -0,0 +1,177 @@
+package prodconsum;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptador {@link Flow.Publisher} sobre o {@link BlockingQueueBuffer}, para consumidores reativos.
+ * <p>
+ * A demanda pedida com {@link Flow.Subscription#request(long)} vira diretamente confirmações do buffer: cada
+ * mensagem entregue é retirada do buffer e devolve o seu slot aos produtores, então um assinante que pede
+ * {@code n} mensagens libera no máximo {@code n} slots. Nenhuma thread fica bloqueada aguardando mensagens:
+ * a entrega roda no {@link Executor} informado quando chega demanda nova ou quando o buffer avisa que chegou
+ * uma mensagem, e termina assim que a demanda ou o buffer se esgotam.
+ * <p>
+ * Vários assinantes competem pelas mensagens do buffer, como vários {@link Consumer}. Com journal, a mensagem é
+ * confirmada quando {@code onNext} retorna, de modo que uma mensagem ainda em processamento volta a ser entregue
+ * após um reinício. Cada mensagem entregue é uma cópia nova, que o assinante pode guardar.
+ */
+public final class BufferPublisher implements Flow.Publisher<Message>, AutoCloseable {
+    private final BlockingQueueBuffer buffer;
+    private final Executor executor;
+    private final List<BufferSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    /**
+     * Construtor da classe BufferPublisher.
+     * @param buffer Buffer de mensagens de onde os assinantes retiram itens.
+     * @param executor Executor assíncrono onde as mensagens são entregues; não deve executar a tarefa na própria
+     *                 thread que a submete, pois o aviso de mensagem nova chega com o lock do buffer adquirido.
+     */
+    public BufferPublisher(BlockingQueueBuffer buffer, Executor executor) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Registra um assinante. {@code onSubscribe} é chamado no executor; após {@link #close()}, o assinante
+     * recebe {@code onComplete} logo em seguida.
+     * @param subscriber Assinante das mensagens.
+     * @throws NullPointerException se o assinante for null.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super Message> subscriber) {
+        Objects.requireNonNull(subscriber);
+        BufferSubscription subscription = new BufferSubscription(subscriber);
+        subscriptions.add(subscription);
+        buffer.addMessageListener(subscription.onMessage);
+        subscription.schedule();
+    }
+
+    /**
+     * Encerra o publicador: cada assinante recebe {@code onComplete} e deixa de retirar mensagens.
+     * As mensagens que continuarem no buffer ficam disponíveis para outros consumidores.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (BufferSubscription subscription : subscriptions) {
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de assinaturas ativas.
+     * @return Assinaturas ainda não canceladas nem encerradas.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Assinatura de um assinante. Todos os sinais ao assinante são emitidos pelo laço de entrega, que roda em
+     * no máximo uma tarefa do executor por vez: {@code wip} conta os pedidos de entrega ainda não atendidos.
+     */
+    private final class BufferSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super Message> subscriber;
+        private final Runnable onMessage = this::schedule; // Mesma instância para remover o ouvinte
+        private final AtomicLong demand = new AtomicLong(); // Long.MAX_VALUE = demanda ilimitada
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Message received = new Message(); // Usada apenas pelo laço de entrega
+        private volatile boolean cancelled;
+        private volatile long invalidRequest; // Primeiro pedido não positivo, ou 0 se não houve
+        private boolean subscribed; // Usado apenas pelo laço de entrega
+
+        BufferSubscription(Flow.Subscriber<? super Message> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                if (invalidRequest == 0) {
+                    invalidRequest = n == 0 ? -1 : n;
+                }
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> {
+                    long total = current + added;
+                    return total < 0 ? Long.MAX_VALUE : total; // Satura em demanda ilimitada
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                buffer.removeMessageListener(onMessage);
+                subscriptions.remove(this);
+            }
+        }
+
+        /**
+         * Pede uma rodada do laço de entrega; só submete uma tarefa se nenhuma estiver pendente.
+         */
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!subscribed) {
+                    subscribed = true;
+                    subscriber.onSubscribe(this);
+                }
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Entrega mensagens enquanto houver demanda e mensagens no buffer.
+         * Pré-condição: chamado apenas pelo laço de entrega.
+         */
+        private void drain() {
+            while (!cancelled) {
+                if (invalidRequest != 0) {
+                    cancel();
+                    subscriber.onError(new IllegalArgumentException(
+                            "Quantidade pedida deve ser positiva: " + (invalidRequest == -1 ? 0 : invalidRequest)));
+                    return;
+                }
+                if (closed) {
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+                long wanted = demand.get();
+                if (wanted == 0 || !buffer.tryReceiveMessage(received)) {
+                    return; // Um novo pedido ou uma nova mensagem agenda a próxima rodada
+                }
+                if (wanted != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                Message message = new Message();
+                message.copyFrom(received);
+                try {
+                    subscriber.onNext(message);
+                } catch (Throwable t) {
+                    cancel();
+                    subscriber.onError(t);
+                    return;
+                }
+                buffer.acknowledge(message); // Com journal, a mensagem não é mais entregue após um reinício
+            }
+        }
+    }
+}
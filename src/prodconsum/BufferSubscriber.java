@@ -0,0 +1,177 @@
+package prodconsum;
+
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptador {@link Flow.Subscriber} sobre o {@link BlockingQueueBuffer}, para produtores reativos.
+ * <p>
+ * A demanda pedida à origem é exatamente a quantidade de confirmações livres no buffer, descontados os itens já
+ * pedidos e ainda não recebidos: cada item recebido em {@code onNext} ocupa uma confirmação já reservada, então o
+ * envio só aguarda quando outros produtores disputam o mesmo buffer. Quando os consumidores devolvem
+ * confirmações, o buffer avisa o assinante, que repõe a demanda no {@link Executor} informado; nenhuma thread fica
+ * bloqueada aguardando espaço.
+ * <p>
+ * A reposição roda em um laço que ocupa no máximo uma tarefa do executor por vez, como o laço de entrega do
+ * {@link BufferPublisher}, de modo que {@code request} nunca é chamado por duas threads ao mesmo tempo. Cada envio
+ * concluído também pede uma rodada, pois a confirmação devolvida durante o envio pode ter sido descontada de um
+ * item ainda pendente.
+ */
+public final class BufferSubscriber implements Flow.Subscriber<Long> {
+    private final BlockingQueueBuffer buffer;
+    private final Executor executor;
+    private final Runnable onCredit = this::scheduleReplenish; // Mesma instância para remover o ouvinte
+    private final Runnable replenish = this::replenish;
+    private final AtomicLong outstanding = new AtomicLong(); // Itens pedidos à origem e ainda não recebidos
+    private final AtomicInteger wip = new AtomicInteger(); // Pedidos de reposição ainda não atendidos
+    private final AtomicBoolean terminated = new AtomicBoolean();
+    private final CountDownLatch termination = new CountDownLatch(1);
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable error;
+
+    /**
+     * Construtor da classe BufferSubscriber.
+     * @param buffer Buffer de mensagens onde os itens recebidos são enviados.
+     * @param executor Executor assíncrono onde a demanda é reposta; não deve executar a tarefa na própria thread
+     *                 que a submete, pois o aviso de confirmação chega com o lock do buffer adquirido.
+     */
+    public BufferSubscriber(BlockingQueueBuffer buffer, Executor executor) {
+        this.buffer = Objects.requireNonNull(buffer);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Recebe a assinatura e pede à origem tantos itens quantas forem as confirmações livres.
+     * Uma segunda assinatura é cancelada.
+     * @param subscription Assinatura da origem.
+     * @throws NullPointerException se a assinatura for null.
+     */
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        if (this.subscription != null || terminated.get()) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        buffer.addCreditListener(onCredit);
+        scheduleReplenish();
+    }
+
+    /**
+     * Envia o item ao buffer como conteúdo de uma mensagem.
+     * Se a thread for interrompida enquanto aguarda espaço, a assinatura é cancelada.
+     * @param item Conteúdo da mensagem.
+     */
+    @Override
+    public void onNext(Long item) {
+        Objects.requireNonNull(item);
+        try {
+            buffer.sendMessage(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            return;
+        }
+        outstanding.decrementAndGet(); // Só depois do envio: a confirmação reservada já saiu do buffer
+        scheduleReplenish(); // Uma confirmação devolvida durante o envio pode ter encontrado o item ainda pendente
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        error = Objects.requireNonNull(throwable);
+        terminate();
+    }
+
+    @Override
+    public void onComplete() {
+        terminate();
+    }
+
+    /**
+     * Cancela a assinatura da origem e deixa de enviar itens ao buffer.
+     */
+    public void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        terminate();
+    }
+
+    /**
+     * Aguarda até que a origem termine ou a assinatura seja cancelada.
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        termination.await();
+    }
+
+    /**
+     * Retorna o erro informado pela origem.
+     * @return O erro recebido em {@code onError}, ou null se não houve.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Retorna a quantidade de itens pedidos à origem e ainda não enviados ao buffer.
+     * @return Itens pendentes.
+     */
+    public long getOutstanding() {
+        return outstanding.get();
+    }
+
+    private void terminate() {
+        if (terminated.compareAndSet(false, true)) {
+            buffer.removeCreditListener(onCredit);
+            termination.countDown();
+        }
+    }
+
+    /**
+     * Pede uma rodada de reposição; só submete uma tarefa se nenhuma estiver pendente, e pedidos feitos durante
+     * uma rodada resultam em mais uma volta do mesmo laço. Pode ser chamado com o lock do buffer adquirido.
+     */
+    private void scheduleReplenish() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(replenish);
+        }
+    }
+
+    private void replenish() {
+        int missed = 1;
+        do {
+            requestCredits();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Pede à origem a diferença entre as confirmações livres e os itens ainda pendentes.
+     * Pré-condição: chamado apenas pelo laço de reposição.
+     */
+    private void requestCredits() {
+        if (terminated.get()) {
+            return;
+        }
+        long credits = buffer.getAvailableCredits();
+        while (true) {
+            long pending = outstanding.get();
+            long wanted = credits - pending;
+            if (wanted <= 0) {
+                return;
+            }
+            if (outstanding.compareAndSet(pending, credits)) {
+                subscription.request(wanted);
+                return;
+            }
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package prodconsum;
 
+import common.EventType;
+import common.Pacing;
+import common.RatePacer;
+
 /**
  * Classe Consumer que representa o consumidor no problema Produtor-Consumidor.
  * O consumidor recebe mensagens do buffer, processa-as e envia confirmações de recebimento.
@@ -7,8 +11,9 @@ package prodconsum;
 public class Consumer implements Runnable {
     private final BlockingQueueBuffer buffer;
     private volatile boolean running = true;
-    private final Object lock = new Object();
+    private final RatePacer pacer; // Usado apenas pela thread que executa run()
     private final int initialAckCount;
+    private final Message received = new Message(); // Reutilizada a cada recebimento
 
     /**
      * Construtor da classe Consumer.
@@ -16,19 +21,38 @@ public class Consumer implements Runnable {
      * @param initialAckCount Número inicial de confirmações enviadas para indicar slots livres no buffer.
      */
     public Consumer(BlockingQueueBuffer buffer, int initialAckCount) {
+        this(buffer, initialAckCount, 1000);
+    }
+
+    /**
+     * Construtor da classe Consumer com intervalo de processamento configurável.
+     * @param buffer Buffer de mensagens de onde o consumidor irá retirar itens.
+     * @param initialAckCount Número inicial de confirmações enviadas para indicar slots livres no buffer.
+     * @param delayMillis Intervalo entre dois processamentos, em milissegundos; 0 desativa a pausa.
+     */
+    public Consumer(BlockingQueueBuffer buffer, int initialAckCount, long delayMillis) {
+        this(buffer, initialAckCount, Pacing.everyMillis(delayMillis));
+    }
+
+    /**
+     * Construtor da classe Consumer com ritmo de processamento em mensagens por segundo.
+     * @param buffer Buffer de mensagens de onde o consumidor irá retirar itens.
+     * @param initialAckCount Número inicial de confirmações enviadas para indicar slots livres no buffer.
+     * @param pacing Ritmo de processamento.
+     */
+    public Consumer(BlockingQueueBuffer buffer, int initialAckCount, Pacing pacing) {
         this.buffer = buffer;
         this.initialAckCount = initialAckCount;
+        this.pacer = pacing.newPacer();
     }
 
     /**
      * Método para parar a execução do consumidor.
-     * Define o estado de execução para false e notifica quaisquer threads em espera.
+     * Define o estado de execução para false e encerra a espera pelo próximo instante do ritmo.
      */
     public void stop() {
         running = false;
-        synchronized (lock) {
-            lock.notifyAll();
-        }
+        pacer.cancel();
     }
 
     /**
@@ -41,22 +65,20 @@ public class Consumer implements Runnable {
             // Envia mensagens iniciais para indicar espaços livres no buffer
             for (int i = 0; i < initialAckCount; i++) {
                 buffer.sendAck();
-                System.out.println("Consumer: Sent initial empty message to indicate free slot.");
+                buffer.getEventLog().publish(EventType.INITIAL_ACK_SENT, i, null);
             }
 
             while (running) {
-                // Recebe e processa mensagem do buffer
-                String message = buffer.receiveMessage();
-                String item = message.replace("Message containing ", "");
-
-                buffer.sendAck();
-                System.out.println("Consumer: Sent empty message as acknowledgment.");
-
-                System.out.println("Consumer (Server): Processed item -> " + item);
-
-                synchronized (lock) {
-                    lock.wait(1000);
+                pacer.awaitNext(); // Aguarda o instante do próximo processamento
+                if (!running) {
+                    break;
                 }
+                // Recebe e processa mensagem do buffer; o próprio buffer devolve a confirmação do slot
+                buffer.receiveMessage(received);
+
+                buffer.getEventLog().publish(EventType.ITEM_PROCESSED, received.getPayload(), null);
+                buffer.getEndToEndLatency().recordSince(received.getTimestamp());
+                buffer.acknowledge(received); // Com journal, a mensagem não é mais entregue após um reinício
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
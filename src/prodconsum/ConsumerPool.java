@@ -0,0 +1,100 @@
+package prodconsum;
+
+import common.EventType;
+import common.ExecutionMode;
+import common.Pacing;
+import common.RatePacer;
+import common.WorkItem;
+import common.WorkStealingPool;
+
+import java.util.List;
+
+/**
+ * Pool de consumidores com roubo de trabalho sobre o {@link BlockingQueueBuffer}, alternativa a várias
+ * instâncias de {@link Consumer} quando o custo de processamento das mensagens é desigual.
+ * <p>
+ * Os despachantes recebem as mensagens do buffer, que devolve a confirmação do slot assim que a mensagem sai dele;
+ * a contrapressão passa a vir das filas locais limitadas do {@link WorkStealingPool}. Cada worker processa as
+ * mensagens no seu próprio ritmo e confirma cada uma no journal ao terminar, de modo que uma mensagem ainda nas
+ * filas locais volta a ser entregue após um reinício.
+ */
+public final class ConsumerPool {
+    private static final int LOCAL_CAPACITY = 16; // Mensagens na fila local de cada worker
+
+    private final BlockingQueueBuffer buffer;
+    private final WorkStealingPool pool;
+    private final RatePacer[] pacers; // Um por worker
+    private final Message[] processed; // Uma por worker, usada para confirmar no journal
+    private final ThreadLocal<Message> received = ThreadLocal.withInitial(Message::new); // Por despachante
+
+    /**
+     * Construtor da classe ConsumerPool. Nenhuma thread é iniciada antes de {@link #start(ExecutionMode)}.
+     * @param buffer Buffer de mensagens de onde o pool retira itens.
+     * @param workers Quantidade de workers processando mensagens.
+     * @param dispatchers Quantidade de threads recebendo mensagens do buffer.
+     * @param pacing Ritmo de processamento de cada worker.
+     * @throws IllegalArgumentException se a quantidade de workers ou de despachantes não for positiva.
+     */
+    public ConsumerPool(BlockingQueueBuffer buffer, int workers, int dispatchers, Pacing pacing) {
+        this.buffer = buffer;
+        this.pool = new WorkStealingPool("message-pool", workers, LOCAL_CAPACITY, dispatchers, this::receive,
+                this::process);
+        this.pacers = new RatePacer[workers];
+        this.processed = new Message[workers];
+        for (int i = 0; i < workers; i++) {
+            pacers[i] = pacing.newPacer();
+            processed[i] = new Message();
+        }
+    }
+
+    private boolean receive(WorkItem into) throws InterruptedException {
+        Message message = received.get();
+        buffer.receiveMessage(message);
+        into.set(message.getPayload(), message.getTimestamp(), message.getSequenceId());
+        return true;
+    }
+
+    private void process(int worker, WorkItem item) throws InterruptedException {
+        pacers[worker].awaitNext(); // Aguarda o instante do próximo processamento deste worker
+        buffer.getEventLog().publish(EventType.ITEM_PROCESSED, item.getValue(), null);
+        buffer.getEndToEndLatency().recordSince(item.getStamp());
+        Message message = processed[worker];
+        message.set(item.getSequence(), item.getValue(), item.getStamp(), null);
+        buffer.acknowledge(message); // Com journal, a mensagem não é mais entregue após um reinício
+    }
+
+    /**
+     * Inicia os despachantes e os workers.
+     * @param executionMode Tipo das threads criadas.
+     */
+    public void start(ExecutionMode executionMode) {
+        pool.start(executionMode);
+    }
+
+    /**
+     * Interrompe o pool. As mensagens que ainda estiverem nas filas locais não são processadas.
+     */
+    public void stop() {
+        for (RatePacer pacer : pacers) {
+            pacer.cancel();
+        }
+        pool.stop();
+    }
+
+    /**
+     * Aguarda o término das threads do pool.
+     * Pré-condição: stop() deve ter sido chamado.
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        pool.awaitTermination();
+    }
+
+    /**
+     * Retorna as métricas de cada worker.
+     * @return Uma lista com um elemento por worker, na ordem dos índices.
+     */
+    public List<WorkStealingPool.WorkerStats> getWorkerStats() {
+        return pool.getWorkerStats();
+    }
+}
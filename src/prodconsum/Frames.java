@@ -0,0 +1,78 @@
+package prodconsum;
+
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+
+/**
+ * Formato dos quadros trocados entre {@link MessageSender} e {@link MessageReceiver}.
+ * Cada quadro começa com o tamanho do restante em bytes ({@code int}), seguido do tipo ({@code byte}) e do corpo:
+ * <ul>
+ *     <li>{@link #DATA}: conteúdo da mensagem ({@code long}) e instante de origem ({@code long});</li>
+ *     <li>{@link #CREDIT}: quantidade de confirmações concedidas ao transmissor ({@code int}).</li>
+ * </ul>
+ * Os inteiros seguem a ordem de bytes padrão de {@link ByteBuffer} (big-endian).
+ */
+final class Frames {
+    static final byte DATA = 1;
+    static final byte CREDIT = 2;
+
+    private static final int LENGTH_BYTES = Integer.BYTES;
+    private static final int DATA_LENGTH = 1 + 2 * Long.BYTES;
+    private static final int CREDIT_LENGTH = 1 + Integer.BYTES;
+
+    /** Bytes de um quadro DATA, incluindo o tamanho. */
+    static final int DATA_SIZE = LENGTH_BYTES + DATA_LENGTH;
+    /** Bytes de um quadro CREDIT, incluindo o tamanho. */
+    static final int CREDIT_SIZE = LENGTH_BYTES + CREDIT_LENGTH;
+    /** Tamanho dos buffers diretos de leitura e escrita de cada conexão. */
+    static final int BUFFER_BYTES = 64 * 1024;
+
+    private Frames() {
+    }
+
+    /**
+     * Escreve um quadro DATA.
+     * Pré-condição: {@code out} deve ter ao menos {@link #DATA_SIZE} bytes livres.
+     */
+    static void putData(ByteBuffer out, long payload, long timestamp) {
+        out.putInt(DATA_LENGTH).put(DATA).putLong(payload).putLong(timestamp);
+    }
+
+    /**
+     * Escreve um quadro CREDIT.
+     * Pré-condição: {@code out} deve ter ao menos {@link #CREDIT_SIZE} bytes livres.
+     */
+    static void putCredit(ByteBuffer out, int credits) {
+        out.putInt(CREDIT_LENGTH).put(CREDIT).putInt(credits);
+    }
+
+    /**
+     * Avança sobre o cabeçalho do próximo quadro, se ele já estiver completo na área legível de {@code in}.
+     * A posição fica no início do corpo; se o quadro estiver incompleto, a posição não muda.
+     * @param in Buffer em modo de leitura.
+     * @return O tipo do quadro, ou 0 se ainda não houver um quadro completo.
+     * @throws IOException se o tipo for desconhecido ou o tamanho não corresponder ao tipo.
+     */
+    static byte next(ByteBuffer in) throws IOException {
+        if (in.remaining() < LENGTH_BYTES + 1) {
+            return 0;
+        }
+        int start = in.position();
+        int length = in.getInt(start);
+        byte type = in.get(start + LENGTH_BYTES);
+        int expected = switch (type) {
+            case DATA -> DATA_LENGTH;
+            case CREDIT -> CREDIT_LENGTH;
+            default -> throw new ProtocolException("Tipo de quadro desconhecido: " + type);
+        };
+        if (length != expected) {
+            throw new ProtocolException("Tamanho inválido para o quadro " + type + ": " + length);
+        }
+        if (in.remaining() < LENGTH_BYTES + length) {
+            return 0;
+        }
+        in.position(start + LENGTH_BYTES + 1);
+        return type;
+    }
+}
@@ -0,0 +1,97 @@
+package prodconsum;
+
+/**
+ * Classe Message que representa uma mensagem trocada pelo {@link BlockingQueueBuffer}.
+ * As mensagens são objetos reutilizáveis: o buffer preenche slots pré-alocados no envio e copia os campos para
+ * uma mensagem do consumidor no recebimento, de modo que a troca de mensagens tipadas não aloca objetos.
+ * O texto é opcional e só existe para mensagens enviadas pela API de strings.
+ */
+public final class Message {
+    private static final String TEXT_PREFIX = "Message containing Item ";
+
+    private long sequenceId;
+    private long payload;
+    private long timestamp;
+    private String text;
+
+    /**
+     * Construtor da classe Message. Cria uma mensagem vazia, a ser preenchida pelo buffer.
+     */
+    public Message() {
+    }
+
+    /**
+     * Preenche todos os campos da mensagem.
+     * @param sequenceId Número de sequência atribuído pelo buffer no envio.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param timestamp Instante do envio, em nanossegundos de {@link System#nanoTime()}.
+     * @param text Texto da mensagem, ou null para mensagens tipadas.
+     */
+    void set(long sequenceId, long payload, long timestamp, String text) {
+        this.sequenceId = sequenceId;
+        this.payload = payload;
+        this.timestamp = timestamp;
+        this.text = text;
+    }
+
+    /**
+     * Copia os campos de outra mensagem.
+     * @param source Mensagem de origem.
+     */
+    void copyFrom(Message source) {
+        set(source.sequenceId, source.payload, source.timestamp, source.text);
+    }
+
+    /**
+     * Descarta a referência ao texto, para que o slot não o retenha até a próxima volta do buffer.
+     */
+    void clearText() {
+        text = null;
+    }
+
+    /**
+     * Retorna o número de sequência atribuído pelo buffer, na ordem global de envio.
+     * @return Número de sequência da mensagem.
+     */
+    public long getSequenceId() {
+        return sequenceId;
+    }
+
+    /**
+     * Retorna o conteúdo numérico da mensagem (o identificador do item, no caso do {@link Producer}).
+     * @return Conteúdo da mensagem.
+     */
+    public long getPayload() {
+        return payload;
+    }
+
+    /**
+     * Retorna o instante do envio.
+     * @return Instante do envio, em nanossegundos de {@link System#nanoTime()}.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Verifica se a mensagem foi enviada com texto.
+     * @return true se a mensagem possui texto.
+     */
+    public boolean hasText() {
+        return text != null;
+    }
+
+    /**
+     * Retorna o texto da mensagem. Para mensagens tipadas, o texto é montado a partir do conteúdo;
+     * use apenas fora do caminho crítico, pois essa montagem aloca uma nova string.
+     * @return O texto da mensagem.
+     */
+    public String getText() {
+        return text != null ? text : TEXT_PREFIX + payload;
+    }
+
+    @Override
+    public String toString() {
+        return getText();
+    }
+}
@@ -0,0 +1,560 @@
+package prodconsum;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Journal de escrita antecipada das mensagens do {@link BlockingQueueBuffer}, para entrega pelo menos uma vez
+ * mesmo que a JVM termine com mensagens no buffer.
+ * <p>
+ * Cada envio copia um registro para um buffer em memória e retorna sem aguardar o disco, mesmo com o lote cheio:
+ * o buffer cresce até a próxima troca, e volta ao tamanho normal depois de gravado. Uma única thread de escrita grava o buffer
+ * acumulado no segmento atual e chama {@code force} uma vez para todo o lote (group commit). Depois de acordar,
+ * a thread espera o tempo de linger configurado para que outros envios entrem no mesmo lote, trocando um pouco
+ * de latência por muito menos fsyncs. Quem envia aguarda com {@link #awaitDurable(long)} até que o seu registro
+ * esteja no disco.
+ * <p>
+ * As confirmações dos consumidores avançam um checkpoint: a menor sequência ainda não confirmada. Confirmações
+ * fora de ordem ficam registradas até que as anteriores cheguem. O checkpoint é gravado pela mesma thread e os
+ * segmentos cujas mensagens estão todas confirmadas são apagados. Na abertura, os segmentos são lidos e as
+ * mensagens a partir do checkpoint ficam disponíveis em {@link #getRecoveredMessages()}; um registro incompleto
+ * no fim do último segmento (escrita interrompida) é descartado.
+ * <p>
+ * Formato de cada registro: tamanho total (int), sequência (long), conteúdo (long), tamanho do texto em bytes
+ * (int, -1 sem texto), texto em UTF-8 e o CRC32C de todos os campos anteriores (int).
+ */
+public final class MessageJournal implements AutoCloseable {
+    private static final int WRITE_BUFFER_BYTES = 1 << 20; // Tamanho normal do lote entre dois fsyncs
+    private static final int RECORD_OVERHEAD = 4 + 8 + 8 + 4 + 4;
+    private static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+    private static final int ACK_COMPACT_BITS = 1 << 16; // Bits já cobertos pelo checkpoint antes de compactar
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * Segmento do journal: um arquivo cujo primeiro registro tem a sequência indicada.
+     */
+    private record Segment(long firstSequence, Path path) {
+    }
+
+    private final Path directory;
+    private final long lingerNanos;
+    private final long segmentBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pending = lock.newCondition(); // Sinalizada quando há registros ou checkpoint a gravar
+    private final Condition flushed = lock.newCondition(); // Sinalizada ao fim de cada lote gravado
+    private final CRC32C crc = new CRC32C(); // Protegido pelo lock
+    private ByteBuffer active = ByteBuffer.allocate(WRITE_BUFFER_BYTES); // Recebe os registros novos
+    private ByteBuffer flushing = ByteBuffer.allocate(WRITE_BUFFER_BYTES); // Gravado pela thread de escrita
+    private long appendedSequence; // Última sequência copiada para o buffer
+    private long durableSequence; // Última sequência gravada com fsync
+    private long checkpoint; // Menor sequência ainda não confirmada
+    private long persistedCheckpoint; // Último checkpoint gravado com fsync
+    private BitSet acknowledged = new BitSet(); // Bit i: sequência ackOrigin + i confirmada
+    private long ackOrigin;
+    private IOException failure;
+    private boolean closed;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>(); // Protegido pelo lock
+    private final FileChannel checkpointChannel;
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(16);
+    private FileChannel segmentChannel;
+    private final List<Message> recoveredMessages;
+    private final long nextSequence;
+    private final Thread flusher;
+
+    /**
+     * Construtor da classe MessageJournal com segmentos de 64 MiB.
+     * @param directory Diretório do journal; criado se não existir.
+     * @param lingerMicros Tempo que a thread de escrita espera por mais envios antes de cada fsync, em
+     *                     microssegundos; 0 grava assim que houver registros.
+     * @throws IOException se o diretório ou os segmentos não puderem ser lidos ou criados.
+     */
+    public MessageJournal(Path directory, long lingerMicros) throws IOException {
+        this(directory, lingerMicros, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Construtor da classe MessageJournal. Abre o journal existente no diretório, recupera as mensagens ainda
+     * não confirmadas e inicia a thread de escrita.
+     * Pré-condição: apenas um processo usa o diretório.
+     * @param directory Diretório do journal; criado se não existir.
+     * @param lingerMicros Tempo que a thread de escrita espera por mais envios antes de cada fsync, em
+     *                     microssegundos; 0 grava assim que houver registros.
+     * @param segmentBytes Tamanho a partir do qual um novo segmento é iniciado.
+     * @throws IllegalArgumentException se o linger for negativo ou o tamanho do segmento não for positivo.
+     * @throws IOException se o diretório ou os segmentos não puderem ser lidos ou criados, ou se um segmento
+     *                     anterior ao último estiver corrompido.
+     */
+    public MessageJournal(Path directory, long lingerMicros, long segmentBytes) throws IOException {
+        if (lingerMicros < 0 || segmentBytes <= 0) {
+            throw new IllegalArgumentException("Linger deve ser não negativo e o segmento deve ter tamanho positivo.");
+        }
+        this.directory = directory;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long storedCheckpoint = readCheckpoint();
+            List<Message> recovered = new ArrayList<>();
+            long lastSequence = recover(storedCheckpoint, recovered);
+            recoveredMessages = Collections.unmodifiableList(recovered);
+            nextSequence = Math.max(lastSequence + 1, storedCheckpoint);
+            appendedSequence = nextSequence - 1;
+            durableSequence = nextSequence - 1;
+            checkpoint = storedCheckpoint;
+            persistedCheckpoint = storedCheckpoint;
+            ackOrigin = storedCheckpoint;
+            openSegment(nextSequence);
+        } catch (IOException | RuntimeException e) {
+            checkpointChannel.close();
+            if (segmentChannel != null) {
+                segmentChannel.close();
+            }
+            throw e;
+        }
+        flusher = new Thread(this::flushLoop, "message-journal-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Lê o checkpoint gravado. Um arquivo vazio ou inválido equivale ao checkpoint 0, o que apenas faz com que
+     * mensagens já confirmadas sejam entregues de novo.
+     */
+    private long readCheckpoint() throws IOException {
+        checkpointBuffer.clear();
+        while (checkpointBuffer.hasRemaining()) {
+            if (checkpointChannel.read(checkpointBuffer, checkpointBuffer.position()) < 0) {
+                return 0;
+            }
+        }
+        checkpointBuffer.flip();
+        long value = checkpointBuffer.getLong();
+        return checkpointBuffer.getLong() == ~value && value >= 0 ? value : 0;
+    }
+
+    /**
+     * Lê todos os segmentos em ordem, guardando as mensagens a partir do checkpoint. Um registro inválido no fim
+     * do último segmento é descartado truncando o arquivo.
+     * @return A última sequência encontrada, ou -1 se não houver registros.
+     */
+    private long recover(long storedCheckpoint, List<Message> recovered) throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long first = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length()));
+                    found.add(new Segment(first, file));
+                } catch (NumberFormatException e) {
+                    // Arquivo com nome parecido que não pertence ao journal
+                }
+            }
+        }
+        found.sort((a, b) -> Long.compare(a.firstSequence(), b.firstSequence()));
+
+        long lastSequence = -1;
+        for (int i = 0; i < found.size(); i++) {
+            Segment segment = found.get(i);
+            byte[] data = Files.readAllBytes(segment.path());
+            ByteBuffer in = ByteBuffer.wrap(data);
+            int valid = 0;
+            while (in.remaining() >= RECORD_OVERHEAD) {
+                int start = in.position();
+                int length = in.getInt();
+                if (length < RECORD_OVERHEAD || length > data.length - start) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data, start, length - 4);
+                if ((int) crc.getValue() != in.getInt(start + length - 4)) {
+                    break;
+                }
+                long sequenceId = in.getLong();
+                long payload = in.getLong();
+                int textLength = in.getInt();
+                if (textLength != length - RECORD_OVERHEAD && !(textLength == -1 && length == RECORD_OVERHEAD)) {
+                    break;
+                }
+                if (sequenceId >= storedCheckpoint) {
+                    String text = textLength < 0 ? null
+                            : new String(data, in.position(), textLength, StandardCharsets.UTF_8);
+                    Message message = new Message();
+                    message.set(sequenceId, payload, System.nanoTime(), text);
+                    recovered.add(message);
+                }
+                lastSequence = sequenceId;
+                in.position(start + length);
+                valid = in.position();
+            }
+            if (valid < data.length) {
+                if (i < found.size() - 1) {
+                    throw new IOException("Segmento do journal corrompido: " + segment.path());
+                }
+                try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.WRITE)) {
+                    channel.truncate(valid); // Descarta o registro incompleto da última escrita
+                    channel.force(false);
+                }
+            }
+            segments.addLast(segment);
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Abre o segmento que começa na sequência informada, reaproveitando o último segmento se ele já tiver esse
+     * início (um segmento que ficou sem registros).
+     */
+    private void openSegment(long firstSequence) throws IOException {
+        Segment last;
+        lock.lock();
+        try {
+            last = segments.peekLast();
+        } finally {
+            lock.unlock();
+        }
+        Segment segment = last != null && last.firstSequence() == firstSequence
+                ? last
+                : new Segment(firstSequence, directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX,
+                        firstSequence, SEGMENT_SUFFIX)));
+        segmentChannel = FileChannel.open(segment.path(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        if (segment != last) {
+            forceDirectory();
+            lock.lock();
+            try {
+                segments.addLast(segment);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Grava a entrada de diretório de um segmento novo. Nem todos os sistemas permitem abrir um diretório;
+     * nesses casos a entrada fica a cargo do sistema de arquivos.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Sem suporte a fsync de diretório
+        }
+    }
+
+    /**
+     * Retorna as mensagens não confirmadas encontradas na abertura, na ordem de envio.
+     * @return Lista imutável de mensagens recuperadas; o instante de cada uma é o momento da recuperação.
+     */
+    public List<Message> getRecoveredMessages() {
+        return recoveredMessages;
+    }
+
+    /**
+     * Retorna a sequência a ser usada pela próxima mensagem enviada.
+     * @return Sequência seguinte à última encontrada no journal na abertura.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Copia um registro para o buffer do próximo lote, sem gravar no disco e sem aguardar a thread de escrita: se
+     * o lote estiver cheio, o buffer cresce. Pode ser chamado com o lock do {@link BlockingQueueBuffer} adquirido.
+     * Pré-condição: as sequências são informadas em ordem crescente, sem lacunas.
+     * Pós-condição: o registro será gravado pela thread de escrita; use {@link #awaitDurable(long)} para
+     * aguardar o fsync.
+     * @param sequenceId Sequência da mensagem.
+     * @param payload Conteúdo numérico da mensagem.
+     * @param text Texto da mensagem, ou null para mensagens tipadas.
+     * @throws IllegalArgumentException se o registro for maior que o tamanho normal do lote.
+     * @throws IllegalStateException se o journal estiver fechado.
+     * @throws UncheckedIOException se uma gravação anterior tiver falhado.
+     */
+    public void append(long sequenceId, long payload, String text) {
+        byte[] bytes = text == null ? null : text.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_OVERHEAD + (bytes == null ? 0 : bytes.length);
+        if (length > WRITE_BUFFER_BYTES) {
+            throw new IllegalArgumentException("Mensagem maior que o buffer do journal: " + length + " bytes");
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            if (active.remaining() < length) { // Lote cheio: cresce em vez de aguardar a gravação em andamento
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(active.capacity() * 2, active.position() + length));
+                active.flip();
+                active = grown.put(active);
+            }
+            int start = active.position();
+            active.putInt(length).putLong(sequenceId).putLong(payload).putInt(bytes == null ? -1 : bytes.length);
+            if (bytes != null) {
+                active.put(bytes);
+            }
+            crc.reset();
+            crc.update(active.array(), start, length - 4);
+            active.putInt((int) crc.getValue());
+            appendedSequence = sequenceId;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aguarda até que o registro da sequência informada, e todos os anteriores, estejam gravados com fsync.
+     * @param sequenceId Sequência já passada a {@link #append(long, long, String)}.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda; o registro continua no lote.
+     * @throws UncheckedIOException se a gravação falhar.
+     */
+    public void awaitDurable(long sequenceId) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (durableSequence < sequenceId) {
+                checkFailure();
+                flushed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra a confirmação do processamento de uma mensagem. Quando todas as anteriores também estão
+     * confirmadas, o checkpoint avança e será gravado no próximo lote.
+     * Confirmações repetidas ou de mensagens já cobertas pelo checkpoint são ignoradas.
+     * @param sequenceId Sequência da mensagem processada.
+     */
+    public void acknowledge(long sequenceId) {
+        lock.lock();
+        try {
+            if (sequenceId < checkpoint || sequenceId > appendedSequence) {
+                return;
+            }
+            acknowledged.set((int) (sequenceId - ackOrigin));
+            if (sequenceId == checkpoint) {
+                checkpoint = ackOrigin + acknowledged.nextClearBit((int) (checkpoint - ackOrigin));
+                if (checkpoint - ackOrigin >= ACK_COMPACT_BITS) { // Descarta os bits já cobertos
+                    int covered = (int) (checkpoint - ackOrigin);
+                    acknowledged = acknowledged.get(covered, Math.max(covered, acknowledged.length()));
+                    ackOrigin = checkpoint;
+                }
+                pending.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna o checkpoint atual: a menor sequência ainda não confirmada.
+     * @return O checkpoint, que pode ainda não estar gravado no disco.
+     */
+    public long getCheckpoint() {
+        lock.lock();
+        try {
+            return checkpoint;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de segmentos no disco, incluindo o atual.
+     * @return Quantidade de segmentos.
+     */
+    public int getSegmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Laço da thread de escrita: troca os buffers, grava o lote, chama {@code force} uma vez e depois grava o
+     * checkpoint e apaga os segmentos já confirmados.
+     */
+    private void flushLoop() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (!closed && active.position() == 0 && checkpoint == persistedCheckpoint) {
+                        pending.await();
+                    }
+                    if (closed && active.position() == 0 && checkpoint == persistedCheckpoint) {
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (lingerNanos > 0) {
+                    LockSupport.parkNanos(this, lingerNanos); // Reúne mais envios no mesmo fsync
+                }
+
+                ByteBuffer batch;
+                long batchEnd;
+                long checkpointSnapshot;
+                lock.lock();
+                try {
+                    batch = active;
+                    active = flushing;
+                    flushing = batch;
+                    batchEnd = appendedSequence;
+                    checkpointSnapshot = checkpoint;
+                } finally {
+                    lock.unlock();
+                }
+
+                writeBatch(batch, batchEnd);
+                writeCheckpoint(checkpointSnapshot);
+
+                lock.lock();
+                try {
+                    if (flushing.capacity() > WRITE_BUFFER_BYTES) {
+                        flushing = ByteBuffer.allocate(WRITE_BUFFER_BYTES); // Descarta o lote que cresceu
+                    }
+                    durableSequence = batchEnd;
+                    persistedCheckpoint = checkpointSnapshot;
+                    flushed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                failure = e;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Grava um lote no segmento atual com um único fsync e inicia um novo segmento se o atual atingiu o tamanho
+     * configurado.
+     */
+    private void writeBatch(ByteBuffer batch, long batchEnd) throws IOException {
+        batch.flip();
+        if (!batch.hasRemaining()) {
+            batch.clear();
+            return;
+        }
+        while (batch.hasRemaining()) {
+            segmentChannel.write(batch);
+        }
+        batch.clear();
+        segmentChannel.force(false);
+        if (segmentChannel.size() >= segmentBytes) {
+            segmentChannel.close();
+            openSegment(batchEnd + 1);
+        }
+    }
+
+    /**
+     * Grava o checkpoint com fsync e só então apaga os segmentos cujas mensagens estão todas confirmadas.
+     * O checkpoint é seguido do seu complemento, para que uma gravação parcial seja reconhecida na leitura.
+     */
+    private void writeCheckpoint(long value) throws IOException {
+        if (value == persistedCheckpoint) {
+            return;
+        }
+        checkpointBuffer.clear();
+        checkpointBuffer.putLong(value).putLong(~value).flip();
+        while (checkpointBuffer.hasRemaining()) {
+            checkpointChannel.write(checkpointBuffer, checkpointBuffer.position());
+        }
+        checkpointChannel.force(false);
+
+        while (true) {
+            Segment oldest;
+            lock.lock();
+            try {
+                if (segments.size() < 2) {
+                    return;
+                }
+                Segment first = segments.pollFirst();
+                if (segments.peekFirst().firstSequence() > value) { // O segmento ainda tem mensagens pendentes
+                    segments.addFirst(first);
+                    return;
+                }
+                oldest = first;
+            } finally {
+                lock.unlock();
+            }
+            Files.deleteIfExists(oldest.path());
+        }
+    }
+
+    private void checkOpen() {
+        checkFailure();
+        if (closed) {
+            throw new IllegalStateException("Journal fechado: " + directory);
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("Falha ao gravar o journal em " + directory, failure);
+        }
+    }
+
+    /**
+     * Grava os registros e o checkpoint pendentes, encerra a thread de escrita e fecha os arquivos.
+     * Pré-condição: nenhuma thread chama mais {@link #append(long, long, String)}.
+     * @throws IOException se a última gravação falhar ou os arquivos não puderem ser fechados.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pending.signal();
+        } finally {
+            lock.unlock();
+        }
+        boolean interrupted = false;
+        while (flusher.isAlive()) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                interrupted = true; // Termina de gravar antes de repassar a interrupção
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        segmentChannel.close();
+        checkpointChannel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package prodconsum;
+
+import common.ExecutionMode;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lado consumidor do transporte de mensagens por {@link SocketChannel}: aceita conexões de {@link MessageSender}
+ * e coloca as mensagens recebidas em um {@link BlockingQueueBuffer}, de onde os {@link Consumer} retiram
+ * normalmente.
+ * <p>
+ * O receptor concede pela conexão uma confirmação para cada slot livre no buffer, distribuindo-as entre os
+ * transmissores conectados em rodízio; cada mensagem recebida usa uma confirmação já concedida e, quando os
+ * consumidores devolvem confirmações ao buffer, o receptor é avisado e concede as novas. Assim nenhum transmissor
+ * envia mais mensagens do que cabem no buffer, como os produtores em processo. Confirmações concedidas a uma
+ * conexão ficam reservadas para ela até serem usadas ou até a conexão fechar.
+ * <p>
+ * Uma única thread de E/S atende todas as conexões sem bloquear, com buffers diretos de leitura e escrita
+ * alocados uma vez por conexão. O instante de origem de cada mensagem vem do transmissor: entre processos na mesma
+ * máquina os instantes de {@link System#nanoTime()} são comparáveis, mas entre máquinas as latências medidas
+ * não têm significado.
+ */
+public final class MessageReceiver {
+    private final BlockingQueueBuffer buffer;
+    private final InetSocketAddress bindAddress;
+    private final List<Connection> connections = new ArrayList<>(); // Usada apenas pela thread de E/S
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Runnable onCredit = this::onCredit; // Mesma instância para remover o ouvinte
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean running;
+    private int granted; // Confirmações concedidas e ainda não usadas, somando todas as conexões
+    private int nextGrant; // Conexão que recebe a próxima confirmação no rodízio
+    private volatile int connectionCount;
+    private volatile long framesReceived;
+    private volatile IOException failure;
+
+    /**
+     * Conexão com um transmissor.
+     */
+    private static final class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer in = ByteBuffer.allocateDirect(Frames.BUFFER_BYTES);
+        final ByteBuffer out = ByteBuffer.allocateDirect(Frames.BUFFER_BYTES);
+        int granted; // Confirmações concedidas à conexão e ainda não usadas
+        int unsent; // Parte de granted que ainda não coube no buffer de escrita
+        boolean stalled; // Há uma mensagem lida que não coube no buffer; a leitura fica suspensa
+
+        Connection(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Construtor da classe MessageReceiver. Nenhuma porta é aberta antes de {@link #start(ExecutionMode)}.
+     * @param buffer Buffer onde as mensagens recebidas são colocadas.
+     * @param bindAddress Endereço local onde o receptor aceita conexões; porta 0 escolhe uma porta livre.
+     * @throws IllegalArgumentException se o buffer tiver journal, pois a gravação bloquearia a thread de E/S.
+     */
+    public MessageReceiver(BlockingQueueBuffer buffer, InetSocketAddress bindAddress) {
+        if (buffer.hasJournal()) {
+            throw new IllegalArgumentException("O receptor não aceita buffers com journal.");
+        }
+        this.buffer = buffer;
+        this.bindAddress = bindAddress;
+    }
+
+    /**
+     * Abre a porta e inicia a thread de E/S.
+     * @param executionMode Tipo da thread criada.
+     * @throws IOException se a porta não puder ser aberta.
+     * @throws IllegalStateException se o receptor já tiver sido iniciado.
+     */
+    public void start(ExecutionMode executionMode) throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Receptor já iniciado.");
+        }
+        selector = Selector.open();
+        try {
+            server = ServerSocketChannel.open();
+            server.bind(bindAddress);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+        buffer.addCreditListener(onCredit);
+        running = true;
+        thread = executionMode.newThread("message-receiver", this::run);
+        thread.start();
+    }
+
+    /**
+     * Retorna o endereço onde o receptor aceita conexões, com a porta efetivamente escolhida.
+     * Pré-condição: start() deve ter sido chamado.
+     * @return O endereço local.
+     * @throws IOException se o endereço não puder ser lido.
+     */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Acorda a thread de E/S para conceder as confirmações devolvidas ao buffer.
+     * Chamado com o lock do buffer adquirido.
+     */
+    private void onCredit() {
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.attachment() instanceof Connection connection) {
+                        try {
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                        } catch (IOException e) {
+                            close(connection); // A falha de uma conexão não afeta as demais
+                        }
+                    }
+                }
+                resume();
+                grant();
+                flushAll();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            buffer.removeCreditListener(onCredit);
+            for (Connection connection : connections) {
+                closeChannel(connection);
+            }
+            closeQuietly();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.configureBlocking(false);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Connection connection = new Connection(channel, key);
+        key.attach(connection);
+        connections.add(connection);
+        connectionCount = connections.size();
+    }
+
+    /**
+     * Lê da conexão e entrega as mensagens completas ao buffer.
+     * @throws IOException se a conexão for encerrada ou chegar um quadro inválido.
+     */
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            throw new EOFException("Conexão encerrada pelo transmissor.");
+        }
+        deliver(connection);
+    }
+
+    /**
+     * Coloca no buffer as mensagens completas já lidas. Se o buffer recusar uma mensagem (por exemplo, após uma
+     * redução de capacidade), a mensagem fica no buffer de leitura e a leitura da conexão é suspensa até a
+     * próxima devolução de confirmações.
+     * @throws IOException se chegar um quadro inválido ou uma mensagem sem confirmação concedida.
+     */
+    private void deliver(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        in.flip();
+        try {
+            connection.stalled = false;
+            while (true) {
+                int start = in.position();
+                byte type = Frames.next(in);
+                if (type == 0) {
+                    break;
+                }
+                if (type != Frames.DATA) {
+                    throw new ProtocolException("Quadro inesperado do transmissor: " + type);
+                }
+                if (connection.granted == connection.unsent) {
+                    throw new ProtocolException("Mensagem recebida sem confirmação concedida.");
+                }
+                long payload = in.getLong();
+                long timestamp = in.getLong();
+                if (!buffer.trySendMessage(payload, timestamp)) {
+                    in.position(start);
+                    connection.stalled = true;
+                    break;
+                }
+                connection.granted--;
+                granted--;
+                framesReceived++;
+            }
+        } finally {
+            in.compact();
+        }
+    }
+
+    /**
+     * Tenta de novo as conexões suspensas, agora que o buffer pode ter confirmações.
+     */
+    private void resume() {
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection connection = connections.get(i);
+            if (connection.stalled) {
+                try {
+                    deliver(connection);
+                } catch (IOException e) {
+                    close(connection);
+                }
+            }
+        }
+    }
+
+    /**
+     * Distribui em rodízio as confirmações livres do buffer que ainda não foram concedidas.
+     */
+    private void grant() {
+        if (connections.isEmpty()) {
+            return;
+        }
+        int spare = buffer.getAvailableCredits() - granted;
+        for (int i = 0; i < spare; i++) {
+            nextGrant = (nextGrant + 1) % connections.size();
+            Connection connection = connections.get(nextGrant);
+            connection.granted++;
+            connection.unsent++;
+        }
+        if (spare > 0) {
+            granted += spare;
+        }
+    }
+
+    /**
+     * Escreve as confirmações pendentes e envia o que couber de cada conexão.
+     */
+    private void flushAll() {
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection connection = connections.get(i);
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                close(connection);
+            }
+        }
+    }
+
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer out = connection.out;
+        if (connection.unsent > 0 && out.remaining() >= Frames.CREDIT_SIZE) {
+            Frames.putCredit(out, connection.unsent);
+            connection.unsent = 0;
+        }
+        out.flip();
+        if (out.hasRemaining()) {
+            connection.channel.write(out);
+        }
+        boolean pending = out.hasRemaining();
+        out.compact();
+        int interest = connection.stalled ? 0 : SelectionKey.OP_READ;
+        connection.key.interestOps(pending ? interest | SelectionKey.OP_WRITE : interest);
+    }
+
+    /**
+     * Fecha uma conexão e libera as confirmações reservadas para ela.
+     */
+    private void close(Connection connection) {
+        closeChannel(connection);
+        connections.remove(connection);
+        granted -= connection.granted;
+        connectionCount = connections.size();
+    }
+
+    private static void closeChannel(Connection connection) {
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+            // Encerramento: não há mais nada a fazer com a conexão
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            if (server != null) {
+                server.close();
+            }
+            selector.close();
+        } catch (IOException ignored) {
+            // Encerramento: não há mais nada a fazer com a porta
+        }
+    }
+
+    /**
+     * Interrompe a thread de E/S e fecha a porta e as conexões. As mensagens já lidas e ainda não colocadas no
+     * buffer são descartadas.
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Aguarda o término da thread de E/S.
+     * Pré-condição: stop() deve ter sido chamado.
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de transmissores conectados.
+     * @return Conexões abertas.
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * Retorna a quantidade de mensagens recebidas pela rede e colocadas no buffer.
+     * @return Quadros DATA entregues ao buffer.
+     */
+    public long getFramesReceived() {
+        return framesReceived;
+    }
+
+    /**
+     * Retorna o erro que encerrou o receptor.
+     * @return O erro de E/S, ou null se o receptor não falhou.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+}
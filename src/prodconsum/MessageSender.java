@@ -0,0 +1,221 @@
+package prodconsum;
+
+import common.ExecutionMode;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lado produtor do transporte de mensagens por {@link SocketChannel}: retira as mensagens de um
+ * {@link BlockingQueueBuffer} local, onde os {@link Producer} enviam normalmente, e as transmite a um
+ * {@link MessageReceiver}, possivelmente em outro processo.
+ * <p>
+ * As confirmações viajam pela conexão: o receptor concede uma confirmação para cada slot livre no seu buffer, e o
+ * transmissor só retira do buffer local as mensagens que pode enviar. Com o receptor cheio, o buffer local também
+ * enche e os produtores aguardam como no buffer em processo; a capacidade local é a quantidade de mensagens em
+ * trânsito além das confirmações remotas.
+ * <p>
+ * Uma única thread de E/S atende a conexão sem bloquear: acumula vários quadros no buffer direto de escrita e os
+ * envia juntos, sem aguardar resposta entre eles. Os buffers diretos de leitura e escrita são alocados uma vez e
+ * reutilizados, e nenhum objeto é alocado por mensagem. Com journal no buffer local, a mensagem é confirmada quando
+ * seu quadro é copiado para o buffer de escrita.
+ */
+public final class MessageSender {
+    private final BlockingQueueBuffer buffer;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(Frames.BUFFER_BYTES);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(Frames.BUFFER_BYTES);
+    private final Message message = new Message(); // Usada apenas pela thread de E/S
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final Runnable onMessage = this::onMessage; // Mesma instância para remover o ouvinte
+    private Selector selector;
+    private SocketChannel channel;
+    private SelectionKey key;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile int credits; // Confirmações remotas ainda não usadas; escrito apenas pela thread de E/S
+    private volatile long framesSent;
+    private volatile long creditsReceived;
+    private volatile IOException failure;
+
+    /**
+     * Construtor da classe MessageSender. Nenhuma conexão é aberta antes de
+     * {@link #start(ExecutionMode, InetSocketAddress)}.
+     * @param buffer Buffer local de onde as mensagens são retiradas.
+     */
+    public MessageSender(BlockingQueueBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Conecta ao receptor e inicia a thread de E/S.
+     * @param executionMode Tipo da thread criada.
+     * @param address Endereço do {@link MessageReceiver}.
+     * @throws IOException se a conexão não puder ser aberta.
+     * @throws IllegalStateException se o transmissor já tiver sido iniciado.
+     */
+    public void start(ExecutionMode executionMode, InetSocketAddress address) throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Transmissor já iniciado.");
+        }
+        selector = Selector.open();
+        try {
+            channel = SocketChannel.open(address); // Conexão bloqueante; a troca de quadros não bloqueia
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+            key = channel.register(selector, SelectionKey.OP_READ);
+        } catch (IOException e) {
+            closeQuietly();
+            throw e;
+        }
+        buffer.addMessageListener(onMessage);
+        running = true;
+        thread = executionMode.newThread("message-sender", this::run);
+        thread.start();
+    }
+
+    /**
+     * Acorda a thread de E/S quando chega uma mensagem e há confirmações para enviá-la.
+     * Chamado com o lock do buffer adquirido.
+     */
+    private void onMessage() {
+        if (credits > 0 && wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                if (selector.selectedKeys().remove(key)) {
+                    if (key.isReadable()) {
+                        read();
+                    }
+                }
+                fill();
+                flush();
+            }
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            buffer.removeMessageListener(onMessage);
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Lê os quadros CREDIT recebidos e soma as confirmações concedidas.
+     * @throws IOException se a conexão for encerrada ou chegar um quadro inválido.
+     */
+    private void read() throws IOException {
+        if (channel.read(in) < 0) {
+            throw new EOFException("Conexão encerrada pelo receptor.");
+        }
+        in.flip();
+        try {
+            byte type;
+            while ((type = Frames.next(in)) != 0) {
+                if (type != Frames.CREDIT) {
+                    throw new ProtocolException("Quadro inesperado do receptor: " + type);
+                }
+                int granted = in.getInt();
+                credits += granted;
+                creditsReceived += granted;
+            }
+        } finally {
+            in.compact();
+        }
+    }
+
+    /**
+     * Copia para o buffer de escrita quantas mensagens locais as confirmações e o espaço permitirem.
+     */
+    private void fill() {
+        while (credits > 0 && out.remaining() >= Frames.DATA_SIZE && buffer.tryReceiveMessage(message)) {
+            Frames.putData(out, message.getPayload(), message.getTimestamp());
+            buffer.acknowledge(message); // Com journal, a mensagem não é mais entregue após um reinício
+            credits--;
+            framesSent++;
+        }
+    }
+
+    /**
+     * Envia o que couber do buffer de escrita e pede aviso de escrita enquanto sobrar algo.
+     * @throws IOException se a escrita falhar.
+     */
+    private void flush() throws IOException {
+        out.flip();
+        if (out.hasRemaining()) {
+            channel.write(out);
+        }
+        boolean pending = out.hasRemaining();
+        out.compact();
+        key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void closeQuietly() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            selector.close();
+        } catch (IOException ignored) {
+            // Encerramento: não há mais nada a fazer com a conexão
+        }
+    }
+
+    /**
+     * Interrompe a thread de E/S e fecha a conexão. As mensagens que ainda estiverem no buffer de escrita
+     * não são enviadas.
+     */
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Aguarda o término da thread de E/S.
+     * Pré-condição: stop() deve ter sido chamado.
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        if (thread != null) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Retorna a quantidade de quadros DATA copiados para envio.
+     * @return Mensagens transmitidas.
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * Retorna o total de confirmações concedidas pelo receptor.
+     * @return Confirmações recebidas desde a conexão.
+     */
+    public long getCreditsReceived() {
+        return creditsReceived;
+    }
+
+    /**
+     * Retorna o erro que encerrou a conexão.
+     * @return O erro de E/S, ou null se a conexão não falhou.
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+}
@@ -1,49 +1,70 @@
 package prodconsum;
 
+import common.ExecutionMode;
+import common.view.ActivityLogPanel;
+import common.view.DownsampledXYDataset;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.data.category.DefaultCategoryDataset;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.Locale;
 import java.util.Queue;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Classe MessageVisualization fornece a interface gráfica para visualizar o problema Produtor-Consumidor.
  * Exibe gráficos de linha e de barras, o estado do buffer e um log de atividades.
  */
 public class MessageVisualization extends JFrame {
-    private final XYSeries producerSeries;
-    private final XYSeries consumerSeries;
+    private static final int CHART_WINDOW_TICKS = 3600; // Uma hora de atualizações de um segundo
+    private static final int CHART_POINTS_PER_TIER = 600;
+    private static final int MAX_BARS = 60; // Barras mais antigas são removidas do gráfico de barras
+    private static final int LOG_CAPACITY = 10_000; // Linhas mantidas no log de atividades
+
+    private final DownsampledXYDataset lineDataset;
+    private final int producerSeries;
+    private final int consumerSeries;
     private final DefaultCategoryDataset messageProcessedDataset;
     private final JPanel bufferPanel;
-    private final JTextArea logArea;
+    private final ActivityLogPanel logPanel;
+    private final JLabel latencyLabel = new JLabel(" ");
     private int producerCounter = 0;
     private int consumerCounter = 0;
     private int processedMessageCounter = 0;
     private Producer producer;
     private Consumer consumer;
-    private Thread producerThread;
+    private ExecutorService executor;
     private Timer updateTimer;
     private final BlockingQueueBuffer buffer;
+    private final ExecutionMode executionMode;
 
     public MessageVisualization(BlockingQueueBuffer buffer, int bufferCapacity) {
+        this(buffer, bufferCapacity, ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Construtor com seleção do tipo de thread usado pelo produtor e pelo consumidor.
+     * @param buffer Buffer de mensagens compartilhado.
+     * @param bufferCapacity Capacidade do buffer.
+     * @param executionMode Tipo das threads do produtor e do consumidor.
+     */
+    public MessageVisualization(BlockingQueueBuffer buffer, int bufferCapacity, ExecutionMode executionMode) {
         this.buffer = buffer;  // Armazena o buffer como um campo da classe para poder acessá-lo no stopProducerConsumer
+        this.executionMode = executionMode;
 
         setTitle("Message Exchange Visualization");
         setLayout(new BorderLayout());
         setSize(1000, 700);
 
         // Configuração dos gráficos de linha e barras
-        producerSeries = new XYSeries("Producer Messages");
-        consumerSeries = new XYSeries("Consumer Messages");
-        XYSeriesCollection lineDataset = new XYSeriesCollection();
-        lineDataset.addSeries(producerSeries);
-        lineDataset.addSeries(consumerSeries);
+        // Os gráficos guardam uma quantidade limitada de pontos, para sessões longas não acumularem memória
+        lineDataset = new DownsampledXYDataset(CHART_WINDOW_TICKS, CHART_POINTS_PER_TIER);
+        producerSeries = lineDataset.addSeries("Producer Messages");
+        consumerSeries = lineDataset.addSeries("Consumer Messages");
         JFreeChart lineChart = ChartFactory.createXYLineChart(
                 "Message Exchange Over Time",
                 "Time (ms)",
@@ -78,9 +99,8 @@ public class MessageVisualization extends JFrame {
         }
 
         // Área de log para exibir mensagens de atividade
-        logArea = new JTextArea(10, 20);
-        logArea.setEditable(false);
-        JScrollPane logScrollPane = new JScrollPane(logArea);
+        logPanel = new ActivityLogPanel(LOG_CAPACITY);
+        logPanel.setPreferredSize(new Dimension(380, 0));
 
         JPanel chartPanel = new JPanel(new GridLayout(2, 1));
         chartPanel.add(lineChartPanel);
@@ -88,7 +108,7 @@ public class MessageVisualization extends JFrame {
 
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.add(chartPanel, BorderLayout.CENTER);
-        mainPanel.add(logScrollPane, BorderLayout.EAST);
+        mainPanel.add(logPanel, BorderLayout.EAST);
         add(mainPanel, BorderLayout.CENTER);
 
         add(bufferPanel, BorderLayout.SOUTH);
@@ -103,6 +123,7 @@ public class MessageVisualization extends JFrame {
 
         controlPanel.add(startButton);
         controlPanel.add(stopButton);
+        controlPanel.add(latencyLabel);
         add(controlPanel, BorderLayout.NORTH);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -110,22 +131,23 @@ public class MessageVisualization extends JFrame {
     }
 
     private void startProducerConsumer(BlockingQueueBuffer buffer, int bufferCapacity) {
-        if (producerThread == null || !producerThread.isAlive()) {
+        if (executor == null || executor.isTerminated()) {
             // Reinicia os gráficos e contadores
-            producerSeries.clear();
-            consumerSeries.clear();
+            lineDataset.clear();
             producerCounter = 0;
             consumerCounter = 0;
             processedMessageCounter = 0;
             messageProcessedDataset.clear();
+            buffer.getQueueLatency().reset();
+            buffer.getEndToEndLatency().reset();
 
             producer = new Producer(buffer);
             consumer = new Consumer(buffer, bufferCapacity);
-            producerThread = new Thread(producer);
-            Thread consumerThread = new Thread(consumer);
-            producerThread.start();
-            consumerThread.start();
-            logArea.append("Producer and Consumer started.\n");
+            executor = executionMode.newExecutor("message-worker-");
+            executor.execute(producer);
+            executor.execute(consumer);
+            executor.shutdown(); // Nenhuma tarefa nova; o executor termina quando as duas terminarem
+            logPanel.append("Producer and Consumer started.");
 
             // Inicia o Timer quando o produtor e o consumidor começam
             if (updateTimer == null) {
@@ -133,7 +155,7 @@ public class MessageVisualization extends JFrame {
                 updateTimer.start();
             }
         } else {
-            logArea.append("Producer and Consumer are already running.\n");
+            logPanel.append("Producer and Consumer are already running.");
         }
     }
 
@@ -141,7 +163,8 @@ public class MessageVisualization extends JFrame {
         if (producer != null && consumer != null) {
             producer.stop();
             consumer.stop();
-            logArea.append("Producer and Consumer stopped.\n");
+            executor.shutdownNow(); // Interrompe quem estiver aguardando dentro do buffer
+            logPanel.append("Producer and Consumer stopped.");
 
             // Para o Timer quando o produtor e o consumidor param
             if (updateTimer != null) {
@@ -151,7 +174,7 @@ public class MessageVisualization extends JFrame {
 
             // Limpa o buffer
             buffer.clearBuffer();
-            logArea.append("Buffer cleared.\n");
+            logPanel.append("Buffer cleared.");
 
             // Atualiza a interface para refletir o buffer vazio
             updateVisualization(buffer, buffer.getCapacity());
@@ -160,12 +183,15 @@ public class MessageVisualization extends JFrame {
 
     private void updateVisualization(BlockingQueueBuffer buffer, int bufferCapacity) {
         // Atualiza gráfico de mensagens do produtor e consumidor
-        producerSeries.add(producerCounter++, buffer.getProducerMessageCount());
-        consumerSeries.add(consumerCounter++, buffer.getConsumerMessageCount());
+        lineDataset.add(producerSeries, producerCounter++, buffer.getProducerMessageCount());
+        lineDataset.add(consumerSeries, consumerCounter++, buffer.getConsumerMessageCount());
 
         int processedMessages = buffer.getConsumerMessageCount();
         processedMessageCounter += processedMessages;
         messageProcessedDataset.addValue(processedMessageCounter, "Messages", String.valueOf(consumerCounter));
+        if (messageProcessedDataset.getColumnCount() > MAX_BARS) {
+            messageProcessedDataset.removeColumn(0);
+        }
 
         // Atualiza visualização do estado do buffer
         Queue<String> messageQueue = buffer.getMessageQueue();
@@ -188,17 +214,18 @@ public class MessageVisualization extends JFrame {
             square.setBackground(Color.LIGHT_GRAY);
         }
 
+        // Atualiza o resumo de latência de ponta a ponta
+        latencyLabel.setText("Latency: " + buffer.getEndToEndLatency().summary().toMicrosText());
+
         // Adiciona mensagens ao log
-        String logMessages = buffer.getAllLogs();
-        if (!logMessages.isEmpty()) {
-            logArea.append(logMessages + "\n");
-        }
+        buffer.drainLogsTo(logPanel::append);
     }
 
     /**
      * Método principal para inicializar a interface gráfica.
      * Solicita a entrada do usuário para definir o tamanho do buffer.
-     * @param args Argumentos da linha de comando.
+     * @param args Argumentos da linha de comando; o primeiro, se presente, escolhe o tipo de thread
+     *             ({@code platform} ou {@code virtual}).
      */
     public static void main(String[] args) {
         String input = JOptionPane.showInputDialog("Enter buffer size:");
@@ -211,7 +238,11 @@ public class MessageVisualization extends JFrame {
             bufferCapacity = 5;
         }
 
+        ExecutionMode executionMode = args.length > 0
+                ? ExecutionMode.valueOf(args[0].toUpperCase(Locale.ROOT))
+                : ExecutionMode.PLATFORM;
+
         BlockingQueueBuffer buffer = new BlockingQueueBuffer(bufferCapacity);
-        new MessageVisualization(buffer, bufferCapacity);
+        new MessageVisualization(buffer, bufferCapacity, executionMode);
     }
 }
@@ -1,5 +1,12 @@
 package prodconsum;
 
+import common.EventType;
+import common.OfferResult;
+import common.Pacing;
+import common.RatePacer;
+
+import java.util.concurrent.TimeUnit;
+
 /**
  * Classe Producer que representa o produtor no problema Produtor-Consumidor.
  * O produtor gera mensagens e as adiciona ao buffer, respeitando o limite de capacidade.
@@ -7,50 +14,97 @@ package prodconsum;
 public class Producer implements Runnable {
     private final BlockingQueueBuffer buffer;
     private volatile boolean running = true;
-    private final Object lock = new Object();
+    private final RatePacer pacer; // Usado apenas pela thread que executa run()
+    private final long offerTimeoutNanos; // Negativo: aguarda espaço sem limite com sendMessage
 
     /**
      * Construtor da classe Producer.
      * @param buffer Buffer de mensagens onde o produtor irá adicionar itens.
      */
     public Producer(BlockingQueueBuffer buffer) {
+        this(buffer, 500);
+    }
+
+    /**
+     * Construtor da classe Producer com intervalo de produção configurável.
+     * @param buffer Buffer de mensagens onde o produtor irá adicionar itens.
+     * @param delayMillis Intervalo entre duas produções, em milissegundos; 0 desativa a pausa.
+     */
+    public Producer(BlockingQueueBuffer buffer, long delayMillis) {
+        this(buffer, Pacing.everyMillis(delayMillis));
+    }
+
+    /**
+     * Construtor da classe Producer com ritmo de produção em mensagens por segundo.
+     * @param buffer Buffer de mensagens onde o produtor irá adicionar itens.
+     * @param pacing Ritmo de produção. No laço aberto, cada mensagem leva como instante de origem o instante
+     *               pretendido de envio, e o tempo aguardando espaço no buffer entra nas latências medidas.
+     */
+    public Producer(BlockingQueueBuffer buffer, Pacing pacing) {
         this.buffer = buffer;
+        this.pacer = pacing.newPacer();
+        this.offerTimeoutNanos = -1;
+    }
+
+    /**
+     * Construtor da classe Producer que desiste de esperar por espaço: cada mensagem é enviada com
+     * {@link BlockingQueueBuffer#offerMessage(long, long, long, TimeUnit)} e, com o buffer cheio ao fim do tempo,
+     * segue a política de estouro do buffer. Quando a política devolve a mensagem, o próprio produtor a processa.
+     * @param buffer Buffer de mensagens onde o produtor irá adicionar itens.
+     * @param pacing Ritmo de produção.
+     * @param offerTimeout Tempo máximo de espera por espaço a cada mensagem; 0 não aguarda.
+     * @param unit Unidade do tempo de espera.
+     * @throws IllegalArgumentException se o tempo de espera for negativo.
+     */
+    public Producer(BlockingQueueBuffer buffer, Pacing pacing, long offerTimeout, TimeUnit unit) {
+        if (offerTimeout < 0) {
+            throw new IllegalArgumentException("Tempo de espera não pode ser negativo: " + offerTimeout);
+        }
+        this.buffer = buffer;
+        this.pacer = pacing.newPacer();
+        this.offerTimeoutNanos = unit.toNanos(offerTimeout);
     }
 
     /**
      * Método para parar a execução do produtor.
-     * Define o estado de execução para false e notifica quaisquer threads em espera.
+     * Define o estado de execução para false e encerra a espera pelo próximo instante do ritmo.
      */
     public void stop() {
         running = false;
-        synchronized (lock) {
-            lock.notifyAll();
-        }
+        pacer.cancel();
     }
 
     /**
      * Método principal do produtor, que gera mensagens e as envia ao buffer.
-     * Se o buffer estiver cheio, o produtor aguarda até que haja espaço disponível.
+     * Se o buffer estiver cheio, o produtor aguarda até que haja espaço disponível, ou até o fim do tempo de
+     * espera quando foi criado com um.
      */
     @Override
     public void run() {
-        int messageId = 0;
+        long messageId = 0;
         try {
             while (running) {
-                String item = "Item " + messageId++;
-                System.out.println("Producer: Generated item -> " + item);
-
-                synchronized (lock) {
-                    while (buffer.isFull()) {
-                        lock.wait();
-                    }
+                long intended = pacer.awaitNext(); // Aguarda o instante da próxima produção
+                if (!running) {
+                    break;
                 }
+                buffer.getEventLog().publish(EventType.ITEM_GENERATED, messageId, null);
 
-                String message = "Message containing " + item;
-                buffer.sendMessage(message);
-
-                synchronized (lock) {
-                    lock.wait(500);
+                // sendMessage aguarda sozinho enquanto o buffer estiver cheio; esperar aqui no lock
+                // privado deixaria o produtor parado para sempre, pois ninguém o notifica.
+                // A mensagem tipada carrega apenas o identificador do item, sem montar strings
+                if (offerTimeoutNanos >= 0) {
+                    long stamp = pacer.isOpenLoop() ? intended : System.nanoTime();
+                    if (buffer.offerMessage(messageId, stamp, offerTimeoutNanos, TimeUnit.NANOSECONDS)
+                            == OfferResult.RUN_BY_CALLER) {
+                        buffer.getEventLog().publish(EventType.ITEM_PROCESSED, messageId, null);
+                        buffer.getEndToEndLatency().recordSince(stamp);
+                    }
+                    messageId++;
+                } else if (pacer.isOpenLoop()) {
+                    buffer.sendMessage(messageId++, intended);
+                } else {
+                    buffer.sendMessage(messageId++);
                 }
             }
         } catch (InterruptedException e) {
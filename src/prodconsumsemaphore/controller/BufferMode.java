@@ -0,0 +1,51 @@
+package prodconsumsemaphore.controller;
+
+/**
+ * Modos de sincronização disponíveis para o buffer do {@link ConsumerProducer}.
+ * Cada modo documenta a garantia de ordem que oferece aos consumidores.
+ */
+public enum BufferMode {
+    /**
+     * Buffer {@link FIFO} protegido pelos semáforos empty, full e mutex.
+     * Aceita qualquer número de produtores e consumidores. Como toda inserção e remoção passa pelo mutex,
+     * existe uma ordem total: os itens são removidos exatamente na ordem em que foram inseridos.
+     */
+    SEMAPHORE,
+
+    /**
+     * Buffer {@link SpscFIFO} sem bloqueio, válido apenas para um produtor e um consumidor.
+     * O consumidor recebe os itens exatamente na ordem em que o produtor os inseriu.
+     */
+    SPSC,
+
+    /**
+     * Buffer {@link MpmcFIFO} sem bloqueio para vários produtores e vários consumidores.
+     * Os slots são reservados em ordem de cursor, então os itens de um mesmo produtor saem na ordem em que
+     * foram inseridos. Itens de produtores diferentes seguem a ordem das reservas, e consumidores diferentes
+     * podem terminar de processar seus itens fora dessa ordem.
+     */
+    MPMC,
+
+    /**
+     * Buffer {@link MappedFIFO} sem bloqueio em um arquivo mapeado em memória, para um produtor e um consumidor
+     * que podem estar em processos diferentes; cada processo pode ter apenas um dos dois lados.
+     * O consumidor recebe os itens exatamente na ordem em que o produtor os inseriu, inclusive depois de reiniciado.
+     */
+    MAPPED,
+
+    /**
+     * Buffer {@link PriorityFIFO} com várias faixas de prioridade dividindo a mesma capacidade, para vários
+     * produtores e consumidores; o produtor {@code i} insere na faixa {@code i % faixas}.
+     * Os itens de uma mesma faixa saem na ordem em que foram inseridos. Entre faixas não há ordem: a remoção
+     * alterna entre elas por deficit round-robin, conforme os pesos.
+     */
+    PRIORITY,
+
+    /**
+     * Buffer {@link PartitionedFIFO} com uma partição sem bloqueio por consumidor, para vários produtores e
+     * consumidores; cada item vai para a partição do hash da sua chave, e o consumidor {@code i} retira apenas da
+     * partição {@code i}. Os itens de uma mesma chave saem na ordem em que foram inseridos; entre chaves de
+     * partições diferentes não há ordem.
+     */
+    PARTITIONED
+}
@@ -1,19 +1,84 @@
 package prodconsumsemaphore.controller;
 
+import common.CapacityTuner;
+import common.ContentionProfiler;
+import common.ContentionSite;
+import common.ElasticCapacity;
+import common.EventLog;
+import common.EventType;
+import common.ExecutionMode;
+import common.LatencyHistogram;
+import common.OverflowCounters;
+import common.OverflowPolicy;
+import common.Pacing;
+import common.RatePacer;
+import common.StandardWaitStrategy;
+import common.WaitStrategy;
+import common.WorkItem;
+import common.WorkStealingPool;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Classe ConsumerProducer - Gerencia a sincronização e o controle de produção e consumo de itens em um buffer FIFO utilizando semáforos.
+ * Os eventos de produção e consumo são publicados em um {@link EventLog} depois de liberar o mutex, e o ouvinte
+ * os recebe pela thread de escrita do log, fora do caminho crítico.
+ * Quando o buffer está cheio ou vazio, as threads aguardam conforme a {@link WaitStrategy} configurada.
+ * O intervalo entre operações segue um {@link Pacing} com resolução de nanossegundos; no laço aberto a latência
+ * de cada item é medida a partir do instante pretendido de produção.
+ * No modo SEMAPHORE a capacidade do buffer pode mudar durante a execução, manualmente com
+ * {@link #resizeBuffer(int)} ou por um {@link CapacityTuner} ligado com {@link #enableElasticCapacity(ElasticCapacity)}.
+ * Com {@link #enableConsumerPool(int)}, os itens consumidos são processados por um {@link WorkStealingPool}.
+ * Com {@link #setOverflowPolicy(OverflowPolicy, long, TimeUnit)}, os produtores aguardam espaço por um tempo
+ * limitado e depois aplicam a {@link OverflowPolicy}, em vez de ficarem bloqueados indefinidamente.
+ * As esperas em empty, full, mutex e nos anéis sem bloqueio são informadas ao {@link ContentionProfiler}, com o
+ * tempo de cada thread.
  */
 public class ConsumerProducer {
+    private static final int LOG_CAPACITY = 4096; // Eventos pendentes de entrega no log padrão
+    private static final int POOL_LOCAL_CAPACITY = 16; // Itens na fila local de cada worker do pool
+
+    private final BufferMode mode;
     private final FIFO fifo;
+    private final RingBuffer ring;
+    private final PriorityFIFO lanes; // O mesmo buffer que ring no modo PRIORITY; null nos demais
+    private final PartitionedFIFO partitions; // O mesmo buffer que ring no modo PARTITIONED; null nos demais
     private final Semaphore empty;
     private final Semaphore full;
     private final Semaphore mutex;
+    private final WaitStrategy waitStrategy;
     private volatile boolean running = true;
-    private final int producerSpeed; // Velocidade de produção em milissegundos
-    private final int consumerSpeed; // Velocidade de consumo em milissegundos
-    private final SimulationController controller;
+    private final Pacing producerPacing; // Ritmo de cada thread produtora
+    private final Pacing consumerPacing; // Ritmo de cada thread consumidora
+    private final int producerCount;
+    private final int consumerCount;
+    private final SimulationListener controller;
+    private final EventLog eventLog;
+    private final boolean ownsEventLog; // O log padrão é criado aqui e encerrado em stop()
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder producedCount = new LongAdder();
+    private final LongAdder consumedCount = new LongAdder();
+    private final LongAdder producerBlockedCount = new LongAdder(); // Vezes em que o produtor encontrou o buffer cheio
+    private final LongAdder producerBlockedNanos = new LongAdder();
+    private final LongAdder consumerBlockedCount = new LongAdder(); // Vezes em que o consumidor encontrou o buffer vazio
+    private final LongAdder consumerBlockedNanos = new LongAdder();
+    private final LatencyHistogram queueLatency = new LatencyHistogram(); // Da inserção até a remoção do buffer
+    private final LatencyHistogram endToEndLatency = new LatencyHistogram(); // Da inserção até o fim do processamento
+    private final ReentrantLock resizeLock = new ReentrantLock(); // Serializa os redimensionamentos e o ajuste
+    private CapacityTuner capacityTuner; // null sem capacidade adaptativa; protegido por resizeLock
+    private int poolWorkers; // 0 sem pool de consumidores
+    private WorkStealingPool consumerPool; // Criado em start() quando poolWorkers > 0
+    private RatePacer[] poolPacers; // Ritmo de cada worker do pool
+    private OverflowPolicy overflowPolicy; // null: os produtores aguardam espaço sem limite; definido antes de start()
+    private long offerTimeoutNanos; // Espera máxima por espaço antes de aplicar a política
+    private final OverflowCounters overflowCounters = new OverflowCounters();
+    private final ContentionProfiler profiler = ContentionProfiler.global();
+    private final ThreadLocal<StampedItem> poolScratch = ThreadLocal.withInitial(StampedItem::new); // Por despachante
 
     /**
      * Construtor da classe ConsumerProducer.
@@ -21,29 +86,346 @@ public class ConsumerProducer {
      * @param bufferSize     Tamanho do buffer FIFO.
      * @param producerSpeed  Velocidade do produtor (em ms).
      * @param consumerSpeed  Velocidade do consumidor (em ms).
-     * @param controller     Controlador para atualizar a interface da simulação.
+     * @param controller     Ouvinte que recebe os eventos da simulação (por exemplo, o controlador da interface).
+     */
+    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationListener controller) {
+        this(bufferSize, producerSpeed, consumerSpeed, controller, BufferMode.SEMAPHORE);
+    }
+
+    /**
+     * Construtor da classe ConsumerProducer com seleção do modo de sincronização do buffer
+     * e uma única thread produtora e consumidora.
+     *
+     * @param bufferSize     Tamanho do buffer.
+     * @param producerSpeed  Velocidade do produtor (em ms); 0 desativa a pausa entre produções.
+     * @param consumerSpeed  Velocidade do consumidor (em ms); 0 desativa a pausa entre consumos.
+     * @param controller     Ouvinte que recebe os eventos da simulação (por exemplo, o controlador da interface).
+     * @param mode           Modo de sincronização do buffer.
+     */
+    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationListener controller,
+                            BufferMode mode) {
+        this(bufferSize, producerSpeed, consumerSpeed, controller, mode, 1, 1);
+    }
+
+    /**
+     * Construtor completo da classe ConsumerProducer.
+     *
+     * @param bufferSize     Tamanho do buffer.
+     * @param producerSpeed  Velocidade de cada produtor (em ms); 0 desativa a pausa entre produções.
+     * @param consumerSpeed  Velocidade de cada consumidor (em ms); 0 desativa a pausa entre consumos.
+     * @param controller     Ouvinte que recebe os eventos da simulação (por exemplo, o controlador da interface).
+     * @param mode           Modo de sincronização do buffer; veja {@link BufferMode} para as garantias de ordem.
+     * @param producerCount  Quantidade de threads produtoras.
+     * @param consumerCount  Quantidade de threads consumidoras.
+     * @throws IllegalArgumentException se as quantidades forem menores que 1 ou se o modo SPSC
+     *                                  for usado com mais de um produtor ou consumidor.
+     */
+    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationListener controller,
+                            BufferMode mode, int producerCount, int consumerCount) {
+        this(bufferSize, Pacing.everyMillis(producerSpeed), Pacing.everyMillis(consumerSpeed), controller, mode,
+                producerCount, consumerCount,
+                new EventLog(LOG_CAPACITY, EventLog.Level.TRACE, EventLog.OverflowPolicy.OVERWRITE_OLDEST), true,
+                defaultWaitStrategy(mode));
+    }
+
+    /**
+     * Construtor completo da classe ConsumerProducer com log de eventos fornecido pelo chamador.
+     *
+     * @param bufferSize     Tamanho do buffer.
+     * @param producerSpeed  Velocidade de cada produtor (em ms); 0 desativa a pausa entre produções.
+     * @param consumerSpeed  Velocidade de cada consumidor (em ms); 0 desativa a pausa entre consumos.
+     * @param controller     Ouvinte que recebe as linhas do log de eventos.
+     * @param mode           Modo de sincronização do buffer; veja {@link BufferMode} para as garantias de ordem.
+     * @param producerCount  Quantidade de threads produtoras.
+     * @param consumerCount  Quantidade de threads consumidoras.
+     * @param eventLog       Log de eventos; use {@link EventLog#off()} para desligá-lo. Não é encerrado por stop().
+     * @throws IllegalArgumentException se as quantidades forem menores que 1 ou se o modo SPSC
+     *                                  for usado com mais de um produtor ou consumidor.
+     */
+    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationListener controller,
+                            BufferMode mode, int producerCount, int consumerCount, EventLog eventLog) {
+        this(bufferSize, producerSpeed, consumerSpeed, controller, mode, producerCount, consumerCount, eventLog,
+                defaultWaitStrategy(mode));
+    }
+
+    /**
+     * Construtor completo da classe ConsumerProducer com log de eventos e estratégia de espera fornecidos
+     * pelo chamador.
+     *
+     * @param bufferSize     Tamanho do buffer.
+     * @param producerSpeed  Velocidade de cada produtor (em ms); 0 desativa a pausa entre produções.
+     * @param consumerSpeed  Velocidade de cada consumidor (em ms); 0 desativa a pausa entre consumos.
+     * @param controller     Ouvinte que recebe as linhas do log de eventos.
+     * @param mode           Modo de sincronização do buffer; veja {@link BufferMode} para as garantias de ordem.
+     * @param producerCount  Quantidade de threads produtoras.
+     * @param consumerCount  Quantidade de threads consumidoras.
+     * @param eventLog       Log de eventos; use {@link EventLog#off()} para desligá-lo. Não é encerrado por stop().
+     * @param waitStrategy   Estratégia de espera quando o buffer está cheio ou vazio. No modo SEMAPHORE, estratégias
+     *                       não bloqueantes tentam os semáforos em laço em vez de estacionar em {@code acquire}.
+     * @throws IllegalArgumentException se as quantidades forem menores que 1 ou se o modo SPSC
+     *                                  for usado com mais de um produtor ou consumidor.
+     */
+    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationListener controller,
+                            BufferMode mode, int producerCount, int consumerCount, EventLog eventLog,
+                            WaitStrategy waitStrategy) {
+        this(bufferSize, Pacing.everyMillis(producerSpeed), Pacing.everyMillis(consumerSpeed), controller, mode,
+                producerCount, consumerCount, eventLog, waitStrategy);
+    }
+
+    /**
+     * Construtor completo da classe ConsumerProducer com o ritmo de produtores e consumidores em operações por
+     * segundo, sem o limite de 1000 operações por segundo das velocidades em milissegundos.
+     *
+     * @param bufferSize     Tamanho do buffer.
+     * @param producerPacing Ritmo de cada produtor; {@link Pacing#unlimited()} produz sem pausa. No laço aberto,
+     *                       o instante pretendido de cada produção é a origem das latências do item.
+     * @param consumerPacing Ritmo de cada consumidor; {@link Pacing#unlimited()} consome sem pausa.
+     * @param controller     Ouvinte que recebe as linhas do log de eventos.
+     * @param mode           Modo de sincronização do buffer; veja {@link BufferMode} para as garantias de ordem.
+     * @param producerCount  Quantidade de threads produtoras.
+     * @param consumerCount  Quantidade de threads consumidoras.
+     * @param eventLog       Log de eventos; use {@link EventLog#off()} para desligá-lo. Não é encerrado por stop().
+     * @param waitStrategy   Estratégia de espera quando o buffer está cheio ou vazio.
+     * @throws IllegalArgumentException se as quantidades forem menores que 1 ou se o modo SPSC
+     *                                  for usado com mais de um produtor ou consumidor.
+     */
+    public ConsumerProducer(int bufferSize, Pacing producerPacing, Pacing consumerPacing,
+                            SimulationListener controller, BufferMode mode, int producerCount, int consumerCount,
+                            EventLog eventLog, WaitStrategy waitStrategy) {
+        this(bufferSize, producerPacing, consumerPacing, controller, mode, producerCount, consumerCount, eventLog,
+                false, waitStrategy);
+    }
+
+    /**
+     * Construtor da classe ConsumerProducer sobre um buffer em arquivo mapeado, compartilhado com outro processo.
+     * Cada processo pode executar apenas o produtor, apenas o consumidor ou ambos.
+     *
+     * @param ring           Buffer mapeado; não é fechado por stop().
+     * @param producerPacing Ritmo do produtor. No laço aberto, o instante pretendido de cada produção é a origem
+     *                       das latências do item.
+     * @param consumerPacing Ritmo do consumidor.
+     * @param controller     Ouvinte que recebe as linhas do log de eventos.
+     * @param producerCount  Quantidade de threads produtoras neste processo: 0 ou 1.
+     * @param consumerCount  Quantidade de threads consumidoras neste processo: 0 ou 1.
+     * @param eventLog       Log de eventos; use {@link EventLog#off()} para desligá-lo. Não é encerrado por stop().
+     * @param waitStrategy   Estratégia de espera quando o buffer está cheio ou vazio.
+     * @throws IllegalArgumentException se as quantidades não forem 0 ou 1, ou se ambas forem 0.
+     */
+    public ConsumerProducer(MappedFIFO ring, Pacing producerPacing, Pacing consumerPacing,
+                            SimulationListener controller, int producerCount, int consumerCount, EventLog eventLog,
+                            WaitStrategy waitStrategy) {
+        this(BufferMode.MAPPED, null, ring, producerPacing, consumerPacing, controller, producerCount, consumerCount,
+                eventLog, false, waitStrategy);
+    }
+
+    /**
+     * Construtor da classe ConsumerProducer sobre um buffer com faixas de prioridade. O produtor {@code i} insere
+     * os seus itens na faixa {@code i % lanes.laneCount()}, então a quantidade de produtores define quais faixas
+     * recebem tráfego.
+     *
+     * @param lanes          Buffer com as faixas e os seus pesos.
+     * @param producerPacing Ritmo de cada produtor. No laço aberto, o instante pretendido de cada produção é a
+     *                       origem das latências do item.
+     * @param consumerPacing Ritmo de cada consumidor.
+     * @param controller     Ouvinte que recebe as linhas do log de eventos.
+     * @param producerCount  Quantidade de threads produtoras.
+     * @param consumerCount  Quantidade de threads consumidoras.
+     * @param eventLog       Log de eventos; use {@link EventLog#off()} para desligá-lo. Não é encerrado por stop().
+     * @param waitStrategy   Estratégia de espera quando o buffer está cheio ou vazio.
+     * @throws IllegalArgumentException se as quantidades forem menores que 1.
      */
-    public ConsumerProducer(int bufferSize, int producerSpeed, int consumerSpeed, SimulationController controller) {
-        this.fifo = new FIFO(bufferSize);
-        this.empty = new Semaphore(bufferSize);
+    public ConsumerProducer(PriorityFIFO lanes, Pacing producerPacing, Pacing consumerPacing,
+                            SimulationListener controller, int producerCount, int consumerCount, EventLog eventLog,
+                            WaitStrategy waitStrategy) {
+        this(BufferMode.PRIORITY, null, lanes, producerPacing, consumerPacing, controller, producerCount,
+                consumerCount, eventLog, false, waitStrategy);
+    }
+
+    private ConsumerProducer(int bufferSize, Pacing producerPacing, Pacing consumerPacing,
+                             SimulationListener controller, BufferMode mode, int producerCount, int consumerCount,
+                             EventLog eventLog, boolean ownsEventLog, WaitStrategy waitStrategy) {
+        this(mode, mode == BufferMode.SEMAPHORE ? new FIFO(bufferSize, waitStrategy) : null,
+                switch (mode) {
+                    case SEMAPHORE -> null;
+                    case SPSC -> new SpscFIFO(bufferSize);
+                    case MPMC -> new MpmcFIFO(bufferSize);
+                    case MAPPED -> throw new IllegalArgumentException("O modo MAPPED exige o arquivo do buffer.");
+                    case PRIORITY -> throw new IllegalArgumentException("O modo PRIORITY exige os pesos das faixas.");
+                    case PARTITIONED -> new PartitionedFIFO(bufferSize, consumerCount); // Uma partição por consumidor
+                },
+                producerPacing, consumerPacing, controller, producerCount, consumerCount, eventLog, ownsEventLog,
+                waitStrategy);
+    }
+
+    private ConsumerProducer(BufferMode mode, FIFO fifo, RingBuffer ring, Pacing producerPacing,
+                             Pacing consumerPacing, SimulationListener controller, int producerCount,
+                             int consumerCount, EventLog eventLog, boolean ownsEventLog, WaitStrategy waitStrategy) {
+        if (mode == BufferMode.MAPPED) {
+            if (producerCount < 0 || consumerCount < 0 || producerCount + consumerCount == 0) {
+                throw new IllegalArgumentException("É necessário ao menos um produtor ou um consumidor.");
+            }
+        } else if (producerCount < 1 || consumerCount < 1) {
+            throw new IllegalArgumentException("É necessário ao menos um produtor e um consumidor.");
+        }
+        if ((mode == BufferMode.SPSC || mode == BufferMode.MAPPED) && (producerCount > 1 || consumerCount > 1)) {
+            throw new IllegalArgumentException("O modo " + mode + " aceita apenas um produtor e um consumidor.");
+        }
+        this.mode = mode;
+        this.fifo = fifo;
+        this.ring = ring;
+        this.lanes = ring instanceof PriorityFIFO priorityFIFO ? priorityFIFO : null;
+        this.partitions = ring instanceof PartitionedFIFO partitionedFIFO ? partitionedFIFO : null;
+        this.empty = new Semaphore(fifo != null ? fifo.capacity() : 0);
         this.full = new Semaphore(0);
         this.mutex = new Semaphore(1);
-        this.producerSpeed = producerSpeed;
-        this.consumerSpeed = consumerSpeed;
+        this.waitStrategy = waitStrategy;
+        this.producerPacing = producerPacing;
+        this.consumerPacing = consumerPacing;
+        this.producerCount = producerCount;
+        this.consumerCount = consumerCount;
         this.controller = controller;
+        this.eventLog = eventLog;
+        this.ownsEventLog = ownsEventLog;
+        eventLog.addSink(controller::logEvent);
+    }
+
+    /**
+     * Retorna a estratégia de espera padrão de cada modo: bloqueante nos semáforos e, nos anéis sem bloqueio,
+     * espera ativa curta seguida de estacionamento com intervalos crescentes.
+     *
+     * @param mode Modo de sincronização do buffer.
+     * @return A estratégia padrão do modo.
+     */
+    public static WaitStrategy defaultWaitStrategy(BufferMode mode) {
+        return mode == BufferMode.SEMAPHORE ? StandardWaitStrategy.BLOCKING : StandardWaitStrategy.SPIN_THEN_PARK;
     }
 
     /**
-     * Inicia as threads de produtor e consumidor.
+     * Inicia as threads de produtor e consumidor como threads de plataforma.
      * Pré-condição: A instância deve estar configurada com os semáforos e o buffer FIFO.
      * Pós-condição: As threads de produção e consumo começam a operar de acordo com a lógica FIFO.
      */
     public void start() {
-        Thread producerThread = new Thread(this::produceWithFIFO);
-        Thread consumerThread = new Thread(this::consumeWithFIFO);
+        start(ExecutionMode.PLATFORM);
+    }
+
+    /**
+     * Inicia as threads de produtor e consumidor no modo de execução informado.
+     * Nenhum caminho de espera usa {@code synchronized}, então threads virtuais bloqueadas nos semáforos,
+     * no buffer ou no ritmo não prendem a thread portadora.
+     * Pré-condição: A instância deve estar configurada com os semáforos e o buffer FIFO.
+     * Pós-condição: As threads de produção e consumo começam a operar de acordo com a lógica FIFO.
+     *
+     * @param executionMode Tipo das threads criadas para produtores e consumidores.
+     */
+    public void start(ExecutionMode executionMode) {
+        synchronized (threads) {
+            for (int i = 0; i < producerCount; i++) {
+                int index = i;
+                Runnable producer = mode == BufferMode.SEMAPHORE
+                        ? this::produceWithFIFO
+                        : () -> produceLockFree(index);
+                threads.add(executionMode.newThread("producer-" + i, producer));
+            }
+            if (poolWorkers > 0) {
+                poolPacers = new RatePacer[poolWorkers];
+                for (int i = 0; i < poolWorkers; i++) {
+                    poolPacers[i] = consumerPacing.newPacer();
+                }
+                consumerPool = new WorkStealingPool("consumer", poolWorkers, POOL_LOCAL_CAPACITY, consumerCount,
+                        this::dispatchToPool, this::processPooled);
+            } else {
+                for (int i = 0; i < consumerCount; i++) {
+                    int index = i;
+                    threads.add(executionMode.newThread("consumer-" + i, () -> consume(index)));
+                }
+            }
+            threads.forEach(Thread::start);
+            if (consumerPool != null) {
+                consumerPool.start(executionMode);
+            }
+        }
+    }
+
+    /**
+     * Processa os itens consumidos em um pool de workers com roubo de trabalho, para itens de custo desigual:
+     * as threads consumidoras apenas retiram os itens do buffer e os distribuem entre as filas locais dos workers,
+     * e um worker ocioso rouba itens da fila de outro. Cada worker segue o ritmo de consumo configurado. Itens
+     * processados por workers diferentes podem terminar fora da ordem do buffer.
+     * Pré-condição: chamado antes de start().
+     *
+     * @param workers Quantidade de workers do pool.
+     * @throws IllegalArgumentException se a quantidade de workers não for positiva.
+     * @throws IllegalStateException se a simulação já foi iniciada, se não houver consumidores neste processo ou no
+     *                               modo PARTITIONED, em que cada partição é processada em ordem pelo seu consumidor.
+     */
+    public void enableConsumerPool(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Quantidade de workers deve ser positiva: " + workers);
+        }
+        if (mode == BufferMode.PARTITIONED) {
+            throw new IllegalStateException("O modo PARTITIONED mantém a ordem por chave e não aceita o pool.");
+        }
+        synchronized (threads) {
+            if (!threads.isEmpty() || consumerPool != null) {
+                throw new IllegalStateException("O pool de consumidores deve ser ligado antes de start().");
+            }
+            if (consumerCount == 0) {
+                throw new IllegalStateException("Não há consumidores para o pool neste processo.");
+            }
+            poolWorkers = workers;
+        }
+    }
+
+    /**
+     * Faz os produtores desistirem de esperar por espaço: quando o buffer continua cheio depois do tempo de
+     * espera, o item segue a política de estouro e a contagem correspondente é incrementada. Com CALLER_RUNS o
+     * próprio produtor processa o item, o que reduz o seu ritmo enquanto o buffer estiver cheio.
+     * Pré-condição: chamado antes de start().
+     *
+     * @param policy  Política aplicada aos itens que não couberem no buffer.
+     * @param timeout Tempo máximo de espera por espaço; 0 aplica a política assim que o buffer estiver cheio.
+     * @param unit    Unidade do tempo de espera.
+     * @throws IllegalArgumentException se o tempo de espera for negativo.
+     * @throws IllegalStateException se a simulação já foi iniciada, ou se a política for DROP_OLDEST nos modos
+     *                               SPSC, MAPPED e PARTITIONED, em que apenas o consumidor pode retirar itens do
+     *                               anel ou da partição.
+     */
+    public void setOverflowPolicy(OverflowPolicy policy, long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Tempo de espera não pode ser negativo: " + timeout);
+        }
+        if (policy == OverflowPolicy.DROP_OLDEST && (mode == BufferMode.SPSC || mode == BufferMode.MAPPED
+                || mode == BufferMode.PARTITIONED)) {
+            throw new IllegalStateException("O modo " + mode + " não permite que o produtor descarte itens.");
+        }
+        synchronized (threads) {
+            if (!threads.isEmpty()) {
+                throw new IllegalStateException("A política de estouro deve ser definida antes de start().");
+            }
+            overflowPolicy = policy;
+            offerTimeoutNanos = unit.toNanos(timeout);
+        }
+    }
 
-        producerThread.start();
-        consumerThread.start();
+    /**
+     * Retorna quantas vezes cada política de estouro foi aplicada pelos produtores.
+     *
+     * @return Os contadores de estouro; todos em zero sem {@link #setOverflowPolicy(OverflowPolicy, long, TimeUnit)}.
+     */
+    public OverflowCounters getOverflowCounters() {
+        return overflowCounters;
+    }
+
+    /**
+     * Retorna o pool de consumidores, para consultar as métricas de cada worker.
+     *
+     * @return O pool ligado por {@link #enableConsumerPool(int)}, ou null se não houver ou antes de start().
+     */
+    public WorkStealingPool getConsumerPool() {
+        synchronized (threads) {
+            return consumerPool;
+        }
     }
 
     /**
@@ -52,21 +434,31 @@ public class ConsumerProducer {
      * Pós-condição: Um novo item é adicionado ao buffer, e o semáforo full é incrementado.
      */
     private void produceWithFIFO() {
+        RatePacer pacer = producerPacing.newPacer();
+        StampedItem dropped = new StampedItem(); // Recebe o item descartado por DROP_OLDEST
         while (running) {
             try {
-                empty.acquire(); // Aguarda espaço disponível no buffer
-                mutex.acquire(); // Garante acesso exclusivo ao buffer
-
+                long intended = pacer.awaitNext(); // Aguarda o instante da próxima produção
                 int item = (int) (Math.random() * 100); // Gera item aleatório
-                fifo.enqueue(item); // Insere item no buffer
-                controller.logMessage("Produced: " + item); // Log da produção
+                if (overflowPolicy == null) {
+                    acquireCounting(empty, ContentionSite.SEMAPHORE_EMPTY, producerBlockedCount,
+                            producerBlockedNanos); // Aguarda espaço disponível no buffer
+                } else if (!tryAcquireCounting(empty, offerTimeoutNanos)) {
+                    overflowFIFO(item, pacer.isOpenLoop() ? intended : System.nanoTime(), dropped);
+                    continue;
+                }
+                acquireMutex(); // Garante acesso exclusivo ao buffer
+
+                if (pacer.isOpenLoop()) {
+                    fifo.enqueue(item, intended); // A espera por espaço entra na latência do item
+                } else {
+                    fifo.enqueue(item); // Insere item no buffer
+                }
+                producedCount.increment();
 
                 mutex.release(); // Libera o acesso ao buffer
                 full.release(); // Sinaliza que há um item disponível para consumo
-
-                synchronized (this) {
-                    wait(producerSpeed); // Aguarda o tempo de produção configurado
-                }
+                eventLog.publish(EventType.PRODUCED, item, null); // Log da produção, fora do mutex
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
@@ -75,25 +467,150 @@ public class ConsumerProducer {
     }
 
     /**
-     * Método de consumo - Remove itens do buffer FIFO e processa-os.
-     * Pré-condição: Deve haver itens disponíveis no buffer (controlado pelo semáforo full).
-     * Pós-condição: Um item é removido do buffer e o semáforo empty é incrementado.
+     * Aplica a política de estouro a um item que não encontrou espaço no FIFO dentro do tempo de espera.
+     * Para descartar o mais antigo, o produtor adquire também uma permissão de full, de modo que nenhum
+     * consumidor conte com o item removido; sem itens a descartar, o item novo é recusado.
+     */
+    private void overflowFIFO(int item, long stamp, StampedItem dropped) throws InterruptedException {
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST && full.tryAcquire()) {
+            acquireMutex();
+            fifo.dequeue(dropped);
+            fifo.enqueue(item, stamp); // Ocupa o slot do item descartado
+            producedCount.increment();
+            mutex.release();
+            full.release();
+            overflowCounters.record(OverflowPolicy.DROP_OLDEST);
+            eventLog.publish(EventType.ITEM_DROPPED, dropped.getValue(), null);
+            eventLog.publish(EventType.PRODUCED, item, null);
+            return;
+        }
+        applyOverflow(overflowPolicy == OverflowPolicy.DROP_OLDEST ? OverflowPolicy.REJECT : overflowPolicy, item,
+                stamp);
+    }
+
+    /**
+     * Conta e registra um item que não entrou no buffer. Com CALLER_RUNS, o próprio produtor o processa.
+     * DROP_OLDEST é tratado por quem chama, que conhece o buffer.
+     */
+    private void applyOverflow(OverflowPolicy policy, int item, long stamp) {
+        overflowCounters.record(policy);
+        switch (policy) {
+            case REJECT -> eventLog.publish(EventType.ITEM_REJECTED, item, null);
+            case DROP_NEWEST -> eventLog.publish(EventType.ITEM_DROPPED, item, null);
+            case CALLER_RUNS -> {
+                producedCount.increment();
+                consumedCount.increment();
+                eventLog.publish(EventType.ITEM_RUN_BY_CALLER, item, null);
+                endToEndLatency.recordSince(stamp);
+            }
+        }
+    }
+
+    /**
+     * Método de produção sem bloqueio - Insere itens no buffer SPSC, MPMC, MAPPED, PRIORITY ou PARTITIONED sem
+     * semáforos nem monitor. No modo PARTITIONED o próprio item é a chave que escolhe a partição.
+     * Pré-condição: O buffer sem bloqueio suporta a quantidade de produtores configurada.
+     * Pós-condição: Um novo item é publicado no buffer; se estiver cheio, a thread aguarda com espera progressiva.
+     *
+     * @param producer Índice do produtor; no modo PRIORITY define a faixa dos seus itens.
      */
-    private void consumeWithFIFO() {
+    private void produceLockFree(int producer) {
+        RatePacer pacer = producerPacing.newPacer();
+        boolean openLoop = pacer.isOpenLoop();
+        int lane = lanes != null ? producer % lanes.laneCount() : 0;
+        StampedItem dropped = new StampedItem(); // Recebe o item descartado por DROP_OLDEST
         while (running) {
             try {
-                full.acquire(); // Aguarda item disponível para consumo
-                mutex.acquire(); // Garante acesso exclusivo ao buffer
+                long intended = pacer.awaitNext(); // Aguarda o instante da próxima produção
+                int item = (int) (Math.random() * 100); // Gera item aleatório
+                if (!offer(lane, item, openLoop ? intended : System.nanoTime())) { // Buffer cheio: aguarda o consumidor liberar espaço
+                    long blockedSince = System.nanoTime();
+                    int attempts = 0;
+                    boolean inserted = false;
+                    do {
+                        if (!running) {
+                            return;
+                        }
+                        if (overflowPolicy != null && System.nanoTime() - blockedSince >= offerTimeoutNanos) {
+                            break;
+                        }
+                        attempts = waitStrategy.idle(attempts);
+                    } while (!(inserted = offer(lane, item, openLoop ? intended : System.nanoTime())));
+                    long blockedNanos = System.nanoTime() - blockedSince;
+                    producerBlockedCount.increment();
+                    producerBlockedNanos.add(blockedNanos);
+                    profiler.recordBlocked(ContentionSite.RING_FULL, blockedNanos);
+                    if (!inserted) {
+                        overflowRing(lane, item, openLoop ? intended : System.nanoTime(), dropped);
+                        continue;
+                    }
+                }
+                producedCount.increment();
+                eventLog.publish(EventType.PRODUCED, item, null); // Log da produção
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
 
-                int item = fifo.dequeue(); // Remove item do buffer
-                controller.logMessage("Consumed: " + item); // Log do consumo
+    /**
+     * Aplica a política de estouro a um item que não encontrou espaço no anel dentro do tempo de espera.
+     * Para descartar o mais antigo, o produtor retira itens como um consumidor até que o novo caiba. No modo
+     * PRIORITY o descarte sai da faixa de menor prioridade, sem alterar o escalonamento; se só faixas mais
+     * prioritárias que a do item novo tiverem itens, o item novo é recusado.
+     */
+    private void overflowRing(int lane, int item, long stamp, StampedItem dropped) {
+        if (overflowPolicy != OverflowPolicy.DROP_OLDEST) {
+            applyOverflow(overflowPolicy, item, stamp);
+            return;
+        }
+        do {
+            if (lanes != null ? lanes.dropOldest(lane, dropped) : ring.poll(dropped)) {
+                overflowCounters.record(OverflowPolicy.DROP_OLDEST);
+                eventLog.publish(EventType.ITEM_DROPPED, dropped.getValue(), null);
+            } else if (lanes != null && lanes.size() > 0) {
+                applyOverflow(OverflowPolicy.REJECT, item, stamp); // Não descarta itens mais prioritários
+                return;
+            }
+        } while (!offer(lane, item, stamp));
+        producedCount.increment();
+        eventLog.publish(EventType.PRODUCED, item, null);
+    }
 
-                mutex.release(); // Libera o acesso ao buffer
-                empty.release(); // Sinaliza que há espaço disponível no buffer
+    /**
+     * Tenta inserir um item no buffer sem bloqueio; no modo PRIORITY, na faixa informada.
+     */
+    private boolean offer(int lane, int item, long stamp) {
+        return lanes != null ? lanes.offer(lane, item, stamp) : ring.offer(item, stamp);
+    }
 
-                synchronized (this) {
-                    wait(consumerSpeed); // Aguarda o tempo de consumo configurado
+    /**
+     * Tenta retirar um item do buffer sem bloqueio; no modo PARTITIONED, da partição do consumidor.
+     */
+    private boolean poll(int consumer, StampedItem item) {
+        return partitions != null ? partitions.poll(consumer, item) : ring.poll(item);
+    }
+
+    /**
+     * Método de consumo - Remove itens do buffer e processa-os.
+     * Pré-condição: Deve haver itens disponíveis no buffer (controlado pelo semáforo full no modo SEMAPHORE).
+     * Pós-condição: Um item é removido do buffer; no modo SEMAPHORE o semáforo empty é incrementado.
+     *
+     * @param consumer Índice do consumidor; no modo PARTITIONED é a partição de onde ele retira.
+     */
+    private void consume(int consumer) {
+        StampedItem item = new StampedItem(); // Reutilizado a cada consumo
+        RatePacer pacer = consumerPacing.newPacer();
+        while (running) {
+            try {
+                pacer.awaitNext(); // Aguarda o instante do próximo consumo
+                if (!takeItem(consumer, item)) {
+                    return;
                 }
+                consumedCount.increment();
+                eventLog.publish(EventType.CONSUMED, item.getValue(), null); // Log do consumo, fora do mutex
+                endToEndLatency.recordSince(item.getStamp());
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 break;
@@ -101,13 +618,259 @@ public class ConsumerProducer {
         }
     }
 
+    /**
+     * Retira o próximo item do buffer, aguardando se estiver vazio, e registra o tempo que ele passou no buffer.
+     * No modo SEMAPHORE aguarda em full e no mutex; nos anéis sem bloqueio aguarda com a estratégia de espera.
+     *
+     * @param consumer Índice do consumidor; no modo PARTITIONED, a partição de onde o item é retirado.
+     * @param item Item reutilizável que recebe o valor e o instante de inserção.
+     * @return true se um item foi retirado; false se a simulação foi parada durante a espera.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private boolean takeItem(int consumer, StampedItem item) throws InterruptedException {
+        if (fifo != null) {
+            acquireCounting(full, ContentionSite.SEMAPHORE_FULL, consumerBlockedCount,
+                    consumerBlockedNanos); // Aguarda item disponível para consumo
+            acquireMutex(); // Garante acesso exclusivo ao buffer
+            fifo.dequeue(item); // Remove item do buffer
+            mutex.release(); // Libera o acesso ao buffer
+            empty.release(); // Sinaliza que há espaço disponível no buffer
+        } else if (!poll(consumer, item)) { // Buffer vazio: aguarda o produtor
+            long blockedSince = System.nanoTime();
+            int attempts = 0;
+            do {
+                if (!running) {
+                    return false;
+                }
+                attempts = waitStrategy.idle(attempts);
+            } while (!poll(consumer, item));
+            long blockedNanos = System.nanoTime() - blockedSince;
+            consumerBlockedCount.increment();
+            consumerBlockedNanos.add(blockedNanos);
+            profiler.recordBlocked(ContentionSite.RING_EMPTY, blockedNanos);
+        }
+        queueLatency.recordSince(item.getStamp());
+        return true;
+    }
+
+    /**
+     * Origem do pool de consumidores: as threads consumidoras passam a despachar os itens do buffer para as
+     * filas locais dos workers.
+     */
+    private boolean dispatchToPool(WorkItem into) throws InterruptedException {
+        StampedItem item = poolScratch.get();
+        if (!takeItem(0, item)) { // O pool não existe no modo PARTITIONED, então o índice não é usado
+            return false;
+        }
+        into.set(item.getValue(), item.getStamp(), -1);
+        return true;
+    }
+
+    /**
+     * Processamento de um item por um worker do pool, no ritmo de consumo configurado para cada worker.
+     */
+    private void processPooled(int worker, WorkItem item) throws InterruptedException {
+        poolPacers[worker].awaitNext(); // Aguarda o instante do próximo consumo deste worker
+        consumedCount.increment();
+        eventLog.publish(EventType.CONSUMED, item.getValue(), null);
+        endToEndLatency.recordSince(item.getStamp());
+    }
+
+    /**
+     * Adquire uma permissão do semáforo, contabilizando o tempo bloqueado quando não há permissão imediata.
+     *
+     * @param semaphore    Semáforo a ser adquirido.
+     * @param site         Ponto de espera informado ao {@link ContentionProfiler}.
+     * @param blockedCount Contador de bloqueios.
+     * @param blockedNanos Acumulador do tempo bloqueado, em nanossegundos.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void acquireCounting(Semaphore semaphore, ContentionSite site, LongAdder blockedCount,
+                                 LongAdder blockedNanos) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        acquire(semaphore);
+        long blocked = System.nanoTime() - blockedSince;
+        blockedCount.increment();
+        blockedNanos.add(blocked);
+        profiler.recordBlocked(site, blocked);
+    }
+
+    /**
+     * Adquire o mutex do FIFO, informando ao {@link ContentionProfiler} o tempo de espera quando ele está ocupado.
+     *
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void acquireMutex() throws InterruptedException {
+        if (mutex.tryAcquire()) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        acquire(mutex);
+        profiler.recordBlocked(ContentionSite.SEMAPHORE_MUTEX, System.nanoTime() - blockedSince);
+    }
+
+    /**
+     * Tenta adquirir uma permissão do semáforo aguardando no máximo o tempo informado, contabilizando o tempo
+     * bloqueado quando não há permissão imediata.
+     *
+     * @param semaphore    Semáforo a ser adquirido.
+     * @param timeoutNanos Tempo máximo de espera, em nanossegundos; 0 não aguarda.
+     * @return true se a permissão foi adquirida.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private boolean tryAcquireCounting(Semaphore semaphore, long timeoutNanos) throws InterruptedException {
+        if (semaphore.tryAcquire()) {
+            return true;
+        }
+        long blockedSince = System.nanoTime();
+        boolean acquired;
+        if (timeoutNanos <= 0) {
+            acquired = false;
+        } else if (waitStrategy.isBlocking()) {
+            acquired = semaphore.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } else {
+            int attempts = 0;
+            while (!(acquired = semaphore.tryAcquire()) && System.nanoTime() - blockedSince < timeoutNanos) {
+                attempts = waitStrategy.idle(attempts);
+            }
+        }
+        long blocked = System.nanoTime() - blockedSince;
+        producerBlockedCount.increment();
+        producerBlockedNanos.add(blocked);
+        profiler.recordBlocked(ContentionSite.SEMAPHORE_EMPTY, blocked);
+        return acquired;
+    }
+
+    /**
+     * Adquire uma permissão do semáforo conforme a estratégia de espera: estacionando em {@code acquire} ou
+     * tentando de novo em laço.
+     *
+     * @param semaphore Semáforo a ser adquirido.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void acquire(Semaphore semaphore) throws InterruptedException {
+        if (waitStrategy.isBlocking()) {
+            semaphore.acquire();
+            return;
+        }
+        int attempts = 0;
+        while (!semaphore.tryAcquire()) {
+            attempts = waitStrategy.idle(attempts);
+        }
+    }
+
+    /**
+     * Altera a capacidade do buffer durante a execução, sem perder nem reordenar itens.
+     * Para crescer, o FIFO é ampliado e as permissões novas são liberadas em {@code empty}. Para diminuir, só são
+     * retiradas permissões livres, de modo que um produtor que já adquiriu a sua sempre encontra espaço no FIFO;
+     * se o buffer estiver cheio demais, a redução é parcial e pode ser tentada de novo depois.
+     *
+     * @param capacity Capacidade desejada.
+     * @return A capacidade efetivamente aplicada.
+     * @throws IllegalArgumentException se a capacidade não for positiva.
+     * @throws IllegalStateException se o modo do buffer não for SEMAPHORE.
+     */
+    public int resizeBuffer(int capacity) {
+        if (fifo == null) {
+            throw new IllegalStateException("O modo " + mode + " não permite alterar a capacidade do buffer.");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + capacity);
+        }
+        resizeLock.lock();
+        try {
+            int current = fifo.capacity();
+            if (capacity > current) {
+                fifo.resize(capacity);
+                empty.release(capacity - current);
+            } else if (capacity < current) {
+                int wanted = current - capacity;
+                int taken = Math.min(wanted, empty.availablePermits());
+                while (taken > 0 && !empty.tryAcquire(taken)) { // Outro produtor levou permissões no meio
+                    taken = Math.min(wanted, empty.availablePermits());
+                }
+                if (taken == 0) {
+                    return current;
+                }
+                fifo.resize(current - taken);
+            } else {
+                return current;
+            }
+            int applied = fifo.capacity();
+            eventLog.publish(EventType.CAPACITY_CHANGED, applied, null);
+            return applied;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    /**
+     * Liga a capacidade adaptativa do buffer: uma thread de ajuste passa a aumentar a capacidade quando os
+     * produtores ficam bloqueados em {@code empty} e a reduzi-la quando a ocupação fica baixa. Substitui um ajuste
+     * ligado antes; é desligado por stop().
+     *
+     * @param policy Limites e marcas d'água da capacidade.
+     * @throws IllegalStateException se o modo do buffer não for SEMAPHORE.
+     */
+    public void enableElasticCapacity(ElasticCapacity policy) {
+        if (fifo == null) {
+            throw new IllegalStateException("O modo " + mode + " não permite alterar a capacidade do buffer.");
+        }
+        resizeLock.lock();
+        try {
+            if (capacityTuner != null) {
+                capacityTuner.close();
+            }
+            capacityTuner = new CapacityTuner(policy, new CapacityTuner.Target() {
+                @Override
+                public int capacity() {
+                    return fifo.capacity();
+                }
+
+                @Override
+                public int size() {
+                    return fifo.size();
+                }
+
+                @Override
+                public long producerBlockedNanos() {
+                    return getProducerBlockedNanos();
+                }
+
+                @Override
+                public int resize(int capacity) {
+                    return resizeBuffer(capacity);
+                }
+            });
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    /**
+     * Retorna a thread de ajuste da capacidade, para consultar quantas vezes ela alterou o buffer.
+     *
+     * @return O ajuste ligado por {@link #enableElasticCapacity(ElasticCapacity)}, ou null se não houver.
+     */
+    public CapacityTuner getCapacityTuner() {
+        resizeLock.lock();
+        try {
+            return capacityTuner;
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
     /**
      * Retorna o tamanho atual do buffer.
      *
      * @return O tamanho do buffer FIFO.
      */
     public int getBufferSize() {
-        return fifo.size();
+        return ring != null ? ring.size() : fifo.size();
     }
 
     /**
@@ -116,18 +879,177 @@ public class ConsumerProducer {
      * @return Array com os itens atualmente armazenados no buffer.
      */
     public int[] getBufferContents() {
-        return fifo.getContents();
+        return ring != null ? ring.getContents() : fifo.getContents();
+    }
+
+    /**
+     * Retorna a capacidade do buffer.
+     *
+     * @return Quantidade máxima de itens no buffer.
+     */
+    public int getBufferCapacity() {
+        return ring != null ? ring.capacity() : fifo.capacity();
+    }
+
+    /**
+     * Lê o estado atual da simulação. Não interfere nas threads de produção e consumo além da leitura do
+     * conteúdo do buffer, que no modo SEMAPHORE adquire o lock do FIFO por um instante.
+     *
+     * @return O snapshot da simulação.
+     */
+    public SimulationSnapshot snapshot() {
+        return new SimulationSnapshot(getBufferContents(), getProducedCount(), getConsumedCount(),
+                queueLatency.summary(), endToEndLatency.summary());
+    }
+
+    /**
+     * Retorna as métricas de cada faixa do buffer com prioridades.
+     *
+     * @return Uma lista com um elemento por faixa, da maior prioridade para a menor; vazia fora do modo PRIORITY.
+     */
+    public List<PriorityFIFO.LaneStats> getLaneStats() {
+        return lanes != null ? lanes.getLaneStats() : List.of();
+    }
+
+    /**
+     * Retorna as métricas de cada partição do buffer particionado.
+     *
+     * @return Uma lista com um elemento por partição, na ordem dos índices; vazia fora do modo PARTITIONED.
+     */
+    public List<PartitionedFIFO.PartitionStats> getPartitionStats() {
+        return partitions != null ? partitions.getPartitionStats() : List.of();
+    }
+
+    /**
+     * Retorna o número total de itens produzidos desde o início da simulação.
+     *
+     * @return Contador de itens produzidos.
+     */
+    public long getProducedCount() {
+        return producedCount.sum();
+    }
+
+    /**
+     * Retorna o número total de itens consumidos desde o início da simulação.
+     *
+     * @return Contador de itens consumidos.
+     */
+    public long getConsumedCount() {
+        return consumedCount.sum();
+    }
+
+    /**
+     * Retorna quantas vezes um produtor encontrou o buffer cheio e precisou aguardar.
+     *
+     * @return Contador de bloqueios dos produtores.
+     */
+    public long getProducerBlockedCount() {
+        return producerBlockedCount.sum();
+    }
+
+    /**
+     * Retorna o tempo total, somado entre todas as threads produtoras, passado aguardando espaço no buffer.
+     *
+     * @return Tempo bloqueado dos produtores, em nanossegundos.
+     */
+    public long getProducerBlockedNanos() {
+        return producerBlockedNanos.sum();
+    }
+
+    /**
+     * Retorna quantas vezes um consumidor encontrou o buffer vazio e precisou aguardar.
+     *
+     * @return Contador de bloqueios dos consumidores.
+     */
+    public long getConsumerBlockedCount() {
+        return consumerBlockedCount.sum();
+    }
+
+    /**
+     * Retorna o tempo total, somado entre todas as threads consumidoras, passado aguardando itens no buffer.
+     *
+     * @return Tempo bloqueado dos consumidores, em nanossegundos.
+     */
+    public long getConsumerBlockedNanos() {
+        return consumerBlockedNanos.sum();
+    }
+
+    /**
+     * Retorna o histograma do tempo de permanência no buffer: da inserção do item até sua remoção
+     * por um consumidor.
+     *
+     * @return Histograma de latência, em nanossegundos.
+     */
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    /**
+     * Retorna o histograma da latência de ponta a ponta: da inserção do item no buffer até o fim do seu
+     * processamento pelo consumidor, sem contar a espera pelo próximo instante de consumo. No laço aberto,
+     * as duas latências partem do instante pretendido de produção.
+     *
+     * @return Histograma de latência, em nanossegundos.
+     */
+    public LatencyHistogram getEndToEndLatency() {
+        return endToEndLatency;
+    }
+
+    /**
+     * Retorna o log de eventos da simulação.
+     *
+     * @return O log de eventos.
+     */
+    public EventLog getEventLog() {
+        return eventLog;
     }
 
     /**
      * Interrompe a execução das threads de produtor e consumidor.
      * Pré-condição: As threads de produção e consumo devem estar em execução.
-     * Pós-condição: As threads de produção e consumo são sinalizadas para finalizar.
+     * Pós-condição: As threads de produção e consumo são sinalizadas para finalizar, inclusive as que
+     * estão bloqueadas nos semáforos.
      */
     public void stop() {
         running = false;
-        synchronized (this) {
-            notifyAll(); // Notifica todas as threads para encerrar
+        synchronized (threads) {
+            threads.forEach(Thread::interrupt); // Libera threads bloqueadas em empty, full, mutex ou no ritmo
+            if (consumerPool != null) {
+                consumerPool.stop();
+            }
+        }
+        resizeLock.lock();
+        try {
+            if (capacityTuner != null) {
+                capacityTuner.close();
+            }
+        } finally {
+            resizeLock.unlock();
+        }
+        if (ownsEventLog) {
+            eventLog.close(); // Entrega os eventos pendentes e encerra a thread de escrita
+        }
+    }
+
+    /**
+     * Aguarda o término das threads de produtor e consumidor.
+     * Pré-condição: stop() deve ter sido chamado, ou a espera não termina.
+     * Pós-condição: nenhuma thread da simulação acessa mais o buffer, que pode então ser fechado.
+     *
+     * @throws InterruptedException se a thread atual for interrompida enquanto aguarda.
+     */
+    public void awaitTermination() throws InterruptedException {
+        List<Thread> started;
+        WorkStealingPool pool;
+        synchronized (threads) {
+            started = new ArrayList<>(threads);
+            pool = consumerPool;
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+        if (pool != null) {
+            pool.awaitTermination();
         }
     }
 }
@@ -1,19 +1,58 @@
 package prodconsumsemaphore.controller;
 
+import common.ContentionProfiler;
+import common.ContentionSite;
+import common.StandardWaitStrategy;
+import common.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Classe FIFO que implementa um buffer circular para armazenar itens produzidos e consumidos.
  * Esta classe é usada para armazenar dados no estilo First-In-First-Out (FIFO) com controle de sincronização.
+ * As esperas usam um {@link ReentrantLock} com as condições notFull e notEmpty em vez de monitores, para que
+ * threads virtuais aguardando no buffer não prendam a thread portadora.
+ * Cada item é registrado com o instante da inserção ({@link System#nanoTime()}), que pode ser lido na remoção
+ * por {@link #dequeue(StampedItem)} para medir o tempo de permanência no buffer.
+ * A espera por espaço ou por itens segue a {@link WaitStrategy} configurada: bloqueando nas condições ou
+ * liberando o lock e tentando de novo.
+ * A capacidade pode ser alterada com {@link #resize(int)} enquanto produtores e consumidores estão em execução.
+ * {@link #offer(int, long, long, TimeUnit)} e {@link #poll(StampedItem, long, TimeUnit)} aguardam no máximo o
+ * tempo informado, para quem prefere desistir a ficar bloqueado.
+ * O tempo de cada espera e os despertares que encontram o buffer ainda cheio ou vazio são informados ao
+ * {@link ContentionProfiler}.
  */
 public class FIFO {
     private int head, tail, count;
-    private final int[] buffer;
+    private int[] buffer;
+    private long[] stamps; // Instante de inserção de cada slot; substituído junto com o buffer em resize()
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition(); // Sinalizada quando um item é removido
+    private final Condition notEmpty = lock.newCondition(); // Sinalizada quando um item é inserido
+    private final WaitStrategy waitStrategy;
+    private final ContentionProfiler profiler = ContentionProfiler.global();
 
     /**
-     * Construtor da classe FIFO.
+     * Construtor da classe FIFO. As esperas bloqueiam nas condições do lock.
      * @param size Tamanho do buffer circular.
      */
     public FIFO(int size) {
+        this(size, StandardWaitStrategy.BLOCKING);
+    }
+
+    /**
+     * Construtor da classe FIFO com estratégia de espera configurável.
+     * @param size Tamanho do buffer circular.
+     * @param waitStrategy Estratégia usada quando o buffer está cheio ou vazio.
+     */
+    public FIFO(int size, WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
         buffer = new int[size];
+        stamps = new long[size];
         head = 0;
         tail = 0;
         count = 0;
@@ -26,14 +65,69 @@ public class FIFO {
      * @param value Valor a ser inserido no buffer.
      * @throws InterruptedException se a thread for interrompida enquanto espera espaço no buffer.
      */
-    public synchronized void enqueue(int value) throws InterruptedException {
-        while (isFull()) {
-            wait();
+    public void enqueue(int value) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitSpace();
+            insert(value, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insere um valor no buffer com um instante de origem informado por quem chama, por exemplo o instante
+     * pretendido de envio em uma carga de laço aberto.
+     * Pré-condição: o buffer não deve estar cheio.
+     * Pós-condição: o valor é adicionado na posição indicada por tail e o contador é incrementado.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante a partir do qual a latência do item é medida, em nanossegundos de {@link System#nanoTime()}.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço no buffer.
+     */
+    public void enqueue(int value, long stamp) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitSpace();
+            insert(value, stamp);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tenta inserir um valor no buffer, aguardando no máximo o tempo informado por espaço.
+     * Pós-condição: se retornar true, o valor é adicionado na posição indicada por tail.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante a partir do qual a latência do item é medida, em nanossegundos de {@link System#nanoTime()}.
+     * @param timeout Tempo máximo de espera; 0 não aguarda.
+     * @param unit Unidade do tempo de espera.
+     * @return true se o valor foi inserido; false se o buffer continuou cheio até o fim do tempo.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço no buffer.
+     */
+    public boolean offer(int value, long stamp, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (!awaitSpace(deadline)) {
+                return false;
+            }
+            insert(value, stamp);
+            return true;
+        } finally {
+            lock.unlock();
         }
+    }
+
+    /**
+     * Grava o valor na cauda e acorda um consumidor.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e deve haver espaço no buffer.
+     */
+    private void insert(int value, long stamp) {
         buffer[tail] = value;
+        stamps[tail] = stamp;
         tail = (tail + 1) % buffer.length;
         count++;
-        notifyAll();
+        notEmpty.signal();
     }
 
     /**
@@ -43,50 +137,359 @@ public class FIFO {
      * @return Valor removido do buffer.
      * @throws InterruptedException se a thread for interrompida enquanto espera um item no buffer.
      */
-    public synchronized int dequeue() throws InterruptedException {
-        while (isEmpty()) {  // Aguarda se o buffer está vazio
-            wait();
+    public int dequeue() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitItem(); // Aguarda se o buffer está vazio
+            int value = buffer[head];
+            head = (head + 1) % buffer.length;  // Atualiza head de forma circular
+            count--;
+            notFull.signal();
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove um valor do buffer junto com o instante em que foi inserido.
+     * Pré-condição: o buffer não deve estar vazio.
+     * Pós-condição: o valor é removido da posição indicada por head e o contador é decrementado.
+     * @param into Item reutilizável que recebe o valor removido e o instante da inserção.
+     * @throws InterruptedException se a thread for interrompida enquanto espera um item no buffer.
+     */
+    public void dequeue(StampedItem into) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitItem();
+            into.set(buffer[head], stamps[head]);
+            head = (head + 1) % buffer.length;
+            count--;
+            notFull.signal();
+        } finally {
+            lock.unlock();
         }
-        int value = buffer[head];
-        head = (head + 1) % buffer.length;  // Atualiza head de forma circular
-        count--;
-        notifyAll();
-        return value;
+    }
+
+    /**
+     * Tenta remover um valor do buffer junto com o instante em que foi inserido, aguardando no máximo o tempo
+     * informado por um item.
+     * Pós-condição: se retornar true, o valor é removido da posição indicada por head.
+     * @param into Item reutilizável que recebe o valor removido e o instante da inserção.
+     * @param timeout Tempo máximo de espera; 0 não aguarda.
+     * @param unit Unidade do tempo de espera.
+     * @return true se um valor foi removido; false se o buffer continuou vazio até o fim do tempo.
+     * @throws InterruptedException se a thread for interrompida enquanto espera um item no buffer.
+     */
+    public boolean poll(StampedItem into, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            if (!awaitItem(deadline)) {
+                return false;
+            }
+            into.set(buffer[head], stamps[head]);
+            head = (head + 1) % buffer.length;
+            count--;
+            notFull.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Insere um intervalo de valores no buffer.
+     * A cada posse do lock, copia tantos valores quanto couberem no espaço livre e acorda os consumidores em espera
+     * uma única vez; aguarda novo espaço apenas se ainda restarem valores.
+     * Pré-condição: o intervalo {@code [offset, offset + length)} deve estar dentro de {@code values}.
+     * Pós-condição: todos os valores do intervalo são adicionados ao buffer, na ordem em que aparecem.
+     * @param values Array de origem.
+     * @param offset Posição do primeiro valor a inserir.
+     * @param length Quantidade de valores a inserir.
+     * @throws InterruptedException se a thread for interrompida enquanto espera espaço no buffer. Os valores
+     *                              copiados antes da interrupção permanecem no buffer.
+     */
+    public void enqueueAll(int[] values, int offset, int length) throws InterruptedException {
+        Objects.checkFromIndexSize(offset, length, values.length);
+        int end = offset + length;
+        lock.lockInterruptibly();
+        try {
+            while (offset < end) {
+                awaitSpace();
+                int batch = Math.min(end - offset, buffer.length - count);
+                int firstPart = Math.min(batch, buffer.length - tail); // Trecho até o fim do array circular
+                System.arraycopy(values, offset, buffer, tail, firstPart);
+                System.arraycopy(values, offset + firstPart, buffer, 0, batch - firstPart);
+                long now = System.nanoTime(); // Todos os itens do lote recebem o mesmo instante
+                Arrays.fill(stamps, tail, tail + firstPart, now);
+                Arrays.fill(stamps, 0, batch - firstPart, now);
+                tail = (tail + batch) % buffer.length;
+                count += batch;
+                offset += batch;
+                notEmpty.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove um lote de valores do buffer.
+     * Aguarda até que haja ao menos um valor e então copia até {@code maxLength} valores na mesma posse do lock,
+     * acordando os produtores em espera uma única vez.
+     * Pré-condição: o intervalo {@code [offset, offset + maxLength)} deve estar dentro de {@code target}.
+     * Pós-condição: os valores copiados são removidos do buffer, na ordem de entrada.
+     * @param target Array de destino.
+     * @param offset Posição onde o primeiro valor removido é gravado.
+     * @param maxLength Quantidade máxima de valores a remover.
+     * @return A quantidade de valores removidos (ao menos 1 quando {@code maxLength > 0}).
+     * @throws InterruptedException se a thread for interrompida enquanto espera um item no buffer.
+     */
+    public int dequeueAll(int[] target, int offset, int maxLength) throws InterruptedException {
+        Objects.checkFromIndexSize(offset, maxLength, target.length);
+        if (maxLength == 0) {
+            return 0;
+        }
+        lock.lockInterruptibly();
+        try {
+            awaitItem();
+            int batch = Math.min(maxLength, count);
+            int firstPart = Math.min(batch, buffer.length - head); // Trecho até o fim do array circular
+            System.arraycopy(buffer, head, target, offset, firstPart);
+            System.arraycopy(buffer, 0, target, offset + firstPart, batch - firstPart);
+            head = (head + batch) % buffer.length;
+            count -= batch;
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aguarda até que haja espaço no buffer, conforme a estratégia de espera.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void awaitSpace() throws InterruptedException {
+        if (count < buffer.length) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        if (waitStrategy.isBlocking()) {
+            notFull.await();
+            while (count == buffer.length) {
+                profiler.recordEmptyWakeup(ContentionSite.FIFO_NOT_FULL);
+                notFull.await();
+            }
+        } else {
+            int attempts = 0;
+            while (count == buffer.length) {
+                lock.unlock(); // Libera o lock para que um consumidor possa remover itens
+                try {
+                    attempts = waitStrategy.idle(attempts);
+                } finally {
+                    lock.lock();
+                }
+            }
+        }
+        profiler.recordBlocked(ContentionSite.FIFO_NOT_FULL, System.nanoTime() - blockedSince);
+    }
+
+    /**
+     * Aguarda até que haja ao menos um item no buffer, conforme a estratégia de espera.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private void awaitItem() throws InterruptedException {
+        if (count > 0) {
+            return;
+        }
+        long blockedSince = System.nanoTime();
+        if (waitStrategy.isBlocking()) {
+            notEmpty.await();
+            while (count == 0) {
+                profiler.recordEmptyWakeup(ContentionSite.FIFO_NOT_EMPTY);
+                notEmpty.await();
+            }
+        } else {
+            int attempts = 0;
+            while (count == 0) {
+                lock.unlock(); // Libera o lock para que um produtor possa inserir itens
+                try {
+                    attempts = waitStrategy.idle(attempts);
+                } finally {
+                    lock.lock();
+                }
+            }
+        }
+        profiler.recordBlocked(ContentionSite.FIFO_NOT_EMPTY, System.nanoTime() - blockedSince);
+    }
+
+    /**
+     * Aguarda até que haja espaço no buffer ou até o prazo, conforme a estratégia de espera.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @param deadline Prazo, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se há espaço; false se o prazo terminou com o buffer cheio.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private boolean awaitSpace(long deadline) throws InterruptedException {
+        return awaitUntil(true, deadline);
+    }
+
+    /**
+     * Aguarda até que haja ao menos um item no buffer ou até o prazo, conforme a estratégia de espera.
+     * Pré-condição: o lock deve estar adquirido pela thread atual; continua adquirido no retorno.
+     * @param deadline Prazo, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se há um item; false se o prazo terminou com o buffer vazio.
+     * @throws InterruptedException se a thread for interrompida enquanto aguarda.
+     */
+    private boolean awaitItem(long deadline) throws InterruptedException {
+        return awaitUntil(false, deadline);
+    }
+
+    private boolean awaitUntil(boolean space, long deadline) throws InterruptedException {
+        if (space ? count < buffer.length : count > 0) {
+            return true;
+        }
+        ContentionSite site = space ? ContentionSite.FIFO_NOT_FULL : ContentionSite.FIFO_NOT_EMPTY;
+        long blockedSince = System.nanoTime();
+        try {
+            return awaitUntil(space, deadline, site);
+        } finally {
+            profiler.recordBlocked(site, System.nanoTime() - blockedSince);
+        }
+    }
+
+    private boolean awaitUntil(boolean space, long deadline, ContentionSite site) throws InterruptedException {
+        Condition condition = space ? notFull : notEmpty;
+        int attempts = 0;
+        boolean woken = false;
+        while (space ? count == buffer.length : count == 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (waitStrategy.isBlocking()) {
+                if (woken) {
+                    profiler.recordEmptyWakeup(site);
+                }
+                woken = condition.awaitNanos(remaining) > 0; // Acordado antes do prazo
+            } else {
+                lock.unlock(); // Libera o lock para que o outro lado possa progredir
+                try {
+                    attempts = waitStrategy.idle(attempts);
+                } finally {
+                    lock.lock();
+                }
+            }
+        }
+        return true;
     }
 
     /**
      * Verifica se o buffer está cheio.
      * @return true se o buffer estiver cheio; caso contrário, false.
      */
-    public synchronized boolean isFull() {
-        return count == buffer.length;
+    public boolean isFull() {
+        lock.lock();
+        try {
+            return count == buffer.length;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Verifica se o buffer está vazio.
      * @return true se o buffer estiver vazio; caso contrário, false.
      */
-    public synchronized boolean isEmpty() {
-        return count == 0;
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return count == 0;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Retorna o número de itens atualmente no buffer.
      * @return Quantidade de itens no buffer.
      */
-    public synchronized int size() {
-        return count;
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna a capacidade do buffer.
+     * @return Quantidade máxima de itens no buffer.
+     */
+    public int capacity() {
+        lock.lock();
+        try {
+            return buffer.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Altera a capacidade do buffer copiando os itens, na ordem de entrada, para um novo array circular.
+     * Produtores e consumidores aguardam o lock durante a cópia e continuam em seguida sem perceber a troca.
+     * Pré-condição: a nova capacidade não é menor que a quantidade de itens no buffer.
+     * Pós-condição: os itens e seus instantes de inserção são mantidos, na mesma ordem; se a capacidade
+     * aumentou, os produtores aguardando espaço são acordados.
+     * @param capacity Nova capacidade.
+     * @throws IllegalArgumentException se a capacidade não for positiva ou for menor que a quantidade de itens.
+     */
+    public void resize(int capacity) {
+        lock.lock();
+        try {
+            if (capacity <= 0 || capacity < count) {
+                throw new IllegalArgumentException("Capacidade " + capacity + " não comporta os " + count
+                        + " itens do buffer.");
+            }
+            int[] resized = new int[capacity];
+            long[] resizedStamps = new long[capacity];
+            int firstPart = Math.min(count, buffer.length - head); // Trecho até o fim do array circular
+            System.arraycopy(buffer, head, resized, 0, firstPart);
+            System.arraycopy(buffer, 0, resized, firstPart, count - firstPart);
+            System.arraycopy(stamps, head, resizedStamps, 0, firstPart);
+            System.arraycopy(stamps, 0, resizedStamps, firstPart, count - firstPart);
+            boolean grew = capacity > buffer.length;
+            buffer = resized;
+            stamps = resizedStamps;
+            head = 0;
+            tail = count % capacity;
+            if (grew) {
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Retorna uma cópia dos itens atualmente no buffer.
      * @return Array contendo os itens do buffer, na ordem de entrada.
      */
-    public synchronized int[] getContents() {
-        int[] contents = new int[count];
-        for (int i = 0; i < count; i++) {
-            contents[i] = buffer[(head + i) % buffer.length];
+    public int[] getContents() {
+        lock.lock();
+        try {
+            int[] contents = new int[count];
+            for (int i = 0; i < count; i++) {
+                contents[i] = buffer[(head + i) % buffer.length];
+            }
+            return contents;
+        } finally {
+            lock.unlock();
         }
-        return contents;
     }
 }
@@ -0,0 +1,256 @@
+package prodconsumsemaphore.controller;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Classe MappedFIFO que implementa um buffer circular sem bloqueio em um arquivo mapeado em memória, para um
+ * produtor e um consumidor que podem estar em processos diferentes do mesmo host.
+ * O protocolo é o mesmo da {@link SpscFIFO}: a cauda é escrita apenas pelo produtor e a cabeça apenas pelo
+ * consumidor, ambas publicadas com semântica acquire/release, mas as sequências e os slots ficam no arquivo em
+ * vez do heap. Os itens passam de um processo ao outro pelas páginas compartilhadas, sem cópias nem sockets, e
+ * continuam no arquivo quando o consumidor é reiniciado: ele retoma a partir da cabeça gravada.
+ * <p>
+ * Layout do arquivo, na ordem de bytes nativa:
+ * <pre>
+ *   0   magic (int), versão (int), capacidade (int), tamanho do anel (int)
+ *   64  cauda (long), sozinha em sua linha de cache
+ *   128 cabeça (long), sozinha em sua linha de cache
+ *   192 slots de 16 bytes: valor (int), 4 bytes livres, instante da inserção (long)
+ * </pre>
+ * Os instantes vêm de {@link System#nanoTime()}, que no Linux usa o relógio monotônico do sistema e pode ser
+ * comparado entre processos do mesmo host.
+ * <p>
+ * O sistema operacional grava as páginas no disco quando quiser; o conteúdo sobrevive ao reinício dos processos,
+ * mas não a uma queda do host.
+ */
+public class MappedFIFO implements RingBuffer, AutoCloseable {
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int MAGIC = 0x50434D46; // "PCMF"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int LENGTH_OFFSET = 12;
+    private static final int TAIL_OFFSET = 64;
+    private static final int HEAD_OFFSET = 128;
+    private static final int SLOTS_OFFSET = 192;
+    private static final int SLOT_SIZE = 16;
+    private static final int STAMP_OFFSET = 8; // Posição do instante dentro do slot
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private long cachedHead; // Cópia local da cabeça, usada apenas pelo produtor
+    private long cachedTail; // Cópia local da cauda, usada apenas pelo consumidor
+
+    /**
+     * Construtor da classe MappedFIFO.
+     * Cria e inicializa o arquivo se ele ainda não existir; caso contrário, abre o anel existente com os itens
+     * e as sequências que ele já contém. A verificação e a inicialização do cabeçalho são feitas sob um lock do
+     * arquivo, então produtor e consumidor podem ser iniciados ao mesmo tempo.
+     * Pré-condição: no máximo um processo produtor e um processo consumidor usam o arquivo ao mesmo tempo.
+     * @param file Arquivo que guarda o buffer.
+     * @param size Quantidade máxima de itens no buffer; deve ser igual à de um arquivo existente.
+     * @throws IllegalArgumentException se o tamanho não for positivo, ou se o arquivo existir com outro formato
+     *                                  ou outra capacidade.
+     * @throws IOException se o arquivo não puder ser aberto ou mapeado.
+     */
+    public MappedFIFO(Path file, int size) throws IOException {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Tamanho do buffer deve ser positivo: " + size);
+        }
+        int length = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        long fileSize = SLOTS_OFFSET + (long) length * SLOT_SIZE;
+        this.file = file;
+        this.capacity = size;
+        this.mask = length - 1;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock(); // Serializa a inicialização entre processos
+            try {
+                long existingSize = channel.size();
+                if (existingSize != 0 && existingSize < fileSize) {
+                    throw new IllegalArgumentException("Arquivo não contém um buffer compatível: " + file);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+                if (existingSize == 0) {
+                    initialize(length);
+                } else {
+                    validate(length);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        cachedHead = (long) LONGS.getAcquire(buffer, HEAD_OFFSET);
+        cachedTail = (long) LONGS.getAcquire(buffer, TAIL_OFFSET);
+    }
+
+    /**
+     * Grava o cabeçalho de um arquivo novo. O magic é escrito por último, com release, para que um arquivo
+     * interrompido no meio da inicialização seja rejeitado em vez de lido com campos incompletos.
+     */
+    private void initialize(int length) {
+        INTS.set(buffer, VERSION_OFFSET, VERSION);
+        INTS.set(buffer, CAPACITY_OFFSET, capacity);
+        INTS.set(buffer, LENGTH_OFFSET, length);
+        LONGS.set(buffer, TAIL_OFFSET, 0L);
+        LONGS.set(buffer, HEAD_OFFSET, 0L);
+        INTS.setRelease(buffer, MAGIC_OFFSET, MAGIC);
+    }
+
+    /**
+     * Confere se o cabeçalho de um arquivo existente corresponde a este buffer.
+     * @throws IllegalArgumentException se o formato, a versão ou a capacidade forem diferentes.
+     */
+    private void validate(int length) {
+        if ((int) INTS.getAcquire(buffer, MAGIC_OFFSET) != MAGIC
+                || (int) INTS.get(buffer, VERSION_OFFSET) != VERSION
+                || (int) INTS.get(buffer, LENGTH_OFFSET) != length) {
+            throw new IllegalArgumentException("Arquivo não contém um buffer compatível: " + file);
+        }
+        int existingCapacity = (int) INTS.get(buffer, CAPACITY_OFFSET);
+        if (existingCapacity != capacity) {
+            throw new IllegalArgumentException("O arquivo " + file + " guarda um buffer de capacidade "
+                    + existingCapacity + ", não " + capacity);
+        }
+    }
+
+    /**
+     * Tenta inserir um valor no buffer sem bloquear.
+     * Pré-condição: somente uma thread, de um único processo, chama este método.
+     * Pós-condição: se houver espaço, o valor fica visível ao consumidor assim que a cauda é publicada.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    @Override
+    public boolean offer(int value, long stamp) {
+        long currentTail = (long) LONGS.getOpaque(buffer, TAIL_OFFSET);
+        long wrapPoint = currentTail - capacity;
+        if (cachedHead <= wrapPoint) {
+            cachedHead = (long) LONGS.getAcquire(buffer, HEAD_OFFSET);
+            if (cachedHead <= wrapPoint) {
+                return false;
+            }
+        }
+        int offset = slotOffset(currentTail);
+        INTS.set(buffer, offset, value);
+        LONGS.set(buffer, offset + STAMP_OFFSET, stamp);
+        LONGS.setRelease(buffer, TAIL_OFFSET, currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear.
+     * Pré-condição: somente uma thread, de um único processo, chama este método.
+     * Pós-condição: se havia item, o slot é devolvido ao produtor assim que a cabeça é publicada.
+     * @return O valor removido, ou {@link #EMPTY} se o buffer estiver vazio.
+     */
+    @Override
+    public long poll() {
+        long currentHead = (long) LONGS.getOpaque(buffer, HEAD_OFFSET);
+        if (!available(currentHead)) {
+            return EMPTY;
+        }
+        int value = (int) INTS.get(buffer, slotOffset(currentHead));
+        LONGS.setRelease(buffer, HEAD_OFFSET, currentHead + 1);
+        return value;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear, junto com o instante da inserção.
+     * Se o consumidor parar entre a leitura do slot e a publicação da cabeça, o item é entregue de novo
+     * quando ele for reiniciado.
+     * Pré-condição: somente uma thread, de um único processo, chama este método.
+     * Pós-condição: se havia item, o slot é devolvido ao produtor assim que a cabeça é publicada.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se o buffer estiver vazio.
+     */
+    @Override
+    public boolean poll(StampedItem into) {
+        long currentHead = (long) LONGS.getOpaque(buffer, HEAD_OFFSET);
+        if (!available(currentHead)) {
+            return false;
+        }
+        int offset = slotOffset(currentHead);
+        into.set((int) INTS.get(buffer, offset), (long) LONGS.get(buffer, offset + STAMP_OFFSET));
+        LONGS.setRelease(buffer, HEAD_OFFSET, currentHead + 1);
+        return true;
+    }
+
+    /**
+     * Verifica se há item publicado na posição da cabeça, relendo a cauda apenas quando a cópia local indica
+     * buffer vazio.
+     */
+    private boolean available(long currentHead) {
+        if (currentHead >= cachedTail) {
+            cachedTail = (long) LONGS.getAcquire(buffer, TAIL_OFFSET);
+            return currentHead < cachedTail;
+        }
+        return true;
+    }
+
+    private int slotOffset(long sequence) {
+        return SLOTS_OFFSET + (int) (sequence & mask) * SLOT_SIZE;
+    }
+
+    @Override
+    public int size() {
+        long currentHead = (long) LONGS.getAcquire(buffer, HEAD_OFFSET);
+        long currentTail = (long) LONGS.getAcquire(buffer, TAIL_OFFSET);
+        return (int) Math.max(0, Math.min(capacity, currentTail - currentHead));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int[] getContents() {
+        long currentHead = (long) LONGS.getAcquire(buffer, HEAD_OFFSET);
+        long currentTail = (long) LONGS.getAcquire(buffer, TAIL_OFFSET);
+        int count = (int) Math.max(0, Math.min(capacity, currentTail - currentHead));
+        int[] contents = new int[count];
+        for (int i = 0; i < count; i++) {
+            contents[i] = (int) INTS.get(buffer, slotOffset(currentHead + i));
+        }
+        return contents;
+    }
+
+    /**
+     * Retorna o arquivo que guarda o buffer.
+     * @return Caminho do arquivo.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Fecha o canal do arquivo. O mapeamento continua válido até ser coletado pelo coletor de lixo, e o conteúdo
+     * permanece no arquivo para o próximo processo.
+     * Pré-condição: nenhuma thread deste processo usa mais o buffer.
+     * @throws IOException se o canal não puder ser fechado.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
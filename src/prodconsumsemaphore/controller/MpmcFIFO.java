@@ -0,0 +1,207 @@
+package prodconsumsemaphore.controller;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Classe MpmcFIFO que implementa um buffer circular sem bloqueio para vários produtores e vários consumidores.
+ * Cada slot possui um número de sequência que indica se está livre para o produtor ou pronto para o consumidor
+ * daquela volta do anel. Produtores e consumidores reservam slots com CAS em cursores separados (cauda e cabeça),
+ * em vez de disputarem um único mutex; a única contenção é entre threads do mesmo lado.
+ */
+public class MpmcFIFO extends MpmcHeadFields implements RingBuffer {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(MpmcHeadFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(MpmcTailFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int[] buffer;
+    private final long[] stamps; // Instante de inserção de cada slot
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Construtor da classe MpmcFIFO.
+     * O anel é arredondado para a próxima potência de dois, pois o protocolo de sequências usa o tamanho do anel
+     * como distância entre duas voltas, mas a capacidade lógica continua sendo exatamente {@code size}, como no
+     * {@link SpscFIFO}.
+     * @param size Quantidade máxima de itens no buffer.
+     */
+    public MpmcFIFO(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Tamanho do buffer deve ser positivo: " + size);
+        }
+        int length = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        buffer = new int[length];
+        stamps = new long[length];
+        sequences = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            sequences.set(i, i);
+        }
+        capacity = size;
+        mask = length - 1;
+    }
+
+    /**
+     * Tenta inserir um valor no buffer sem bloquear.
+     * Pré-condição: pode ser chamado por qualquer número de threads produtoras.
+     * Pós-condição: se houver espaço, o slot reservado é publicado ao consumidor após a escrita do valor.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    @Override
+    public boolean offer(int value, long stamp) {
+        long position = (long) TAIL.getVolatile(this);
+        int index;
+        while (true) {
+            index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (position - (long) HEAD.getVolatile(this) >= capacity) {
+                    return false; // Slot livre no anel, mas além da capacidade lógica
+                }
+                if (TAIL.compareAndSet(this, position, position + 1)) {
+                    break;
+                }
+                position = (long) TAIL.getVolatile(this);
+            } else if (difference < 0) {
+                return false; // O slot ainda guarda um item da volta anterior
+            } else {
+                position = (long) TAIL.getVolatile(this); // Outro produtor já reservou esta posição
+            }
+        }
+        buffer[index] = value;
+        stamps[index] = stamp;
+        sequences.setRelease(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear.
+     * Pré-condição: pode ser chamado por qualquer número de threads consumidoras.
+     * Pós-condição: se havia item, o slot é devolvido aos produtores para a próxima volta do anel.
+     * @return O valor removido, ou {@link #EMPTY} se o buffer estiver vazio.
+     */
+    @Override
+    public long poll() {
+        long position = claimHead();
+        if (position < 0) {
+            return EMPTY;
+        }
+        int index = (int) (position & mask);
+        int value = buffer[index];
+        sequences.setRelease(index, position + mask + 1);
+        return value;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear, junto com o instante da inserção.
+     * Pré-condição: pode ser chamado por qualquer número de threads consumidoras.
+     * Pós-condição: se havia item, o slot é devolvido aos produtores para a próxima volta do anel.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se o buffer estiver vazio.
+     */
+    @Override
+    public boolean poll(StampedItem into) {
+        long position = claimHead();
+        if (position < 0) {
+            return false;
+        }
+        int index = (int) (position & mask);
+        into.set(buffer[index], stamps[index]);
+        sequences.setRelease(index, position + mask + 1);
+        return true;
+    }
+
+    /**
+     * Reserva a posição da cabeça para o consumidor atual.
+     * @return A posição reservada, ou -1 se o buffer estiver vazio.
+     */
+    private long claimHead() {
+        long position = (long) HEAD.getVolatile(this);
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (HEAD.compareAndSet(this, position, position + 1)) {
+                    return position;
+                }
+                position = (long) HEAD.getVolatile(this);
+            } else if (difference < 0) {
+                return -1; // O slot ainda não foi publicado por nenhum produtor
+            } else {
+                position = (long) HEAD.getVolatile(this); // Outro consumidor já reservou esta posição
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long currentHead = (long) HEAD.getVolatile(this);
+        long currentTail = (long) TAIL.getVolatile(this);
+        return (int) Math.max(0, Math.min(capacity, currentTail - currentHead));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int[] getContents() {
+        long currentHead = (long) HEAD.getVolatile(this);
+        int count = size();
+        int[] contents = new int[count];
+        int published = 0;
+        for (int i = 0; i < count; i++) {
+            long position = currentHead + i;
+            int index = (int) (position & mask);
+            if (sequences.getAcquire(index) != position + 1) {
+                break; // Slot reservado mas ainda não publicado
+            }
+            contents[published++] = buffer[index];
+        }
+        return published == count ? contents : Arrays.copyOf(contents, published);
+    }
+}
+
+/**
+ * Preenchimento que separa os cursores do cabeçalho do objeto e dos campos vizinhos.
+ */
+abstract class MpmcLeftPadding {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * Cursor disputado pelos produtores.
+ */
+abstract class MpmcTailFields extends MpmcLeftPadding {
+    long tail;
+}
+
+/**
+ * Preenchimento entre os cursores dos produtores e dos consumidores.
+ */
+abstract class MpmcMiddlePadding extends MpmcTailFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * Cursor disputado pelos consumidores.
+ */
+abstract class MpmcHeadFields extends MpmcMiddlePadding {
+    long head;
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
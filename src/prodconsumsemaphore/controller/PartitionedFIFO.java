@@ -0,0 +1,256 @@
+package prodconsumsemaphore.controller;
+
+import common.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe PartitionedFIFO que implementa um buffer dividido em partições independentes, cada uma um
+ * {@link MpmcFIFO} próprio. O produtor escolhe a partição pelo hash da chave do item, e cada partição tem o seu
+ * consumidor: itens da mesma chave caem sempre na mesma partição e saem na ordem em que foram inseridos, enquanto
+ * itens de chaves diferentes não disputam nenhum cursor nem lock em comum. Não há ordem entre partições.
+ * <p>
+ * Para cada partição são medidos os itens inseridos e removidos, a ocupação vista pelo consumidor a cada remoção
+ * e o tempo de permanência no buffer. A assimetria ({@link #skew(List)}) compara a partição mais carregada com a
+ * média: chaves concentradas deixam uma partição, e o seu consumidor, com mais trabalho que as demais.
+ */
+public class PartitionedFIFO implements RingBuffer {
+    /**
+     * Métricas de uma partição.
+     *
+     * @param partition     Índice da partição.
+     * @param capacity      Capacidade da partição.
+     * @param size          Itens na partição no momento da leitura.
+     * @param enqueued      Itens inseridos na partição.
+     * @param dequeued      Itens removidos da partição.
+     * @param occupancyMean Ocupação média vista pelo consumidor a cada remoção, contando o item removido.
+     * @param occupancyMax  Maior ocupação vista pelo consumidor.
+     * @param queueLatency  Tempo de permanência dos itens da partição no buffer.
+     */
+    public record PartitionStats(int partition, int capacity, int size, long enqueued, long dequeued,
+                                 double occupancyMean, int occupancyMax, LatencyHistogram.Summary queueLatency) {
+    }
+
+    /**
+     * Estado de uma partição: o anel e as suas métricas ficam em objetos próprios, longe dos das outras partições.
+     */
+    private static final class Partition {
+        final MpmcFIFO ring;
+        final LongAdder enqueued = new LongAdder();
+        final LongAdder dequeued = new LongAdder();
+        final LongAdder occupancySum = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+        volatile int occupancyMax; // Escrito apenas pelo consumidor da partição
+
+        Partition(int capacity) {
+            this.ring = new MpmcFIFO(capacity);
+        }
+    }
+
+    private final Partition[] partitions;
+    private final int capacity;
+
+    /**
+     * Construtor da classe PartitionedFIFO.
+     * A capacidade é dividida entre as partições, e as primeiras recebem um slot a mais quando a divisão não é
+     * exata; a soma das partições é exatamente {@code size}.
+     * @param size Capacidade total do buffer.
+     * @param partitionCount Quantidade de partições.
+     * @throws IllegalArgumentException se a capacidade ou a quantidade de partições não for positiva, ou se houver
+     *                                  mais partições que capacidade.
+     */
+    public PartitionedFIFO(int size, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Quantidade de partições deve ser positiva: " + partitionCount);
+        }
+        if (size < partitionCount) {
+            throw new IllegalArgumentException("Capacidade deve ser ao menos a quantidade de partições: " + size);
+        }
+        this.partitions = new Partition[partitionCount];
+        int perPartition = size / partitionCount;
+        int remainder = size % partitionCount;
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i < remainder ? perPartition + 1 : perPartition);
+        }
+        this.capacity = size;
+    }
+
+    /**
+     * Retorna a quantidade de partições.
+     * @return Quantidade de partições.
+     */
+    public int partitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Retorna a partição de uma chave. O hash é misturado antes da redução, para que chaves sequenciais não
+     * caiam em partições vizinhas com período igual à quantidade de partições.
+     * @param key Chave do item.
+     * @return Índice da partição, entre 0 e {@code partitionCount() - 1}.
+     */
+    public int partitionOf(int key) {
+        int hash = key * 0x9E3779B9; // Multiplicação de Fibonacci
+        hash ^= hash >>> 16;
+        return (int) (((hash & 0xFFFFFFFFL) * partitions.length) >>> 32);
+    }
+
+    /**
+     * Tenta inserir um valor usando o próprio valor como chave, sem bloquear.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se a partição da chave estiver cheia.
+     */
+    @Override
+    public boolean offer(int value, long stamp) {
+        return offer(value, value, stamp);
+    }
+
+    /**
+     * Tenta inserir um valor na partição da chave, sem bloquear.
+     * Pré-condição: pode ser chamado por qualquer número de threads produtoras.
+     * @param key Chave do item; itens com a mesma chave saem na ordem de inserção.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se a partição da chave estiver cheia.
+     */
+    public boolean offer(int key, int value, long stamp) {
+        Partition partition = partitions[partitionOf(key)];
+        if (!partition.ring.offer(value, stamp)) {
+            return false;
+        }
+        partition.enqueued.increment();
+        return true;
+    }
+
+    /**
+     * Tenta remover um valor de uma partição, sem bloquear, e registra a ocupação vista e o tempo de permanência.
+     * Pré-condição: cada partição deve ter um único consumidor chamando este método, para manter a ordem por chave.
+     * @param partition Índice da partição.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se a partição estiver vazia.
+     * @throws IndexOutOfBoundsException se a partição não existir.
+     */
+    public boolean poll(int partition, StampedItem into) {
+        Partition target = partitions[Objects.checkIndex(partition, partitions.length)];
+        if (!target.ring.poll(into)) {
+            return false;
+        }
+        // Inclui o item recém-removido; um produtor pode ter ocupado o slot liberado antes da leitura
+        int occupancy = Math.min(target.ring.size() + 1, target.ring.capacity());
+        target.dequeued.increment();
+        target.occupancySum.add(occupancy);
+        if (occupancy > target.occupancyMax) {
+            target.occupancyMax = occupancy;
+        }
+        target.latency.recordSince(into.getStamp());
+        return true;
+    }
+
+    /**
+     * Tenta remover um valor da primeira partição não vazia, sem bloquear. Não respeita a divisão das partições
+     * entre consumidores e existe apenas para quem precisa esvaziar o buffer inteiro; os consumidores devem usar
+     * {@link #poll(int, StampedItem)}.
+     * @return O valor removido, ou {@link #EMPTY} se todas as partições estiverem vazias.
+     */
+    @Override
+    public long poll() {
+        for (Partition partition : partitions) {
+            long value = partition.ring.poll();
+            if (value != EMPTY) {
+                partition.dequeued.increment();
+                return value;
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Tenta remover um valor da primeira partição não vazia, sem bloquear; veja {@link #poll()}.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se todas as partições estiverem vazias.
+     */
+    @Override
+    public boolean poll(StampedItem into) {
+        for (Partition partition : partitions) {
+            if (partition.ring.poll(into)) {
+                partition.dequeued.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions) {
+            size += partition.ring.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Retorna uma cópia aproximada dos itens atualmente no buffer, partição por partição.
+     * @return Array contendo os itens do buffer, na ordem de entrada dentro de cada partição.
+     */
+    @Override
+    public int[] getContents() {
+        List<int[]> parts = new ArrayList<>(partitions.length);
+        int length = 0;
+        for (Partition partition : partitions) {
+            int[] contents = partition.ring.getContents();
+            parts.add(contents);
+            length += contents.length;
+        }
+        int[] contents = new int[length];
+        int position = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, contents, position, part.length);
+            position += part.length;
+        }
+        return contents;
+    }
+
+    /**
+     * Retorna as métricas de cada partição.
+     * @return Uma lista com um elemento por partição, na ordem dos índices.
+     */
+    public List<PartitionStats> getPartitionStats() {
+        List<PartitionStats> stats = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            Partition partition = partitions[i];
+            long dequeued = partition.dequeued.sum();
+            stats.add(new PartitionStats(i, partition.ring.capacity(), partition.ring.size(),
+                    partition.enqueued.sum(), dequeued,
+                    dequeued == 0 ? 0 : (double) partition.occupancySum.sum() / dequeued, partition.occupancyMax,
+                    partition.latency.summary()));
+        }
+        return stats;
+    }
+
+    /**
+     * Calcula a assimetria de carga entre as partições: os itens inseridos na partição mais carregada divididos
+     * pela média das partições. 1 indica carga igual; com {@code P} partições, {@code P} indica que todos os
+     * itens caíram em uma única partição.
+     * @param stats Métricas das partições, como devolvidas por {@link #getPartitionStats()}.
+     * @return A assimetria, ou 0 se nenhum item foi inserido.
+     */
+    public static double skew(List<PartitionStats> stats) {
+        long total = 0;
+        long max = 0;
+        for (PartitionStats partition : stats) {
+            total += partition.enqueued();
+            max = Math.max(max, partition.enqueued());
+        }
+        return total == 0 ? 0 : (double) max * stats.size() / total;
+    }
+}
@@ -0,0 +1,337 @@
+package prodconsumsemaphore.controller;
+
+import common.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classe PriorityFIFO que implementa um buffer com várias faixas de prioridade dividindo uma única capacidade.
+ * Dentro de cada faixa os itens saem na ordem de entrada; entre as faixas, a remoção segue um
+ * <i>deficit round-robin</i>: a cada rodada, a faixa {@code i} entrega até {@code weights[i]} itens antes de passar a
+ * vez, de modo que as faixas de peso alto (por exemplo, mensagens de controle) atravessam um acúmulo sem esperar
+ * pelo tráfego de volume, e as de peso baixo continuam avançando.
+ * <p>
+ * Os slots formam um único conjunto compartilhado: cada faixa é uma lista encadeada por índices sobre os mesmos
+ * arrays, e os slots livres ficam em uma lista própria. Um mapa de bits das faixas não vazias permite encontrar a
+ * próxima faixa da rodada em tempo constante, então inserção e remoção são O(1) e não alocam objetos.
+ * As operações são protegidas por um {@link ReentrantLock} curto e nunca aguardam: como nos buffers sem bloqueio,
+ * quem chama decide como esperar quando o buffer está cheio ou vazio.
+ * <p>
+ * Para cada faixa são medidos a ocupação, os itens inseridos e removidos e o tempo de permanência no buffer.
+ */
+public class PriorityFIFO implements RingBuffer {
+    /**
+     * Maior quantidade de faixas, limitada pelo tamanho do mapa de bits.
+     */
+    public static final int MAX_LANES = Long.SIZE;
+
+    /**
+     * Métricas de uma faixa.
+     *
+     * @param lane         Índice da faixa; 0 é a de maior prioridade.
+     * @param weight       Itens entregues pela faixa a cada rodada.
+     * @param size         Itens na faixa no momento da leitura.
+     * @param enqueued     Itens inseridos na faixa.
+     * @param dequeued     Itens removidos da faixa, inclusive os descartados por {@link #dropOldest}.
+     * @param queueLatency Tempo de permanência dos itens da faixa no buffer.
+     */
+    public record LaneStats(int lane, int weight, int size, long enqueued, long dequeued,
+                            LatencyHistogram.Summary queueLatency) {
+    }
+
+    private static final int NONE = -1; // Fim de uma lista de slots
+
+    private final int[] values;
+    private final long[] stamps; // Instante de inserção de cada slot
+    private final int[] next; // Próximo slot da mesma lista (faixa ou livres)
+    private final int[] weights;
+    private final int[] heads; // Primeiro slot de cada faixa
+    private final int[] tails; // Último slot de cada faixa
+    private final int[] sizes;
+    private final int[] deficits; // Itens que a faixa ainda pode entregar na rodada atual
+    private final long[] enqueued;
+    private final long[] dequeued;
+    private final LatencyHistogram[] latencies;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int freeHead;
+    private int count;
+    private long nonEmpty; // Bit i ligado quando a faixa i tem itens
+    private int current; // Faixa da vez na rodada
+
+    /**
+     * Construtor da classe PriorityFIFO.
+     * @param size Capacidade total, dividida entre todas as faixas.
+     * @param weights Peso de cada faixa, da maior prioridade (índice 0) para a menor; a quantidade de pesos é a
+     *                quantidade de faixas.
+     * @throws IllegalArgumentException se a capacidade não for positiva, se não houver entre 1 e
+     *                                  {@link #MAX_LANES} faixas ou se algum peso não for positivo.
+     */
+    public PriorityFIFO(int size, int... weights) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Capacidade deve ser positiva: " + size);
+        }
+        if (weights.length < 1 || weights.length > MAX_LANES) {
+            throw new IllegalArgumentException("Quantidade de faixas deve estar entre 1 e " + MAX_LANES + ": "
+                    + weights.length);
+        }
+        for (int weight : weights) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Pesos das faixas devem ser positivos: " + weight);
+            }
+        }
+        int lanes = weights.length;
+        this.values = new int[size];
+        this.stamps = new long[size];
+        this.next = new int[size];
+        for (int i = 0; i < size; i++) {
+            next[i] = i + 1 < size ? i + 1 : NONE;
+        }
+        this.weights = weights.clone();
+        this.heads = new int[lanes];
+        this.tails = new int[lanes];
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+        this.sizes = new int[lanes];
+        this.deficits = new int[lanes];
+        this.enqueued = new long[lanes];
+        this.dequeued = new long[lanes];
+        this.latencies = new LatencyHistogram[lanes];
+        for (int i = 0; i < lanes; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        this.freeHead = 0;
+        this.current = lanes - 1; // A primeira rodada começa pela faixa 0
+    }
+
+    /**
+     * Retorna a quantidade de faixas.
+     * @return Quantidade de faixas.
+     */
+    public int laneCount() {
+        return weights.length;
+    }
+
+    /**
+     * Tenta inserir um valor na faixa de menor prioridade, sem bloquear.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    @Override
+    public boolean offer(int value, long stamp) {
+        return offer(weights.length - 1, value, stamp);
+    }
+
+    /**
+     * Tenta inserir um valor em uma faixa, sem bloquear.
+     * @param lane Faixa do item; 0 é a de maior prioridade.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se a capacidade total estiver ocupada.
+     * @throws IndexOutOfBoundsException se a faixa não existir.
+     */
+    public boolean offer(int lane, int value, long stamp) {
+        Objects.checkIndex(lane, weights.length);
+        lock.lock();
+        try {
+            int slot = freeHead;
+            if (slot == NONE) {
+                return false;
+            }
+            freeHead = next[slot];
+            values[slot] = value;
+            stamps[slot] = stamp;
+            next[slot] = NONE;
+            if (tails[lane] == NONE) {
+                heads[lane] = slot;
+                nonEmpty |= 1L << lane;
+            } else {
+                next[tails[lane]] = slot;
+            }
+            tails[lane] = slot;
+            sizes[lane]++;
+            enqueued[lane]++;
+            count++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long poll() {
+        int lane;
+        long stamp;
+        int value;
+        lock.lock();
+        try {
+            if (count == 0) {
+                return EMPTY;
+            }
+            lane = nextLane();
+            stamp = stamps[heads[lane]];
+            value = remove(lane);
+        } finally {
+            lock.unlock();
+        }
+        latencies[lane].recordSince(stamp);
+        return value;
+    }
+
+    @Override
+    public boolean poll(StampedItem into) {
+        int lane;
+        lock.lock();
+        try {
+            if (count == 0) {
+                return false;
+            }
+            lane = nextLane();
+            long stamp = stamps[heads[lane]];
+            into.set(remove(lane), stamp);
+        } finally {
+            lock.unlock();
+        }
+        latencies[lane].recordSince(into.getStamp()); // Fora do lock: o histograma aceita gravações concorrentes
+        return true;
+    }
+
+    /**
+     * Descarta o item mais antigo da faixa de menor prioridade que tenha itens, para dar lugar a um item novo da
+     * faixa informada. Faixas de prioridade maior que a do item novo nunca perdem itens. Ao contrário de
+     * {@link #poll(StampedItem)}, não consome o crédito da rodada nem registra tempo de permanência: o descarte não
+     * altera a vez das faixas nem as latências medidas.
+     * @param lane Faixa do item que precisa de espaço; 0 é a de maior prioridade.
+     * @param into Item reutilizável que recebe o valor descartado.
+     * @return true se um item foi descartado; false se apenas faixas de prioridade maior que {@code lane} têm itens.
+     * @throws IndexOutOfBoundsException se a faixa não existir.
+     */
+    public boolean dropOldest(int lane, StampedItem into) {
+        Objects.checkIndex(lane, weights.length);
+        lock.lock();
+        try {
+            int victim = Long.SIZE - 1 - Long.numberOfLeadingZeros(nonEmpty); // -1 com o buffer vazio
+            if (victim < lane) {
+                return false;
+            }
+            long stamp = stamps[heads[victim]];
+            into.set(unlink(victim), stamp);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escolhe a faixa da próxima remoção. Permanece na faixa atual enquanto ela tiver itens e crédito na rodada;
+     * senão passa para a próxima faixa não vazia, que recebe o crédito do seu peso.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e o buffer não deve estar vazio.
+     */
+    private int nextLane() {
+        if ((nonEmpty & (1L << current)) != 0 && deficits[current] > 0) {
+            return current;
+        }
+        long after = current + 1 < MAX_LANES ? nonEmpty & (-1L << (current + 1)) : 0;
+        current = Long.numberOfTrailingZeros(after != 0 ? after : nonEmpty);
+        deficits[current] += weights[current];
+        return current;
+    }
+
+    /**
+     * Remove o primeiro item de uma faixa, consumindo um crédito da rodada.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e a faixa não deve estar vazia.
+     * @return O valor removido.
+     */
+    private int remove(int lane) {
+        if (sizes[lane] > 1) {
+            deficits[lane]--;
+        }
+        return unlink(lane);
+    }
+
+    /**
+     * Remove o primeiro item de uma faixa e devolve o slot à lista de livres, sem consumir crédito da rodada.
+     * Pré-condição: o lock deve estar adquirido pela thread atual e a faixa não deve estar vazia.
+     * @return O valor removido.
+     */
+    private int unlink(int lane) {
+        int slot = heads[lane];
+        int value = values[slot];
+        heads[lane] = next[slot];
+        if (heads[lane] == NONE) {
+            tails[lane] = NONE;
+            nonEmpty &= ~(1L << lane);
+            deficits[lane] = 0; // Uma faixa vazia não acumula crédito para a próxima rodada
+        }
+        next[slot] = freeHead;
+        freeHead = slot;
+        sizes[lane]--;
+        dequeued[lane]++;
+        count--;
+        return value;
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Retorna uma cópia dos itens atualmente no buffer, da faixa de maior prioridade para a de menor.
+     * @return Array contendo os itens do buffer, na ordem de entrada dentro de cada faixa.
+     */
+    @Override
+    public int[] getContents() {
+        lock.lock();
+        try {
+            int[] contents = new int[count];
+            int position = 0;
+            for (int lane = 0; lane < weights.length; lane++) {
+                for (int slot = heads[lane]; slot != NONE; slot = next[slot]) {
+                    contents[position++] = values[slot];
+                }
+            }
+            return contents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Retorna as métricas de cada faixa.
+     * @return Uma lista com um elemento por faixa, da maior prioridade para a menor.
+     */
+    public List<LaneStats> getLaneStats() {
+        int[] laneSizes;
+        long[] laneEnqueued;
+        long[] laneDequeued;
+        lock.lock();
+        try {
+            laneSizes = sizes.clone();
+            laneEnqueued = enqueued.clone();
+            laneDequeued = dequeued.clone();
+        } finally {
+            lock.unlock();
+        }
+        List<LaneStats> stats = new ArrayList<>(weights.length);
+        for (int lane = 0; lane < weights.length; lane++) { // Resumos dos histogramas calculados fora do lock
+            stats.add(new LaneStats(lane, weights[lane], laneSizes[lane], laneEnqueued[lane], laneDequeued[lane],
+                    latencies[lane].summary()));
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,65 @@
+package prodconsumsemaphore.controller;
+
+/**
+ * Interface dos buffers circulares sem bloqueio usados pelo {@link ConsumerProducer}.
+ * As operações nunca bloqueiam: quando o buffer está cheio ou vazio, cabe a quem chama decidir como aguardar.
+ * Cada slot guarda, junto com o valor, o instante em que o item foi inserido, para medir o tempo de permanência
+ * no buffer.
+ */
+public interface RingBuffer {
+    /**
+     * Valor retornado por {@link #poll()} quando o buffer está vazio. Fica fora do intervalo de {@code int},
+     * portanto nunca se confunde com um item válido.
+     */
+    long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Tenta inserir um valor no buffer sem bloquear, sem registrar o instante da inserção.
+     * @param value Valor a ser inserido no buffer.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    default boolean offer(int value) {
+        return offer(value, 0L);
+    }
+
+    /**
+     * Tenta inserir um valor no buffer sem bloquear.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    boolean offer(int value, long stamp);
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear.
+     * @return O valor removido, ou {@link #EMPTY} se o buffer estiver vazio.
+     */
+    long poll();
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear, copiando o valor e o instante da inserção para o item
+     * informado.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se o buffer estiver vazio.
+     */
+    boolean poll(StampedItem into);
+
+    /**
+     * Retorna o número aproximado de itens no buffer.
+     * O valor é exato apenas quando produtores e consumidores estão parados.
+     * @return Quantidade de itens no buffer.
+     */
+    int size();
+
+    /**
+     * Retorna a capacidade do buffer.
+     * @return Quantidade máxima de itens.
+     */
+    int capacity();
+
+    /**
+     * Retorna uma cópia aproximada dos itens atualmente no buffer, destinada apenas à visualização.
+     * @return Array contendo os itens do buffer, na ordem de entrada.
+     */
+    int[] getContents();
+}
@@ -1,27 +1,40 @@
 package prodconsumsemaphore.controller;
 
+import common.EventType;
+import common.LogTail;
+import common.view.DownsampledXYDataset;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.data.xy.XYSeries;
-import org.jfree.data.xy.XYSeriesCollection;
 import prodconsumsemaphore.view.ChartCustomizer;
 import prodconsumsemaphore.view.ProdutorConsumidorGUI;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Controlador da simulação que gerencia a execução das threads de produção e consumo,
  * além de atualizar o gráfico e a interface gráfica.
+ * <p>
+ * As threads da simulação nunca tocam em componentes Swing: as linhas de log chegam pela thread de escrita do
+ * log de eventos e ficam em um {@link LogTail} limitado, e contadores e histogramas são atualizados sem bloqueio.
+ * Um {@link javax.swing.Timer} na EDT lê tudo isso a cada quadro e atualiza a tela de uma vez, então a
+ * velocidade da interface não afeta a vazão medida.
  */
-public class SimulationController {
+public class SimulationController implements SimulationListener {
+    private static final int FRAME_MILLIS = 100; // Intervalo entre dois quadros da interface
+    private static final int FRAMES_PER_CHART_POINT = 5; // Um ponto no gráfico a cada 500 ms
+    private static final int LOG_LINES_PER_FRAME = 500; // Linhas mantidas entre dois quadros; as mais antigas são descartadas
+    private static final double CHART_WINDOW_SECONDS = 3600; // Pontos mais antigos saem do gráfico
+    private static final int CHART_POINTS_PER_TIER = 600; // Cinco minutos de pontos originais; o resto é reduzido
+
     private ConsumerProducer consumerProducer;
-    private final XYSeries bufferSeries;
-    private Timer chartUpdateTimer;
+    private final DownsampledXYDataset bufferDataset;
+    private final int bufferSeries;
+    private final LogTail pendingLog = new LogTail(LOG_LINES_PER_FRAME);
+    private Timer frameTimer;
+    private int frameCount;
     private long startTime;
     private final ProdutorConsumidorGUI gui;
 
@@ -31,21 +44,23 @@ public class SimulationController {
      */
     public SimulationController(ProdutorConsumidorGUI gui) {
         this.gui = gui;
-        bufferSeries = new XYSeries("Itens no Buffer");
+        bufferDataset = new DownsampledXYDataset(CHART_WINDOW_SECONDS, CHART_POINTS_PER_TIER);
+        bufferSeries = bufferDataset.addSeries("Itens no Buffer");
     }
 
     /**
      * Cria e retorna um painel de gráfico para exibir a quantidade de itens no buffer ao longo do tempo.
+     * O gráfico mostra a última hora, com os pontos mais antigos reduzidos a mínimos e máximos, então o custo
+     * de desenhá-lo não cresce com a duração da simulação.
      * Pré-condição: A série de dados bufferSeries deve estar inicializada.
      * @return Painel de gráfico do buffer.
      */
     public ChartPanel getChartPanel() {
-        XYSeriesCollection dataset = new XYSeriesCollection(bufferSeries);
         JFreeChart chart = ChartFactory.createXYLineChart(
                 "Itens no Buffer ao Longo do Tempo",
                 "Tempo (s)",
                 "Quantidade de Itens",
-                dataset,
+                bufferDataset,
                 PlotOrientation.VERTICAL,
                 true,
                 true,
@@ -68,53 +83,71 @@ public class SimulationController {
      * @param consumerSpeed Velocidade de consumo (tempo de espera entre consumos).
      */
     public void startSimulation(int bufferSize, int producerSpeed, int consumerSpeed) {
+        stopSimulation();
+        pendingLog.clear();
+        bufferDataset.clear(); // O tempo recomeça do zero
         consumerProducer = new ConsumerProducer(bufferSize, producerSpeed, consumerSpeed, this);
         consumerProducer.start();
 
         startTime = System.currentTimeMillis();
+        frameCount = 0;
 
-        chartUpdateTimer = new Timer();
-        chartUpdateTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                SwingUtilities.invokeLater(() -> {
-                    long elapsedMillis = System.currentTimeMillis() - startTime;
-                    double elapsedSeconds = elapsedMillis / 1000.0;
-                    bufferSeries.add(elapsedSeconds, consumerProducer.getBufferSize());
-                    updateBufferDisplay();
-                });
-            }
-        }, 0, 500); // Atualiza o gráfico a cada 500 ms
+        frameTimer = new Timer(FRAME_MILLIS, _ -> renderFrame());
+        frameTimer.setInitialDelay(0);
+        frameTimer.setCoalesce(true); // Se a EDT atrasar, quadros acumulados viram um só
+        frameTimer.start();
     }
 
     /**
      * Para a simulação interrompendo as threads de produção e consumo e cancelando o temporizador.
+     * Pré-condição: deve ser chamado na EDT.
      */
     public void stopSimulation() {
         if (consumerProducer != null) {
             consumerProducer.stop();
         }
-        if (chartUpdateTimer != null) {
-            chartUpdateTimer.cancel();
+        if (frameTimer != null) {
+            frameTimer.stop();
+            frameTimer = null;
+            renderFrame(); // Mostra o estado final e as últimas linhas de log
         }
     }
 
     /**
-     * Atualiza a exibição do buffer na interface gráfica.
-     * Pré-condição: A simulação deve estar em execução.
-     * Pós-condição: O display do buffer na GUI é atualizado.
+     * Desenha um quadro: lê o snapshot da simulação e as linhas de log acumuladas desde o quadro anterior e
+     * atualiza a interface de uma só vez.
+     * Pré-condição: deve ser chamado na EDT, com uma simulação iniciada.
      */
-    public void updateBufferDisplay() {
-        int[] bufferContents = consumerProducer.getBufferContents();
-        gui.updateBufferDisplay(convertToList(bufferContents));
+    private void renderFrame() {
+        SimulationSnapshot snapshot = consumerProducer.snapshot();
+        if (frameCount++ % FRAMES_PER_CHART_POINT == 0) {
+            double elapsedSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+            bufferDataset.add(bufferSeries, elapsedSeconds, snapshot.bufferContents().length);
+        }
+        gui.updateBufferDisplay(convertToList(snapshot.bufferContents()));
+        gui.updateLatencyDisplay(snapshot.queueLatency(), snapshot.endToEndLatency());
+        pendingLog.drainTo(gui::appendLog);
     }
 
     /**
-     * Exibe uma mensagem de log na interface gráfica.
+     * Guarda uma linha de log para o próximo quadro. Chamado pela thread de escrita do log de eventos, nunca
+     * pela EDT; se a interface não acompanhar, apenas as linhas mais recentes são mantidas.
      * @param message Mensagem a ser exibida.
      */
+    @Override
     public void logMessage(String message) {
-        gui.logMessage(message);
+        pendingLog.add(message);
+    }
+
+    /**
+     * Guarda uma linha de log com o tipo do evento, usado pelo filtro do log de atividades.
+     * Chamado pela thread de escrita do log de eventos, nunca pela EDT.
+     * @param type Tipo do evento.
+     * @param line Texto formatado do evento.
+     */
+    @Override
+    public void logEvent(EventType type, String line) {
+        pendingLog.write(type, line);
     }
 
     /**
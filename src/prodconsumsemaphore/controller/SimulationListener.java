@@ -0,0 +1,25 @@
+package prodconsumsemaphore.controller;
+
+import common.EventType;
+
+/**
+ * Interface que recebe os eventos de uma simulação do {@link ConsumerProducer}.
+ * Separa as threads de produção e consumo da interface gráfica, permitindo executar a simulação sem Swing.
+ */
+public interface SimulationListener {
+    /**
+     * Recebe uma mensagem de log gerada pela simulação.
+     * @param message Mensagem a ser registrada.
+     */
+    void logMessage(String message);
+
+    /**
+     * Recebe uma linha de log junto com o tipo do evento que a gerou, para ouvintes que filtram o log.
+     * Por padrão, repassa apenas o texto para {@link #logMessage(String)}.
+     * @param type Tipo do evento.
+     * @param line Texto formatado do evento.
+     */
+    default void logEvent(EventType type, String line) {
+        logMessage(line);
+    }
+}
@@ -0,0 +1,18 @@
+package prodconsumsemaphore.controller;
+
+import common.LatencyHistogram;
+
+/**
+ * Estado de uma simulação do {@link ConsumerProducer} em um instante, lido pela interface gráfica uma vez por
+ * quadro. As threads de produção e consumo nunca montam snapshots: apenas atualizam contadores e histogramas
+ * sem bloqueio, e quem desenha a tela lê esses valores no seu próprio ritmo.
+ *
+ * @param bufferContents  Itens no buffer, na ordem de entrada.
+ * @param producedCount   Itens produzidos desde o início da simulação.
+ * @param consumedCount   Itens consumidos desde o início da simulação.
+ * @param queueLatency    Resumo do tempo de permanência no buffer.
+ * @param endToEndLatency Resumo da latência de ponta a ponta.
+ */
+public record SimulationSnapshot(int[] bufferContents, long producedCount, long consumedCount,
+                                 LatencyHistogram.Summary queueLatency, LatencyHistogram.Summary endToEndLatency) {
+}
@@ -0,0 +1,176 @@
+package prodconsumsemaphore.controller;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Classe SpscFIFO que implementa um buffer circular sem bloqueio para exatamente um produtor e um consumidor.
+ * Usa o mesmo armazenamento em {@code int[]} da classe {@link FIFO}, mas troca o monitor e os semáforos por
+ * sequências de cabeça e cauda publicadas com semântica acquire/release. Cada sequência fica isolada em sua
+ * própria linha de cache (campos de preenchimento) e cada lado guarda uma cópia local da sequência do outro,
+ * de modo que a linha compartilhada só é lida quando a cópia indica buffer cheio ou vazio.
+ */
+public class SpscFIFO extends SpscConsumerFields implements RingBuffer {
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(SpscConsumerFields.class, "head", long.class);
+            TAIL = lookup.findVarHandle(SpscProducerFields.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final int[] buffer;
+    private final long[] stamps; // Instante de inserção de cada slot
+    private final int capacity;
+    private final int mask;
+
+    /**
+     * Construtor da classe SpscFIFO.
+     * O armazenamento é arredondado para a próxima potência de dois para permitir o cálculo do índice com
+     * máscara, mas a capacidade lógica continua sendo exatamente {@code size}.
+     * @param size Quantidade máxima de itens no buffer.
+     */
+    public SpscFIFO(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Tamanho do buffer deve ser positivo: " + size);
+        }
+        int length = Integer.highestOneBit(size) == size ? size : Integer.highestOneBit(size) << 1;
+        buffer = new int[length];
+        stamps = new long[length];
+        capacity = size;
+        mask = length - 1;
+    }
+
+    /**
+     * Tenta inserir um valor no buffer sem bloquear.
+     * Pré-condição: somente a thread produtora chama este método.
+     * Pós-condição: se houver espaço, o valor fica visível ao consumidor assim que a cauda é publicada.
+     * @param value Valor a ser inserido no buffer.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     * @return true se o valor foi inserido; false se o buffer estiver cheio.
+     */
+    @Override
+    public boolean offer(int value, long stamp) {
+        long currentTail = tail;
+        long wrapPoint = currentTail - capacity;
+        if (cachedHead <= wrapPoint) {
+            cachedHead = (long) HEAD.getAcquire(this);
+            if (cachedHead <= wrapPoint) {
+                return false;
+            }
+        }
+        int index = (int) (currentTail & mask);
+        buffer[index] = value;
+        stamps[index] = stamp;
+        TAIL.setRelease(this, currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear.
+     * Pré-condição: somente a thread consumidora chama este método.
+     * Pós-condição: se havia item, o slot é devolvido ao produtor assim que a cabeça é publicada.
+     * @return O valor removido, ou {@link #EMPTY} se o buffer estiver vazio.
+     */
+    @Override
+    public long poll() {
+        long currentHead = head;
+        if (!available(currentHead)) {
+            return EMPTY;
+        }
+        int value = buffer[(int) (currentHead & mask)];
+        HEAD.setRelease(this, currentHead + 1);
+        return value;
+    }
+
+    /**
+     * Tenta remover um valor do buffer sem bloquear, junto com o instante da inserção.
+     * Pré-condição: somente a thread consumidora chama este método.
+     * Pós-condição: se havia item, o slot é devolvido ao produtor assim que a cabeça é publicada.
+     * @param into Item reutilizável que recebe o valor removido.
+     * @return true se um valor foi removido; false se o buffer estiver vazio.
+     */
+    @Override
+    public boolean poll(StampedItem into) {
+        long currentHead = head;
+        if (!available(currentHead)) {
+            return false;
+        }
+        int index = (int) (currentHead & mask);
+        into.set(buffer[index], stamps[index]);
+        HEAD.setRelease(this, currentHead + 1);
+        return true;
+    }
+
+    /**
+     * Verifica se há item publicado na posição da cabeça, relendo a cauda apenas quando a cópia local indica
+     * buffer vazio.
+     */
+    private boolean available(long currentHead) {
+        if (currentHead >= cachedTail) {
+            cachedTail = (long) TAIL.getAcquire(this);
+            return currentHead < cachedTail;
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        long currentHead = (long) HEAD.getAcquire(this);
+        long currentTail = (long) TAIL.getAcquire(this);
+        return (int) Math.max(0, Math.min(capacity, currentTail - currentHead));
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public int[] getContents() {
+        long currentHead = (long) HEAD.getAcquire(this);
+        long currentTail = (long) TAIL.getAcquire(this);
+        int count = (int) Math.max(0, Math.min(capacity, currentTail - currentHead));
+        int[] contents = new int[count];
+        for (int i = 0; i < count; i++) {
+            contents[i] = buffer[(int) ((currentHead + i) & mask)];
+        }
+        return contents;
+    }
+}
+
+/**
+ * Preenchimento que separa as sequências do cabeçalho do objeto e dos campos vizinhos.
+ */
+abstract class SpscLeftPadding {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * Campos escritos pelo produtor: a cauda publicada e a cópia local da cabeça.
+ */
+abstract class SpscProducerFields extends SpscLeftPadding {
+    long tail;
+    long cachedHead;
+}
+
+/**
+ * Preenchimento entre as linhas de cache do produtor e do consumidor.
+ */
+abstract class SpscMiddlePadding extends SpscProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * Campos escritos pelo consumidor: a cabeça publicada e a cópia local da cauda.
+ */
+abstract class SpscConsumerFields extends SpscMiddlePadding {
+    long head;
+    long cachedTail;
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
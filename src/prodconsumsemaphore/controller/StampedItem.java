@@ -0,0 +1,37 @@
+package prodconsumsemaphore.controller;
+
+/**
+ * Item retirado de um buffer junto com o instante em que foi inserido.
+ * É um objeto reutilizável: cada consumidor mantém o seu e o passa às operações de remoção, que apenas
+ * copiam os campos, sem alocar objetos.
+ */
+public final class StampedItem {
+    private int value;
+    private long stamp;
+
+    /**
+     * Preenche o item.
+     * @param value Valor do item.
+     * @param stamp Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     */
+    void set(int value, long stamp) {
+        this.value = value;
+        this.stamp = stamp;
+    }
+
+    /**
+     * Retorna o valor do item.
+     * @return Valor do item.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Retorna o instante em que o item foi inserido no buffer.
+     * @return Instante da inserção, em nanossegundos de {@link System#nanoTime()}.
+     */
+    public long getStamp() {
+        return stamp;
+    }
+}
@@ -1,5 +1,8 @@
 package prodconsumsemaphore.view;
 
+import common.EventType;
+import common.LatencyHistogram;
+import common.view.ActivityLogPanel;
 import prodconsumsemaphore.controller.SimulationController;
 import org.jfree.chart.ChartPanel;
 
@@ -20,7 +23,10 @@ public class ProdutorConsumidorGUI extends JFrame {
     private final SimulationController simulationController;
     private final JPanel bufferPanel;
     private final List<JLabel> bufferCells = new ArrayList<>();
-    private final JTextArea logArea = new JTextArea(1, 20);
+    private static final int LOG_CAPACITY = 10_000; // Linhas mantidas no log de atividades
+
+    private final ActivityLogPanel logPanel = new ActivityLogPanel(LOG_CAPACITY);
+    private final JLabel latencyLabel = new JLabel(" ", SwingConstants.CENTER);
 
     /**
      * Construtor da interface gráfica. Configura os componentes da GUI,
@@ -63,17 +69,18 @@ public class ProdutorConsumidorGUI extends JFrame {
         chartPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
         mainPanel.add(chartPanel);
 
-        logArea.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(logArea);
-        scrollPane.setPreferredSize(new Dimension(800, 25));
-        scrollPane.setAlignmentX(Component.CENTER_ALIGNMENT);
-        mainPanel.add(scrollPane);
+        logPanel.setPreferredSize(new Dimension(800, 120));
+        logPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(logPanel);
 
         bufferPanel = new JPanel();
         bufferPanel.setAlignmentX(Component.CENTER_ALIGNMENT);
         bufferPanel.setPreferredSize(new Dimension(800, 60));
         mainPanel.add(bufferPanel);
 
+        latencyLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        mainPanel.add(latencyLabel);
+
         add(mainPanel, BorderLayout.CENTER);
 
         initializeBufferPanel(5);  // Inicializa o painel do buffer com tamanho padrão de 5
@@ -138,12 +145,23 @@ public class ProdutorConsumidorGUI extends JFrame {
     }
 
     /**
-     * Adiciona uma mensagem ao log de atividades.
-     * @param message Mensagem a ser registrada no log.
+     * Atualiza o resumo de latência exibido abaixo do buffer.
+     * @param queueLatency Resumo do tempo de permanência no buffer.
+     * @param endToEndLatency Resumo da latência de ponta a ponta.
+     */
+    public void updateLatencyDisplay(LatencyHistogram.Summary queueLatency, LatencyHistogram.Summary endToEndLatency) {
+        latencyLabel.setText("Fila: " + queueLatency.toMicrosText() + "   Ponta a ponta: " + endToEndLatency.toMicrosText());
+    }
+
+    /**
+     * Adiciona uma linha ao log de atividades. As linhas adicionadas no mesmo quadro atualizam a lista uma
+     * única vez.
+     * Pré-condição: deve ser chamado na EDT.
+     * @param type Tipo do evento que gerou a linha, ou {@code null} para linhas sem tipo.
+     * @param line Linha a ser registrada, sem quebra de linha.
      */
-    public void logMessage(String message) {
-        logArea.append(message + "\n");
-        logArea.setCaretPosition(logArea.getDocument().getLength());
+    public void appendLog(EventType type, String line) {
+        logPanel.append(type, line);
     }
 
     /**